@@ -0,0 +1,119 @@
+package org.example.benchmarks;
+
+import org.example.RedisServer;
+import org.example.RedisServerConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PING round trips from a few busy clients while many idle connections stay open, for each io-mode of the server.
+// run on Java 21 to compare virtual threads, e.g. java -jar target/benchmarks.jar ConnectionModeBenchmark -p idleConnections=5000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmarks.xml")
+@Threads(8)
+public class ConnectionModeBenchmark {
+    private static final int PORT = 6400;
+    private static final byte[] PING = Requests.command("PING");
+    private static final int PONG_LENGTH = "$4\r\nPONG\r\n".length();
+
+    @Param({"threads", "virtual", "nio"})
+    public String ioMode;
+
+    @Param({"2000"})
+    public int idleConnections;
+
+    private final List<Socket> idleSockets = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void startServer() throws Exception {
+        RedisServerConfig config = RedisServerConfig.fromArgs(new String[]{"--port", Integer.toString(PORT), "--io-mode", ioMode});
+        Thread serverThread = new Thread(() -> RedisServer.startRedisServer(config), "redis-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        long started = System.nanoTime();
+        for (int i = 0; i < idleConnections; i++) {
+            Socket socket = connect();
+            // one round trip so the server side is parked in a read, like an idle client
+            roundTrip(socket.getOutputStream(), socket.getInputStream(), new byte[PONG_LENGTH]);
+            idleSockets.add(socket);
+        }
+        System.out.printf("%n%s: %d idle connections opened in %d ms%n", ioMode, idleConnections,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @TearDown(Level.Trial)
+    public void report() throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%n%s: %d live JVM threads, %d MB heap used%n", ioMode,
+                ManagementFactory.getThreadMXBean().getThreadCount(),
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        for (Socket socket: idleSockets) {
+            socket.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        Socket socket;
+        InputStream inputStream;
+        OutputStream outputStream;
+        final byte[] reply = new byte[PONG_LENGTH];
+
+        @Setup(Level.Trial)
+        public void connect(ConnectionModeBenchmark benchmark) throws Exception {
+            socket = ConnectionModeBenchmark.connect();
+            socket.setTcpNoDelay(true);
+            inputStream = socket.getInputStream();
+            outputStream = socket.getOutputStream();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] ping(Client client) throws IOException {
+        return roundTrip(client.outputStream, client.inputStream, client.reply);
+    }
+
+    private static byte[] roundTrip(OutputStream outputStream, InputStream inputStream, byte[] reply) throws IOException {
+        outputStream.write(PING);
+        int read = 0;
+        while (read < reply.length) {
+            int bytes = inputStream.read(reply, read, reply.length - read);
+            if (bytes < 0) {
+                throw new IOException("connection closed by server");
+            }
+            read += bytes;
+        }
+        return reply;
+    }
+
+    // the server is started asynchronously, retry until it listens
+    private static Socket connect() throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return new Socket("localhost", PORT);
+            } catch (ConnectException e) {
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
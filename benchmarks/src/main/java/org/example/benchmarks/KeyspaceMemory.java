@@ -0,0 +1,53 @@
+package org.example.benchmarks;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+
+// heap retained per key, measured after a full GC once the keyspace is filled with numeric values "0".."keys-1":
+// java -Xmx4g -cp target/benchmarks.jar org.example.benchmarks.KeyspaceMemory --keys 10000000 --timer pex
+public class KeyspaceMemory {
+
+    public static void main(String[] args) {
+        if (System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", "log4j2-benchmarks.xml");
+        }
+        int keys = 10_000_000;
+        // none, ex or pex: the command the keys are written with
+        String timer = "none";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--keys" -> keys = Integer.parseInt(args[i + 1]);
+                case "--timer" -> timer = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        RedisDatabase redisDatabase = new RedisDatabase();
+        long before = usedHeap();
+        long started = System.nanoTime();
+        for (int i = 0; i < keys; i++) {
+            RedisKey key = RedisKey.of("key:" + i);
+            byte[] value = Integer.toString(i).getBytes(StandardCharsets.US_ASCII);
+            switch (timer) {
+                case "ex" -> redisDatabase.setValueForKeyWithEX(key, value, "3600");
+                case "pex" -> redisDatabase.setValueForKeyWithPEX(key, value, "3600000");
+                default -> redisDatabase.setValueForKey(key, value);
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        long after = usedHeap();
+        System.out.printf("%d keys (timer %s) written in %d ms%n", redisDatabase.size(), timer, elapsed / 1_000_000);
+        System.out.printf("heap used: %d MB, %.1f bytes per key%n", (after - before) / (1024 * 1024), (after - before) / (double) keys);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,333 @@
+package org.example.benchmarks;
+
+import org.example.RedisServer;
+import org.example.RedisServerConfig;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// end to end load against a running jredis, in the spirit of redis-benchmark. options are passed like the server ones:
+// java -cp target/benchmarks.jar org.example.benchmarks.LoadGenerator --clients 50 --pipeline 16 --mix get=80,set=20
+// every request of a pipelined batch is given the round trip time of the whole batch as its latency.
+public class LoadGenerator {
+
+    enum Command {
+        GET, SET, INCR, LPUSH, LRANGE
+    }
+
+    private String host = "localhost";
+    private int port = 6379;
+    private int clients = 50;
+    private int pipeline = 1;
+    private int requests = 1_000_000;
+    private int keyspace = 100_000;
+    private int valueSize = 64;
+    private final Map<Command, Integer> mix = new EnumMap<>(Map.of(Command.GET, 50, Command.SET, 50));
+    // starts jredis in this JVM with the given io-mode instead of connecting to a running one
+    private String embedded;
+    // shards of the embedded server, 0 runs commands on its connection threads
+    private int shards;
+    // BGSAVE sent every this many milliseconds during the measurement, 0 never
+    private int bgsaveEvery;
+    // fsync policy of the append only file of the embedded server, null runs it without one
+    private String appendFsync;
+
+    private Command[] commandByWeight;
+    private String value;
+    private final AtomicLong errors = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        // quiet server logging when embedded, unless configured otherwise
+        if (System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", "log4j2-benchmarks.xml");
+        }
+        LoadGenerator loadGenerator = fromArgs(args);
+        if (loadGenerator.embedded != null) {
+            loadGenerator.startEmbeddedServer();
+        }
+        loadGenerator.run();
+        System.exit(0);
+    }
+
+    static LoadGenerator fromArgs(String[] args) {
+        LoadGenerator loadGenerator = new LoadGenerator();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--host" -> loadGenerator.host = value;
+                case "--port" -> loadGenerator.port = Integer.parseInt(value);
+                case "--clients" -> loadGenerator.clients = Math.max(1, Integer.parseInt(value));
+                case "--pipeline" -> loadGenerator.pipeline = Math.max(1, Integer.parseInt(value));
+                case "--requests" -> loadGenerator.requests = Math.max(1, Integer.parseInt(value));
+                case "--keyspace" -> loadGenerator.keyspace = Math.max(1, Integer.parseInt(value));
+                case "--value-size" -> loadGenerator.valueSize = Math.max(1, Integer.parseInt(value));
+                case "--mix" -> loadGenerator.parseMix(value);
+                case "--embedded" -> loadGenerator.embedded = value;
+                case "--shards" -> loadGenerator.shards = Math.max(0, Integer.parseInt(value));
+                case "--bgsave-every" -> loadGenerator.bgsaveEvery = Math.max(0, Integer.parseInt(value));
+                case "--appendfsync" -> loadGenerator.appendFsync = value;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Missing value for option " + args[args.length - 1]);
+        }
+        return loadGenerator;
+    }
+
+    // e.g. get=80,set=15,incr=5: weights, not necessarily summing up to 100
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part: value.split(",")) {
+            String[] commandAndWeight = part.split("=");
+            int weight = commandAndWeight.length == 2 ? Integer.parseInt(commandAndWeight[1]) : 1;
+            if (weight > 0) {
+                mix.put(Command.valueOf(commandAndWeight[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty command mix " + value);
+        }
+    }
+
+    private void startEmbeddedServer() throws InterruptedException {
+        List<String> args = new ArrayList<>(List.of("--port", Integer.toString(port), "--io-mode", embedded, "--shards", Integer.toString(shards)));
+        if (appendFsync != null) {
+            args.addAll(List.of("--appendonly", "yes", "--appendfsync", appendFsync));
+        }
+        RedisServerConfig config = RedisServerConfig.fromArgs(args.toArray(new String[0]));
+        Thread serverThread = new Thread(() -> RedisServer.startRedisServer(config), "redis-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        host = "localhost";
+        for (int attempt = 0; ; attempt++) {
+            try (Jedis jedis = new Jedis(host, port)) {
+                jedis.ping();
+                return;
+            } catch (JedisConnectionException e) {
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private void run() throws InterruptedException {
+        List<Command> weighted = new ArrayList<>();
+        mix.forEach((command, weight) -> weighted.addAll(Collections.nCopies(weight, command)));
+        commandByWeight = weighted.toArray(new Command[0]);
+        value = "x".repeat(valueSize);
+        System.out.printf("%s:%d, %d clients, pipeline %d, %d requests, keyspace %d, value size %d, mix %s%n",
+                host, port, clients, pipeline, requests, keyspace, valueSize, mix);
+        if (mix.containsKey(Command.GET)) {
+            populate();
+        }
+
+        Client[] workers = new Client[clients];
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            // the first clients take the remainder of the division
+            int clientRequests = requests / clients + (i < requests % clients ? 1 : 0);
+            workers[i] = new Client(clientRequests, start, done);
+            Thread thread = new Thread(workers[i], "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        Thread bgsaves = bgsaveEvery > 0 ? startBgsaves(done) : null;
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        if (bgsaves != null) {
+            bgsaves.join();
+        }
+        report(workers, elapsed);
+    }
+
+    // snapshots taken while the clients run, to see what they cost them. a BGSAVE sent while one runs is refused
+    private Thread startBgsaves(CountDownLatch done) {
+        Thread thread = new Thread(() -> {
+            int started = 0;
+            int refused = 0;
+            try (Jedis jedis = new Jedis(host, port)) {
+                while (!done.await(bgsaveEvery, TimeUnit.MILLISECONDS)) {
+                    try {
+                        jedis.bgsave();
+                        started++;
+                    } catch (JedisDataException e) {
+                        refused++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.printf("BGSAVE every %d ms: %d started, %d refused while one was running%n", bgsaveEvery, started, refused);
+        }, "load-bgsave");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // GETs hit existing keys, written over one pipelined connection before the measurement
+    private void populate() {
+        try (Jedis jedis = new Jedis(host, port)) {
+            Pipeline pipelined = jedis.pipelined();
+            for (int i = 0; i < keyspace; i++) {
+                pipelined.set(key(i), value);
+                if (i % 1000 == 999) {
+                    pipelined.sync();
+                }
+            }
+            pipelined.sync();
+        }
+    }
+
+    private void report(Client[] workers, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%n%d requests completed in %.2f seconds, %d errors%n", requests, seconds, errors.get());
+        System.out.printf("throughput: %.0f requests per second%n%n", requests / seconds);
+        System.out.printf("%-8s %10s %12s %12s %12s %12s%n", "command", "requests", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)");
+        long[] all = new long[0];
+        for (Command command: Command.values()) {
+            long[] latencies = merge(workers, command);
+            if (latencies.length > 0) {
+                printLatencies(command.name(), latencies);
+                all = concat(all, latencies);
+            }
+        }
+        printLatencies("ALL", all);
+    }
+
+    private static void printLatencies(String name, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %10d %12.1f %12.1f %12.1f %12.1f%n", name, latencies.length,
+                percentile(latencies, 50), percentile(latencies, 99), percentile(latencies, 99.9),
+                latencies[latencies.length - 1] / 1e3);
+    }
+
+    // sorted nanos in, microseconds out
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e3;
+    }
+
+    private static long[] merge(Client[] workers, Command command) {
+        long[] merged = new long[0];
+        for (Client worker: workers) {
+            merged = concat(merged, Arrays.copyOf(worker.latencies[command.ordinal()], worker.counts[command.ordinal()]));
+        }
+        return merged;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private String key(int index) {
+        return "key:" + index;
+    }
+
+    // one connection, sends its share of the requests in batches of pipeline size and records each latency
+    private class Client implements Runnable {
+        private final int requests;
+        private final CountDownLatch start;
+        private final CountDownLatch done;
+        // latencies in nanos per command, sized for the worst case where every request is the same command
+        final long[][] latencies = new long[Command.values().length][];
+        final int[] counts = new int[Command.values().length];
+
+        Client(int requests, CountDownLatch start, CountDownLatch done) {
+            this.requests = requests;
+            this.start = start;
+            this.done = done;
+            for (Command command: mix.keySet()) {
+                latencies[command.ordinal()] = new long[requests];
+            }
+            for (int i = 0; i < latencies.length; i++) {
+                if (latencies[i] == null) {
+                    latencies[i] = new long[0];
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            Command[] batch = new Command[pipeline];
+            try (Jedis jedis = new Jedis(host, port)) {
+                // a Jedis connection cannot send plain commands while it has a pipeline open
+                Pipeline pipelined = pipeline > 1 ? jedis.pipelined() : null;
+                start.await();
+                for (int sent = 0; sent < requests; sent += pipeline) {
+                    int batchSize = Math.min(pipeline, requests - sent);
+                    for (int i = 0; i < batchSize; i++) {
+                        batch[i] = commandByWeight[ThreadLocalRandom.current().nextInt(commandByWeight.length)];
+                    }
+                    long started = System.nanoTime();
+                    if (pipelined == null) {
+                        send(jedis, batch[0]);
+                    } else {
+                        sendPipelined(pipelined, batch, batchSize);
+                    }
+                    long latency = System.nanoTime() - started;
+                    for (int i = 0; i < batchSize; i++) {
+                        latencies[batch[i].ordinal()][counts[batch[i].ordinal()]++] = latency;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void send(Jedis jedis, Command command) {
+            int index = ThreadLocalRandom.current().nextInt(keyspace);
+            try {
+                switch (command) {
+                    case GET -> jedis.get(key(index));
+                    case SET -> jedis.set(key(index), value);
+                    case INCR -> jedis.incr("counter:" + index);
+                    case LPUSH -> jedis.lpush("list:" + index, value);
+                    case LRANGE -> jedis.lrange("list:" + index, 0, 9);
+                }
+            } catch (JedisDataException e) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private void sendPipelined(Pipeline pipelined, Command[] batch, int batchSize) {
+            for (int i = 0; i < batchSize; i++) {
+                int index = ThreadLocalRandom.current().nextInt(keyspace);
+                switch (batch[i]) {
+                    case GET -> pipelined.get(key(index));
+                    case SET -> pipelined.set(key(index), value);
+                    case INCR -> pipelined.incr("counter:" + index);
+                    case LPUSH -> pipelined.lpush("list:" + index, value);
+                    case LRANGE -> pipelined.lrange("list:" + index, 0, 9);
+                }
+            }
+            // errors are returned in place of the reply, sync does not throw them
+            for (Object reply: pipelined.syncAndReturnAll()) {
+                if (reply instanceof JedisDataException) {
+                    errors.incrementAndGet();
+                }
+            }
+        }
+    }
+}
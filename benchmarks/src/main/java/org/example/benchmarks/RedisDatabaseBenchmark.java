@@ -0,0 +1,121 @@
+package org.example.benchmarks;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// RedisDatabase operations without the protocol, run with 1..N threads through -t (see README).
+// string keys are shared by all threads, list keys are private to each thread: operations on one list are serialized by its key.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmarks.xml")
+public class RedisDatabaseBenchmark {
+    private static final List<byte[]> ELEMENT = List.of(bytes("element"));
+    private static final List<byte[]> TEN_ELEMENTS = Stream.of("e0", "e1", "e2", "e3", "e4", "e5", "e6", "e7", "e8", "e9").map(RedisDatabaseBenchmark::bytes).toList();
+    private static final int QUEUE_LENGTH = 1_000_000;
+    private static final byte[] VALUE = bytes("value:000042");
+    private static final RedisKey HOT_KEY = RedisKey.of("counter:hot");
+
+    @Param({"100000"})
+    public int keys;
+
+    private final RedisDatabase redisDatabase = new RedisDatabase();
+    private RedisKey[] stringKeys;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void populate() {
+        stringKeys = new RedisKey[keys];
+        for (int i = 0; i < keys; i++) {
+            stringKeys[i] = RedisKey.of(String.format("key:%08d", i));
+            redisDatabase.setValueForKey(stringKeys[i], bytes("1"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        RedisKey listKey;
+        RedisKey rangeKey;
+        RedisKey queueKey;
+
+        @Setup(Level.Trial)
+        public void setup(RedisDatabaseBenchmark benchmark) {
+            int thread = benchmark.threads.getAndIncrement();
+            listKey = RedisKey.of("list:" + thread);
+            rangeKey = RedisKey.of("range:" + thread);
+            benchmark.redisDatabase.tailPushToList(rangeKey, TEN_ELEMENTS);
+            queueKey = RedisKey.of("queue:" + thread);
+            for (int i = 0; i < QUEUE_LENGTH; i++) {
+                benchmark.redisDatabase.tailPushToList(queueKey, ELEMENT);
+            }
+        }
+
+        // LPUSH starts every iteration from an empty list so it does not grow without bound
+        @Setup(Level.Iteration)
+        public void clearList(RedisDatabaseBenchmark benchmark) {
+            benchmark.redisDatabase.deleteKeys(List.of(listKey));
+        }
+    }
+
+    @Benchmark
+    public Optional<Object> get() {
+        return redisDatabase.getValueForKey(randomKey());
+    }
+
+    @Benchmark
+    public void set() {
+        redisDatabase.setValueForKey(randomKey(), VALUE);
+    }
+
+    @Benchmark
+    public Optional<String> incr() {
+        return redisDatabase.incrementValue(randomKey());
+    }
+
+    // every thread increments the same counter
+    @Benchmark
+    public Optional<String> incrHotKey() {
+        return redisDatabase.incrementValue(HOT_KEY);
+    }
+
+    @Benchmark
+    public Optional<String> lpush(Client client) {
+        return redisDatabase.headPushToList(client.listKey, ELEMENT);
+    }
+
+    @Benchmark
+    public Optional<List<byte[]>> lrange(Client client) {
+        return redisDatabase.getListElements(client.rangeKey, 0, 9);
+    }
+
+    // a long queue: RPUSH at the tail, LPOP at the head, its length stays the same
+    @Benchmark
+    public Optional<Object> rpushLpop(Client client) {
+        redisDatabase.tailPushToList(client.queueKey, ELEMENT);
+        return redisDatabase.popFromList(client.queueKey, true, 1);
+    }
+
+    @Benchmark
+    public Optional<Object> lindexMiddle(Client client) {
+        return redisDatabase.getListElement(client.queueKey, QUEUE_LENGTH / 2);
+    }
+
+    private RedisKey randomKey() {
+        return stringKeys[ThreadLocalRandom.current().nextInt(stringKeys.length)];
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
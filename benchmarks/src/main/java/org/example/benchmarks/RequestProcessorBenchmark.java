@@ -0,0 +1,85 @@
+package org.example.benchmarks;
+
+import org.example.database.AppendOnlyFile;
+import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
+import org.example.engine.RedisRequestProcessor;
+import org.example.resp_types.RespDataType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// command dispatch and execution: RedisRequestProcessor.processRequest on parsed requests, rotating over a fixed keyspace.
+// appendfsync other than off also logs the writes to an append only file in a temporary directory
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmarks.xml")
+public class RequestProcessorBenchmark {
+    private static final int KEYS = 1024;
+    private static final List<byte[]> ELEMENTS = IntStream.range(0, 10).mapToObj(i -> ("element:" + i).getBytes(StandardCharsets.UTF_8)).toList();
+
+    @Param({"GET", "SET", "INCR", "LPUSH", "LRANGE"})
+    public String command;
+
+    @Param({"off"})
+    public String appendfsync;
+
+    private final RedisDatabase redisDatabase = new RedisDatabase();
+    private RedisRequestProcessor redisRequestProcessor;
+    private byte[][][] requests;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        RedisDatabases redisDatabases = new RedisDatabases(redisDatabase);
+        if (!appendfsync.equals("off")) {
+            Path directory = Files.createTempDirectory("jredis-benchmark");
+            redisDatabases.startAppendOnly(directory.resolve("appendonly.aof"), AppendOnlyFile.FsyncPolicy.valueOf(appendfsync.toUpperCase()), 0, 0);
+        }
+        redisRequestProcessor = new RedisRequestProcessor(redisDatabases, null);
+        requests = new byte[KEYS][][];
+        for (int i = 0; i < KEYS; i++) {
+            String key = String.format("%s:%06d", command.toLowerCase(), i);
+            requests[i] = switch (command) {
+                case "GET" -> Requests.arguments("GET", key);
+                case "SET" -> Requests.arguments("SET", key, "value:000042");
+                case "INCR" -> Requests.arguments("INCR", key);
+                case "LPUSH" -> Requests.arguments("LPUSH", key, "element");
+                case "LRANGE" -> Requests.arguments("LRANGE", key, "0", "9");
+                default -> throw new IllegalArgumentException(command);
+            };
+        }
+    }
+
+    // GET and LRANGE read populated keys, LPUSH starts every iteration from empty lists so they do not grow without bound
+    @Setup(Level.Iteration)
+    public void populate() {
+        for (int i = 0; i < KEYS; i++) {
+            String key = String.format("%s:%06d", command.toLowerCase(), i);
+            RedisKey redisKey = RedisKey.of(key);
+            redisDatabase.deleteKeys(List.of(redisKey));
+            if (command.equals("GET")) {
+                redisDatabase.setValueForKey(redisKey, "value:000042".getBytes(StandardCharsets.UTF_8));
+            } else if (command.equals("LRANGE")) {
+                redisDatabase.tailPushToList(redisKey, ELEMENTS);
+            }
+        }
+    }
+
+    @Benchmark
+    public RespDataType processRequest() {
+        byte[][] arguments = requests[next];
+        next = (next + 1) % KEYS;
+        return redisRequestProcessor.processRequest(Requests.array(arguments));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.benchmarks;
+
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+
+import java.nio.charset.StandardCharsets;
+
+// RESP encoded client requests used as benchmark input
+final class Requests {
+    private Requests() {}
+
+    static byte[] command(String... arguments) {
+        StringBuilder builder = new StringBuilder().append('*').append(arguments.length).append("\r\n");
+        for (String argument: arguments) {
+            builder.append('$').append(argument.getBytes(StandardCharsets.UTF_8).length).append("\r\n")
+                    .append(argument).append("\r\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // the request as RespParser hands it to the processor: one byte[] backed BulkString per argument
+    static RespArray array(byte[][] arguments) {
+        RespArray request = new RespArray(arguments.length);
+        for (byte[] argument: arguments) {
+            request.addElement(new BulkString(argument));
+        }
+        return request;
+    }
+
+    static byte[][] arguments(String... arguments) {
+        byte[][] bytes = new byte[arguments.length][];
+        for (int i = 0; i < arguments.length; i++) {
+            bytes[i] = arguments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.benchmarks;
+
+import org.example.exceptions.IncorrectSyntax;
+import org.example.resp.Deserializer;
+import org.example.resp.RespParser;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// request parsing: char based Deserializer over a BufferedReader against the byte based RespParser
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RespParserBenchmark {
+
+    @Param({"GET", "SET_1KB", "LPUSH_100"})
+    public String request;
+
+    private byte[] requestBytes;
+    private RespParser respParser;
+    private BufferedReader bufferedReader;
+    private final Deserializer deserializer = new Deserializer();
+
+    @Setup
+    public void setup() {
+        requestBytes = switch (request) {
+            case "GET" -> Requests.command("GET", "key:000042");
+            case "SET_1KB" -> Requests.command("SET", "key:000042", "x".repeat(1024));
+            case "LPUSH_100" -> {
+                String[] arguments = new String[102];
+                arguments[0] = "LPUSH";
+                arguments[1] = "list:000042";
+                for (int i = 2; i < arguments.length; i++) {
+                    arguments[i] = "element:" + i;
+                }
+                yield Requests.command(arguments);
+            }
+            default -> throw new IllegalArgumentException(request);
+        };
+        respParser = new RespParser();
+        // one reader per connection like the request handler, rewound to the same request on every invocation
+        bufferedReader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(requestBytes)));
+        try {
+            bufferedReader.mark(requestBytes.length + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public RespDataType deserializer() throws IOException {
+        bufferedReader.reset();
+        // the request handler consumed the leading '*' before calling the deserializer
+        bufferedReader.read();
+        return deserializer.deserializeRequest(bufferedReader);
+    }
+
+    @Benchmark
+    public RespArray respParser() throws IncorrectSyntax {
+        respParser.feed(ByteBuffer.wrap(requestBytes));
+        return respParser.next();
+    }
+
+    // same input split in two reads, the parser has to resume the partial request
+    @Benchmark
+    public RespArray respParserSplitRead() throws IncorrectSyntax {
+        int half = requestBytes.length / 2;
+        respParser.feed(requestBytes, 0, half);
+        respParser.next();
+        respParser.feed(requestBytes, half, requestBytes.length - half);
+        return respParser.next();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.benchmarks;
+
+import org.example.resp.RespWriter;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+import org.example.resp_types.simple.RespInteger;
+import org.example.resp_types.simple.RespNull;
+import org.example.resp_types.simple.SimpleString;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// reply encoding for each RespDataType: the StringBuilder based serialize() against write() into a reused RespWriter
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmarks.xml")
+public class RespSerializeBenchmark {
+
+    @Param({"SimpleString", "SimpleError", "RespInteger", "RespNull", "BulkString", "BulkString_1KB", "RespArray_100"})
+    public String reply;
+
+    private RespDataType respDataType;
+    private final RespWriter respWriter = new RespWriter(16 * 1024);
+
+    @Setup
+    public void setup() {
+        respDataType = switch (reply) {
+            case "SimpleString" -> new SimpleString("OK");
+            case "SimpleError" -> new SimpleError("Unknown Command");
+            case "RespInteger" -> new RespInteger("1234567");
+            case "RespNull" -> new RespNull();
+            case "BulkString" -> new BulkString("value:000042");
+            case "BulkString_1KB" -> new BulkString("x".repeat(1024));
+            case "RespArray_100" -> {
+                RespArray respArray = new RespArray(100);
+                for (int i = 0; i < 100; i++) {
+                    respArray.addElement(new BulkString("element:" + i));
+                }
+                yield respArray;
+            }
+            default -> throw new IllegalArgumentException(reply);
+        };
+    }
+
+    // what the request handler used to send: the serialized reply encoded to bytes
+    @Benchmark
+    public byte[] serialize() {
+        return respDataType.serialize().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int write() {
+        respWriter.reset();
+        respDataType.write(respWriter);
+        return respWriter.size();
+    }
+}
@@ -2,32 +2,129 @@ package org.example;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.engine.AppendOnlyFileLoader;
+import org.example.engine.KeyspaceShards;
+import org.example.engine.RedisEventLoop;
 import org.example.engine.RedisRequestHandler;
+import org.example.metrics.MetricsHttpServer;
+import org.example.metrics.RedisMetrics;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class RedisServer {
     private static final Logger log = LogManager.getLogger(RedisServer.class);
-    private static final ExecutorService executor = Executors.newCachedThreadPool();
-    private static final RedisDatabase redisDatabase = RedisDatabase.getInstance();
 
     public static void main(String[] args) {
         log.info("starting redis server...");
-        startRedisServer();
+        startRedisServer(RedisServerConfig.fromArgs(args));
     }
 
-    private static void startRedisServer() {
-        try(ServerSocket serverSocket = new ServerSocket(6379)) {
+    // blocks the calling thread serving clients until the listening socket fails, returns at once when the snapshot or the append only file cannot be loaded
+    public static void startRedisServer(RedisServerConfig config) {
+        if (config.getMetricsPort() > 0) {
+            startMetricsServer(config.getMetricsPort());
+        }
+        RedisDatabases redisDatabases = new RedisDatabases(config.getDatabases(), config.getDbFilename());
+        if (!loadDatabases(config, redisDatabases)) {
+            return;
+        }
+        redisDatabases.startActiveExpire(config.getHz());
+        KeyspaceShards keyspaceShards = null;
+        if (config.getShards() > 0) {
+            keyspaceShards = new KeyspaceShards(config.getShards());
+            if (keyspaceShards.size() != config.getShards()) {
+                log.info("--shards {} rounded to {}, a power of two.", config.getShards(), keyspaceShards.size());
+            }
+            log.info("commands run on {} keyspace shards.", keyspaceShards.size());
+        }
+        switch (config.getIoMode()) {
+            case NIO -> startEventLoopRedisServer(config, redisDatabases, keyspaceShards);
+            case THREADS -> startThreadedRedisServer(config, Executors.newCachedThreadPool(), redisDatabases, keyspaceShards);
+            case VIRTUAL -> startThreadedRedisServer(config, newVirtualThreadExecutor(), redisDatabases, keyspaceShards);
+        }
+    }
+
+    // with appendonly the log has every write since it was created and is loaded instead of the snapshot, like Redis does.
+    // false when neither can be loaded or the log cannot be written
+    private static boolean loadDatabases(RedisServerConfig config, RedisDatabases redisDatabases) {
+        Path appendOnlyFile = Path.of(config.getAppendFilename());
+        try {
+            if (config.isAppendOnly() && Files.exists(appendOnlyFile) && Files.size(appendOnlyFile) > 0) {
+                long startTime = System.nanoTime();
+                long requests = AppendOnlyFileLoader.load(appendOnlyFile, redisDatabases);
+                log.info("append only file replayed in {} ms: {} requests, {} keys.", (System.nanoTime() - startTime) / 1_000_000, requests, redisDatabases.size());
+            } else if (!redisDatabases.initializeDatabases()) {
+                log.error("server not started, move or fix the snapshot file {} first.", config.getDbFilename());
+                return false;
+            }
+        } catch (IOException e) {
+            log.error("server not started, append only file {} not loaded: {}", appendOnlyFile, e.getMessage());
+            return false;
+        }
+        return !config.isAppendOnly() || redisDatabases.startAppendOnly(appendOnlyFile, config.getAppendFsync(),
+                config.getAutoAofRewritePercentage(), config.getAutoAofRewriteMinSize());
+    }
+
+    private static void startThreadedRedisServer(RedisServerConfig config, ExecutorService executor, RedisDatabases redisDatabases, KeyspaceShards keyspaceShards) {
+        try(ServerSocket serverSocket = new ServerSocket(config.getPort())) {
             log.info("server started.");
             while(true) {
-                executor.execute(new RedisRequestHandler(serverSocket.accept(), redisDatabase));
+                executor.execute(new RedisRequestHandler(serverSocket.accept(), redisDatabases, keyspaceShards));
             }
         } catch(IOException e) {
             log.error("IOException while creating Server Socket, server shutdown: {}", e.getMessage());
             executor.shutdown();
         }
     }
-}
\ No newline at end of file
+
+    // fixed number of event loop threads, the calling thread only accepts and hands channels out round robin
+    private static void startEventLoopRedisServer(RedisServerConfig config, RedisDatabases redisDatabases, KeyspaceShards keyspaceShards) {
+        RedisEventLoop[] eventLoops = new RedisEventLoop[config.getIoThreads()];
+        try(ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(config.getPort()), 1024);
+            for (int i = 0; i < eventLoops.length; i++) {
+                eventLoops[i] = new RedisEventLoop(redisDatabases, keyspaceShards, config.getClientOutputBufferLimit());
+                Thread loopThread = new Thread(eventLoops[i], "event-loop-" + i);
+                loopThread.start();
+            }
+            log.info("server started with {} event loops.", eventLoops.length);
+            int next = 0;
+            while(true) {
+                eventLoops[next].register(serverChannel.accept());
+                next = (next + 1) % eventLoops.length;
+            }
+        } catch(IOException e) {
+            log.error("IOException while creating Server Socket Channel, server shutdown: {}", e.getMessage());
+            for (RedisEventLoop eventLoop: eventLoops) {
+                if (eventLoop != null) {
+                    eventLoop.shutdown();
+                }
+            }
+        }
+    }
+
+    private static void startMetricsServer(int port) {
+        try {
+            new MetricsHttpServer(port, RedisMetrics.getInstance()).start();
+        } catch (IOException e) {
+            log.error("IOException while starting the metrics endpoint, serving without it: {}", e.getMessage());
+        }
+    }
+
+    // looked up reflectively so the default Java 17 build still compiles, falls back to platform threads before Java 21
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.error("virtual threads need Java 21 (running {}), serving with platform threads.", Runtime.version());
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.database.AppendOnlyFile.FsyncPolicy;
+
+// server options, passed on the command line redis-server style: --port 6380 --io-mode nio
+// also used to start an embedded server, e.g. from benchmarks: RedisServerConfig.fromArgs(new String[]{"--port", "6400"})
+public class RedisServerConfig {
+    private static final Logger log = LogManager.getLogger(RedisServerConfig.class);
+
+    public enum IoMode {
+        // one platform thread per client connection (blocking sockets)
+        THREADS,
+        // fixed number of selector based event loops (non-blocking channels)
+        NIO,
+        // one virtual thread per client connection (blocking sockets), needs Java 21
+        VIRTUAL
+    }
+
+    public static final String DEFAULT_SNAPSHOT_FILE = "redis_database.rdb";
+    public static final String DEFAULT_APPEND_ONLY_FILE = "appendonly.aof";
+
+    private int port = 6379;
+    private IoMode ioMode = IoMode.THREADS;
+    private int ioThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+    // active expire cycles per second
+    private int hz = 10;
+    // 0 disables the Prometheus metrics endpoint
+    private int metricsPort = 0;
+    // 0 runs commands on the connection threads, otherwise each key is owned by one of this many shard threads
+    private int shards = 0;
+    // logical databases, numbered from 0, SELECT picks one per connection
+    private int databases = 16;
+    // snapshot written by SAVE and BGSAVE and loaded at startup, relative to the working directory
+    private String dbFilename = DEFAULT_SNAPSHOT_FILE;
+    // write commands logged to appendFilename, which startup then loads instead of the snapshot
+    private boolean appendOnly = false;
+    private String appendFilename = DEFAULT_APPEND_ONLY_FILE;
+    private FsyncPolicy appendFsync = FsyncPolicy.EVERYSEC;
+    // the append only file is rewritten once it grew by this percentage over its size after the last rewrite, 0 never
+    private int autoAofRewritePercentage = 100;
+    private long autoAofRewriteMinSize = 64L * 1024 * 1024;
+    // replies a nio client may leave unread before it is disconnected, 0 no limit
+    private long clientOutputBufferLimit = 256L * 1024 * 1024;
+
+    public static RedisServerConfig fromArgs(String[] args) {
+        RedisServerConfig config = new RedisServerConfig();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String option = args[i];
+            String value = args[i + 1];
+            switch (option) {
+                case "--port" -> config.port = Integer.parseInt(value);
+                case "--io-mode" -> config.ioMode = IoMode.valueOf(value.toUpperCase());
+                case "--io-threads" -> config.ioThreads = Math.max(1, Integer.parseInt(value));
+                case "--hz" -> config.hz = Math.max(1, Math.min(500, Integer.parseInt(value)));
+                case "--metrics-port" -> config.metricsPort = Integer.parseInt(value);
+                case "--shards" -> config.shards = Math.max(0, Integer.parseInt(value));
+                case "--databases" -> config.databases = Math.max(1, Integer.parseInt(value));
+                case "--dbfilename" -> config.dbFilename = value;
+                case "--appendonly" -> config.appendOnly = value.equalsIgnoreCase("yes");
+                case "--appendfilename" -> config.appendFilename = value;
+                case "--appendfsync" -> config.appendFsync = FsyncPolicy.valueOf(value.toUpperCase());
+                case "--auto-aof-rewrite-percentage" -> config.autoAofRewritePercentage = Math.max(0, Integer.parseInt(value));
+                case "--auto-aof-rewrite-min-size" -> config.autoAofRewriteMinSize = parseBytes(value);
+                case "--client-output-buffer-limit" -> config.clientOutputBufferLimit = parseBytes(value);
+                default -> log.warn("Unknown option {}, ignored.", option);
+            }
+        }
+        if (args.length % 2 != 0) {
+            log.warn("Missing value for option {}, ignored.", args[args.length - 1]);
+        }
+        return config;
+    }
+
+    // a number of bytes with an optional kb, mb or gb unit, e.g. 64mb
+    private static long parseBytes(String value) {
+        String lower = value.toLowerCase();
+        long unit = 1;
+        if (lower.endsWith("kb")) {
+            unit = 1024;
+        } else if (lower.endsWith("mb")) {
+            unit = 1024 * 1024;
+        } else if (lower.endsWith("gb")) {
+            unit = 1024 * 1024 * 1024;
+        }
+        return Long.parseLong(unit == 1 ? lower : lower.substring(0, lower.length() - 2)) * unit;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public IoMode getIoMode() {
+        return ioMode;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public int getHz() {
+        return hz;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public int getDatabases() {
+        return databases;
+    }
+
+    public String getDbFilename() {
+        return dbFilename;
+    }
+
+    public boolean isAppendOnly() {
+        return appendOnly;
+    }
+
+    public String getAppendFilename() {
+        return appendFilename;
+    }
+
+    public FsyncPolicy getAppendFsync() {
+        return appendFsync;
+    }
+
+    public int getAutoAofRewritePercentage() {
+        return autoAofRewritePercentage;
+    }
+
+    public long getAutoAofRewriteMinSize() {
+        return autoAofRewriteMinSize;
+    }
+
+    public long getClientOutputBufferLimit() {
+        return clientOutputBufferLimit;
+    }
+}
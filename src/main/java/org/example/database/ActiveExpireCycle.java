@@ -0,0 +1,52 @@
+package org.example.database;
+
+import org.example.metrics.RedisMetrics;
+
+// Redis style active expiry, run hz times per second: deletes the keys whose deadline has passed, earliest first.
+// due keys are taken from the head of the ExpiryIndex, so a cycle never looks at keys that are not due yet.
+// a cycle stops early once it used up its time budget, the rest is left to the next cycles and to lazy expiry on access.
+// with several databases, the next cycle starts from the database the previous one stopped in, so none of them starves.
+public class ActiveExpireCycle implements Runnable {
+    // keys deleted between two checks of the time budget
+    private static final int KEYS_PER_TIME_CHECK = 20;
+    // share of the cycle period a cycle may run for
+    private static final int TIME_PERCENT = 25;
+    private final RedisDatabases redisDatabases;
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+    private final long budgetNanos;
+    // only touched by the thread running the cycles
+    private int nextDatabase = 0;
+
+    public ActiveExpireCycle(RedisDatabases redisDatabases, int hz) {
+        this.redisDatabases = redisDatabases;
+        this.budgetNanos = 1_000_000_000L / hz * TIME_PERCENT / 100;
+    }
+
+    @Override
+    public void run() {
+        long startTime = System.nanoTime();
+        long now = CachedClock.millis();
+        long expired = 0;
+        int checked = 0;
+        int count = redisDatabases.count();
+        for (int visited = 0; visited < count; visited++) {
+            RedisDatabase redisDatabase = redisDatabases.get(nextDatabase);
+            ExpiryIndex expiryIndex = redisDatabase.getExpiryIndex();
+            ExpiryIndex.Expiry first;
+            while ((first = expiryIndex.first()) != null && first.deadline() <= now) {
+                if (redisDatabase.removeIfExpired(first.key())) {
+                    expired++;
+                } else {
+                    // the key is gone, never leave a stale head behind
+                    expiryIndex.remove(first);
+                }
+                if (++checked % KEYS_PER_TIME_CHECK == 0 && System.nanoTime() - startTime >= budgetNanos) {
+                    redisMetrics.expireCycleCompleted(expired, System.nanoTime() - startTime);
+                    return;
+                }
+            }
+            nextDatabase = (nextDatabase + 1) % count;
+        }
+        redisMetrics.expireCycleCompleted(expired, System.nanoTime() - startTime);
+    }
+}
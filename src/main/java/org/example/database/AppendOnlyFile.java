@@ -0,0 +1,428 @@
+package org.example.database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.metrics.RedisMetrics;
+import org.example.resp.RespWriter;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// the Redis AOF: every write command, as the client sent it, appended to a file that startup replays.
+// clients only copy their request into a buffer, a single writer thread drains it to the file in batches (group commit)
+// and calls fsync as the policy says. the file always ends with complete requests or with a partial one from a crash,
+// which the loader cuts off.
+// a rewrite (BGREWRITEAOF) replaces the file with the shortest commands rebuilding the keyspace, see RedisDatabases.
+public class AppendOnlyFile {
+    private static final Logger log = LogManager.getLogger(AppendOnlyFile.class);
+    // a power of two: with KeyspaceShards the stripe of a key is a multiple of its shard plus the shard, see stripe
+    public static final int KEY_LOCKS = 1024;
+    private static final CompletableFuture<Boolean> SYNCED = CompletableFuture.completedFuture(true);
+    private static final CompletableFuture<Boolean> NOT_SYNCED = CompletableFuture.completedFuture(false);
+    private static final int[] ALL_STRIPES = IntStream.range(0, KEY_LOCKS).toArray();
+    private static final long FSYNC_INTERVAL_MILLIS = 1000;
+    // EVERYSEC and NO: the writer takes the requests once this many bytes or this much time piled up, whichever comes first.
+    // waking it up for every request would cost a system call and a context switch each
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final long BATCH_DELAY_MILLIS = 10;
+
+    public enum FsyncPolicy {
+        // the reply waits until the request is on disk, requests arriving meanwhile share the next fsync
+        ALWAYS,
+        // fsync once per second by the writer thread, a crash loses at most about the last second
+        EVERYSEC,
+        // never fsync, the operating system flushes when it likes
+        NO
+    }
+
+    private final Path file;
+    private final FsyncPolicy fsyncPolicy;
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+    // writes to the same key keep the order they ran in, writes without keys (FLUSHDB, SWAPDB) take them all
+    private final ReentrantLock[] keyLocks = new ReentrantLock[KEY_LOCKS];
+    // guarded by this: requests appended and not taken by the writer yet, numbered from 1
+    private RespWriter pending = new RespWriter(64 * 1024);
+    private int selectedDatabase = -1;
+    private long appended = 0;
+    private long pendingSince;
+    private long synced = 0;
+    // ALWAYS: completed once the requests of the batch being written, up to writingBatch, or the pending ones are on disk.
+    // created when the first client asks
+    private long writingBatch = 0;
+    private CompletableFuture<Boolean> writingSynced;
+    private CompletableFuture<Boolean> pendingSynced;
+    private boolean writerWaiting = false;
+    // while a rewrite runs: the requests appended since it started, they go after the keys it writes
+    private RespWriter rewriteBuffer;
+    private RewriteFinish rewriteFinish;
+    // set while the writer cannot write, cleared once it could again
+    private volatile IOException writeError;
+    // writer thread only
+    private FileChannel channel;
+    private RespWriter writing = new RespWriter(64 * 1024);
+    private long lastFsync = System.currentTimeMillis();
+    private boolean unsynced = false;
+    private volatile long size;
+    // automatic rewrite once the file grew by this percentage over its size after the last rewrite, 0 never
+    private final int rewritePercentage;
+    private final long rewriteMinSize;
+    private final BooleanSupplier rewrite;
+    private volatile long rewriteBaseSize;
+
+    private record RewriteFinish(AppendOnlyFileWriter rewritten, CompletableFuture<Long> done) {}
+
+    // appends to the file, created when missing. the writer thread starts at once.
+    // rewrite starts a background rewrite and tells whether it did
+    public AppendOnlyFile(Path file, FsyncPolicy fsyncPolicy, int rewritePercentage, long rewriteMinSize, BooleanSupplier rewrite) throws IOException {
+        this.file = file;
+        this.fsyncPolicy = fsyncPolicy;
+        this.rewritePercentage = rewritePercentage;
+        this.rewriteMinSize = rewriteMinSize;
+        this.rewrite = rewrite;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.size = channel.size();
+        this.rewriteBaseSize = size;
+        for (int i = 0; i < KEY_LOCKS; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
+        redisMetrics.registerGauge("jredis_aof_size_bytes", "Size of the append only file.", () -> size);
+        Thread writer = new Thread(this::writeLoop, "aof-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // not null while the log cannot be written: writes must be refused, they would not survive a restart
+    public IOException getWriteError() {
+        return writeError;
+    }
+
+    // held from before a write on these keys runs until it is appended. no keys (FLUSHDB, SWAPDB) locks every key
+    public void lock(List<byte[]> keys) {
+        if (keys.size() == 1) {
+            keyLocks[stripe(keys.get(0))].lock();
+            return;
+        }
+        for (int stripe: stripes(keys)) {
+            keyLocks[stripe].lock();
+        }
+    }
+
+    public void unlock(List<byte[]> keys) {
+        if (keys.size() == 1) {
+            keyLocks[stripe(keys.get(0))].unlock();
+            return;
+        }
+        for (int stripe: stripes(keys)) {
+            keyLocks[stripe].unlock();
+        }
+    }
+
+    // the low bits of the hash KeyspaceShards spreads keys with, so keys of two shards never share a stripe
+    private static int stripe(byte[] key) {
+        int hash = Arrays.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (KEY_LOCKS - 1);
+    }
+
+    // distinct and in ascending order, so that two writes on the same keys never wait on each other
+    private static int[] stripes(List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return ALL_STRIPES;
+        }
+        return keys.stream().mapToInt(AppendOnlyFile::stripe).sorted().distinct().toArray();
+    }
+
+    // the requests of a client working on this database, preceded by a SELECT when the last request logged was for another one.
+    // returns the number to wait for with synced
+    public synchronized long append(int database, RespArray... requests) {
+        boolean first = pending.size() == 0;
+        if (first) {
+            pendingSince = System.currentTimeMillis();
+        }
+        boolean select = database != selectedDatabase;
+        selectedDatabase = database;
+        write(pending, select, database, requests);
+        if (rewriteBuffer != null) {
+            write(rewriteBuffer, select, database, requests);
+        }
+        appended++;
+        if (writerWaiting && (first || fsyncPolicy == FsyncPolicy.ALWAYS || pending.size() >= BATCH_SIZE)) {
+            notifyAll();
+        }
+        return appended;
+    }
+
+    private static void write(RespWriter respWriter, boolean select, int database, RespArray[] requests) {
+        if (select) {
+            respWriter.writeArrayPrefix(2);
+            new BulkString("SELECT").write(respWriter);
+            new BulkString(Integer.toString(database)).write(respWriter);
+        }
+        for (RespArray request: requests) {
+            request.write(respWriter);
+        }
+    }
+
+    // a rewrite starts buffering the requests appended from now on, startSnapshot runs with no write in flight:
+    // every write is either in the keys the rewrite walks or in the buffer, never in both
+    <T> T startRewrite(Supplier<T> startSnapshot) {
+        List<byte[]> allKeys = List.of();
+        lock(allKeys);
+        try {
+            synchronized (this) {
+                rewriteBuffer = new RespWriter(64 * 1024);
+                // the buffer goes after the keys of the last database, it has to select its own
+                selectedDatabase = -1;
+            }
+            return startSnapshot.get();
+        } finally {
+            unlock(allKeys);
+        }
+    }
+
+    // the writer thread appends the buffered requests to the rewritten file, moves it over this one and goes on
+    // writing there. returns the size of the new file
+    long finishRewrite(AppendOnlyFileWriter rewritten) throws IOException {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        synchronized (this) {
+            rewriteFinish = new RewriteFinish(rewritten, done);
+            notifyAll();
+        }
+        try {
+            return done.join();
+        } catch (CompletionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    // the rewrite failed: this file goes on, the next automatic rewrite waits for it to grow again
+    synchronized void abortRewrite() {
+        rewriteBuffer = null;
+        rewriteBaseSize = size;
+    }
+
+    // ALWAYS: completed with true once the request is on disk, with false when the writer failed meanwhile.
+    // the requests of a batch share one future, the writer thread completes it after the fsync. other policies do not wait
+    public CompletableFuture<Boolean> synced(long sequence) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return SYNCED;
+        }
+        synchronized (this) {
+            if (synced >= sequence) {
+                return SYNCED;
+            }
+            if (writeError != null) {
+                return NOT_SYNCED;
+            }
+            if (sequence <= writingBatch) {
+                if (writingSynced == null) {
+                    writingSynced = new CompletableFuture<>();
+                }
+                return writingSynced;
+            }
+            if (pendingSynced == null) {
+                pendingSynced = new CompletableFuture<>();
+            }
+            return pendingSynced;
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            long batch;
+            RewriteFinish finish;
+            RespWriter buffered;
+            synchronized (this) {
+                while (!isBatchReady()) {
+                    waitForRequests();
+                }
+                RespWriter taken = pending;
+                pending = writing;
+                writing = taken;
+                batch = appended;
+                writingBatch = batch;
+                writingSynced = pendingSynced;
+                pendingSynced = null;
+                finish = rewriteFinish;
+                buffered = rewriteBuffer;
+                if (finish != null) {
+                    rewriteFinish = null;
+                    rewriteBuffer = null;
+                }
+            }
+            long written = writeBatch();
+            if (finish != null) {
+                written = switchToRewritten(finish, buffered, written);
+            }
+            CompletableFuture<Boolean> batchSynced;
+            synchronized (this) {
+                synced = batch;
+                size = written;
+                batchSynced = writingSynced;
+                writingSynced = null;
+            }
+            // the replies waiting for it go out from their own threads, see RedisConnection
+            if (batchSynced != null) {
+                batchSynced.complete(true);
+            }
+            if (isRewriteDue(written) && rewrite.getAsBoolean()) {
+                log.info("Automatic rewrite of append only file {} started at {} bytes, {}% over {} bytes.", file, written, (written - rewriteBaseSize) * 100 / Math.max(1, rewriteBaseSize), rewriteBaseSize);
+            }
+        }
+    }
+
+    private boolean isRewriteDue(long written) {
+        return rewritePercentage > 0 && written >= rewriteMinSize && written - rewriteBaseSize >= rewriteBaseSize * rewritePercentage / 100;
+    }
+
+    // the buffered requests include the batch just written to this file, they end the rewritten one.
+    // on failure the rewrite is dropped and this file goes on. returns the size of the file written from now on
+    private long switchToRewritten(RewriteFinish finish, RespWriter buffered, long written) {
+        FileChannel rewritten;
+        try {
+            finish.rewritten().append(buffered);
+            rewritten = finish.rewritten().commitOpen();
+        } catch (IOException e) {
+            rewriteBaseSize = written;
+            finish.done().completeExceptionally(e);
+            return written;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Append only file replaced by its rewrite not closed: {}", e.toString());
+        }
+        channel = rewritten;
+        written = finish.rewritten().size();
+        rewriteBaseSize = written;
+        finish.done().complete(written);
+        return written;
+    }
+
+    // ALWAYS takes whatever is pending, its clients are waiting. a finishing rewrite is taken at once
+    private boolean isBatchReady() {
+        if (rewriteFinish != null) {
+            return true;
+        }
+        if (pending.size() == 0) {
+            return isFsyncDue();
+        }
+        return fsyncPolicy == FsyncPolicy.ALWAYS || pending.size() >= BATCH_SIZE || batchDelayLeft() <= 0;
+    }
+
+    private long batchDelayLeft() {
+        return BATCH_DELAY_MILLIS - (System.currentTimeMillis() - pendingSince);
+    }
+
+    // EVERYSEC: data written since the last fsync and the second is over
+    private boolean isFsyncDue() {
+        return unsynced && System.currentTimeMillis() - lastFsync >= FSYNC_INTERVAL_MILLIS;
+    }
+
+    private void waitForRequests() {
+        writerWaiting = true;
+        try {
+            if (pending.size() > 0) {
+                wait(Math.max(1, batchDelayLeft()));
+            } else if (unsynced) {
+                wait(Math.max(1, FSYNC_INTERVAL_MILLIS - (System.currentTimeMillis() - lastFsync)));
+            } else {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writerWaiting = false;
+        }
+    }
+
+    // retried every second until it goes through: a batch is written whole or not at all, clients are refused writes meanwhile.
+    // returns the size of the file after it
+    private long writeBatch() {
+        long start = size;
+        while (true) {
+            try {
+                ByteBuffer rest = writing.writeTo(channel);
+                while (rest.hasRemaining()) {
+                    channel.write(rest);
+                }
+                if (fsyncPolicy == FsyncPolicy.ALWAYS || fsyncPolicy == FsyncPolicy.EVERYSEC && System.currentTimeMillis() - lastFsync >= FSYNC_INTERVAL_MILLIS) {
+                    long fsyncStart = System.nanoTime();
+                    channel.force(false);
+                    redisMetrics.aofFsynced(System.nanoTime() - fsyncStart);
+                    lastFsync = System.currentTimeMillis();
+                    unsynced = false;
+                } else {
+                    unsynced = fsyncPolicy == FsyncPolicy.EVERYSEC;
+                }
+                long written = start + writing.size();
+                writing.reset();
+                if (writeError != null) {
+                    log.info("Append only file {} written again.", file);
+                    writeError = null;
+                }
+                return written;
+            } catch (IOException e) {
+                if (writeError == null) {
+                    log.error("Append only file {} not written, writes are refused until it is: {}", file, e.toString());
+                }
+                List<CompletableFuture<Boolean>> failed = new ArrayList<>(2);
+                synchronized (this) {
+                    writeError = e;
+                    failed.add(writingSynced);
+                    failed.add(pendingSynced);
+                    writingSynced = null;
+                    pendingSynced = null;
+                }
+                for (CompletableFuture<Boolean> notSynced: failed) {
+                    if (notSynced != null) {
+                        notSynced.complete(false);
+                    }
+                }
+                truncate(start);
+                sleep();
+            }
+        }
+    }
+
+    // drops the part of a batch that made it to the file before the failure
+    private void truncate(long size) {
+        try {
+            channel.truncate(size);
+        } catch (IOException e) {
+            log.error("Append only file {} not truncated back to {} bytes: {}", file, size, e.toString());
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(FSYNC_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.database;
+
+import org.example.resp.RespWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// writes the keyspace as the shortest commands that rebuild it, like the Redis AOF rewrite: one SET per string,
+// RPUSH for lists and PEXPIREAT for timers. a temporary file next to the target is moved in place on commit
+class AppendOnlyFileWriter implements DatasetWriter {
+    private static final byte[] SELECT = bytes("SELECT");
+    private static final byte[] SET = bytes("SET");
+    private static final byte[] RPUSH = bytes("RPUSH");
+    private static final byte[] PEXPIREAT = bytes("PEXPIREAT");
+    // list elements per RPUSH, so that replaying a long list never builds a huge request
+    private static final int ELEMENTS_PER_COMMAND = 64;
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final RespWriter buffer = new RespWriter(SnapshotFormat.BUFFER_SIZE);
+    // SELECT is written before the first key of a database, empty databases take no room
+    private int database = -1;
+    private boolean selected = false;
+    private boolean committed = false;
+    // bytes in the file
+    private long size = 0;
+
+    AppendOnlyFileWriter(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        this.temporary = this.target.resolveSibling("temp-rewrite-" + ProcessHandle.current().pid() + "-" + this.target.getFileName());
+        this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void selectDatabase(int index) {
+        database = index;
+        selected = false;
+    }
+
+    @Override
+    public boolean write(RedisKey key, Entry entry) throws IOException {
+        Object value = entry.getValue();
+        if (value == null) {
+            return false;
+        }
+        if (!selected) {
+            buffer.writeArrayPrefix(2);
+            writeBulk(SELECT);
+            writeBulk(bytes(Integer.toString(database)));
+            selected = true;
+        }
+        if (value instanceof QuickList list) {
+            List<byte[]> elements = list.range(0, -1);
+            for (int start = 0; start < elements.size(); start += ELEMENTS_PER_COMMAND) {
+                int end = Math.min(elements.size(), start + ELEMENTS_PER_COMMAND);
+                buffer.writeArrayPrefix(2 + end - start);
+                writeBulk(RPUSH);
+                writeBulk(key.getBytes());
+                for (byte[] element: elements.subList(start, end)) {
+                    writeBulk(element);
+                }
+            }
+        } else {
+            buffer.writeArrayPrefix(3);
+            writeBulk(SET);
+            writeBulk(key.getBytes());
+            writeBulk(entry instanceof CounterEntry counter ? bytes(Long.toString(counter.getCount())) : (byte[]) value);
+        }
+        if (entry.hasTimer()) {
+            buffer.writeArrayPrefix(3);
+            writeBulk(PEXPIREAT);
+            writeBulk(key.getBytes());
+            writeBulk(bytes(Long.toString(entry.getDeadline())));
+        }
+        if (buffer.size() >= SnapshotFormat.BUFFER_SIZE / 2) {
+            flush();
+        }
+        return true;
+    }
+
+    // flush to disk and atomic move over the previous file
+    @Override
+    public void commit() throws IOException {
+        commitOpen().close();
+    }
+
+    // like commit, the file stays open and the caller goes on appending to it at its new place
+    FileChannel commitOpen() throws IOException {
+        flush();
+        channel.force(true);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+        return channel;
+    }
+
+    // requests already encoded, after the keys written so far
+    void append(RespWriter requests) throws IOException {
+        flush();
+        size += requests.size();
+        ByteBuffer rest = requests.writeTo(channel);
+        while (rest.hasRemaining()) {
+            channel.write(rest);
+        }
+    }
+
+    // without commit the temporary file is deleted
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void writeBulk(byte[] value) {
+        buffer.writeBulkPrefix(value.length).writeBytes(value).writeCRLF();
+    }
+
+    long size() {
+        return size;
+    }
+
+    private void flush() throws IOException {
+        size += buffer.size();
+        ByteBuffer rest = buffer.writeTo(channel);
+        while (rest.hasRemaining()) {
+            channel.write(rest);
+        }
+        buffer.reset();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.database;
+
+// wall clock in milliseconds refreshed by a daemon thread, like the time Redis caches once per event loop iteration.
+// reading it is a volatile load instead of a clock call and an Instant for every expiry check.
+public final class CachedClock {
+    // the cached time is at most about this far behind the system clock
+    static final long PRECISION_MILLIS = 10;
+    private static volatile long millis = System.currentTimeMillis();
+
+    static {
+        Thread ticker = new Thread(CachedClock::tick, "cached-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CachedClock() {}
+
+    public static long millis() {
+        return millis;
+    }
+
+    private static void tick() {
+        while (true) {
+            millis = System.currentTimeMillis();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+// integer value kept as a primitive long and updated in place with a CAS, so INCR/DECR on it never take a lock.
+// clients still see it as a string: getValue() renders the decimal form.
+public class CounterEntry extends Entry {
+    private static final AtomicLongFieldUpdater<CounterEntry> COUNT = AtomicLongFieldUpdater.newUpdater(CounterEntry.class, "count");
+    private volatile long count;
+
+    public CounterEntry(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public Object getValue() {
+        return isExpired() ? null : Long.toString(this.count).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String getEncoding() {
+        return "int";
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    Entry copy() {
+        CounterEntry copy = new CounterEntry(this.count);
+        copy.setDeadline(getDeadline());
+        return copy;
+    }
+
+    // throws ArithmeticException when the result does not fit a long, the count is left unchanged
+    public long add(long delta) {
+        long current;
+        long next;
+        do {
+            current = this.count;
+            next = Math.addExact(current, delta);
+        } while (!COUNT.compareAndSet(this, current, next));
+        return next;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// output of a point-in-time walk over the databases (see RedisDatabases): the snapshot file or a new append only file.
+// nothing replaces the previous file until commit, closing without it throws the output away
+interface DatasetWriter extends Closeable {
+    // the keys written next belong to this database
+    void selectDatabase(int index) throws IOException;
+
+    // false when the entry expired already and was left out
+    boolean write(RedisKey key, Entry entry) throws IOException;
+
+    void commit() throws IOException;
+}
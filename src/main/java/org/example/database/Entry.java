@@ -1,48 +1,109 @@
 package org.example.database;
-import java.io.Serializable;
-import java.time.Instant;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
 
-public class Entry implements Serializable {
+// value plus an absolute expiry deadline in epoch milliseconds, 24 bytes with compressed oops.
+// the deadline is computed once when the timer is set, reads compare it against the CachedClock.
+// string values are binary safe byte[], kept in the most compact of the Redis encodings: see ofBytes.
+public class Entry {
+    // a key without timer never reaches this deadline
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    // longest string reported as embstr, longer ones are raw. both are a bare byte[] here
+    static final int EMBSTR_SIZE_LIMIT = 44;
     private Object value;
-    private Instant timerSetAt;
-    private Instant timer;
-    private boolean timerSet = false;
-    private boolean timestampSet = false;
+    private long deadline = NO_DEADLINE;
 
-    public Optional<Object> getValue() {
-        Optional<Object> value = Optional.empty();
-        if (timerSet && (Instant.now().toEpochMilli() - timerSetAt.toEpochMilli() >= timer.toEpochMilli())) {
-            return value;
+    // int: a CounterEntry holding a primitive long, for decimal strings that round trip through a long.
+    // embstr and raw: the bytes as received, not copied
+    public static Entry ofBytes(byte[] value) {
+        if (isLong(value)) {
+            return new CounterEntry(Long.parseLong(new String(value, StandardCharsets.US_ASCII)));
         }
-        if (timestampSet && Instant.now().isAfter(timer)) {
-            return value;
+        Entry entry = new Entry();
+        entry.value = value;
+        return entry;
+    }
+
+    // null once the deadline has passed. strings are byte[], lists are a QuickList
+    public Object getValue() {
+        return isExpired() ? null : this.value;
+    }
+
+    // as reported by OBJECT ENCODING
+    public String getEncoding() {
+        if (this.value instanceof byte[] bytes) {
+            return bytes.length <= EMBSTR_SIZE_LIMIT ? "embstr" : "raw";
         }
-        value = Optional.of(this.value);
-        return value;
+        return "quicklist";
+    }
+
+    public boolean hasTimer() {
+        return deadline != NO_DEADLINE;
+    }
+
+    public boolean isExpired() {
+        long now = CachedClock.millis();
+        if (now >= deadline) {
+            return true;
+        }
+        // the cached time may lag behind, close to the deadline ask the system clock
+        return deadline - now <= CachedClock.PRECISION_MILLIS && System.currentTimeMillis() >= deadline;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
     }
 
     public void setTimerEX(long timer) {
-        this.timerSetAt = Instant.now();
-        this.timer = Instant.ofEpochSecond(timer);
-        this.timerSet = true;
-        this.timestampSet = false;
+        this.deadline = Math.addExact(System.currentTimeMillis(), Math.multiplyExact(timer, 1000L));
     }
 
     public void setTimerPEX(long timer) {
-        this.timerSetAt = Instant.now();
-        this.timer = Instant.ofEpochMilli(timer);
-        this.timerSet = true;
-        this.timestampSet = false;
+        this.deadline = Math.addExact(System.currentTimeMillis(), timer);
     }
 
     public void setTimerEAXT(long timestamp) {
-        this.timer = Instant.ofEpochSecond(timestamp);
-        this.timerSet = false;
-        this.timestampSet = true;
+        this.deadline = Math.multiplyExact(timestamp, 1000L);
     }
 
     public void setValue(Object value) {
         this.value = value;
     }
+
+    // for a Snapshot: strings are never changed in place and are shared, a list is copied
+    Entry copy() {
+        Entry copy = new Entry();
+        copy.value = this.value instanceof QuickList list ? list.copy() : this.value;
+        copy.deadline = this.deadline;
+        return copy;
+    }
+
+    // canonical decimal form of a long: no sign other than '-', no leading zeros, no "-0"
+    private static boolean isLong(byte[] value) {
+        int length = value.length;
+        if (length == 0 || length > 20) {
+            return false;
+        }
+        int start = value[0] == '-' ? 1 : 0;
+        if (start == length || (value[start] == '0' && (length > 1))) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            if (value[i] < '0' || value[i] > '9') {
+                return false;
+            }
+        }
+        if (length - start < 19) {
+            return true;
+        }
+        try {
+            Long.parseLong(new String(value, StandardCharsets.US_ASCII));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 }
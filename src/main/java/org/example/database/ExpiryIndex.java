@@ -0,0 +1,40 @@
+package org.example.database;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// keys with a timer ordered by deadline, so due keys are found at the head without scanning the keyspace.
+// only updated inside a compute on the key (see RedisDatabase), it always matches the entries stored.
+public class ExpiryIndex {
+    record Expiry(long deadline, RedisKey key) {}
+
+    private static final Comparator<Expiry> BY_DEADLINE = Comparator.comparingLong(Expiry::deadline).thenComparing(Expiry::key);
+    private final ConcurrentSkipListSet<Expiry> expiries = new ConcurrentSkipListSet<>(BY_DEADLINE);
+
+    void add(RedisKey key, long deadline) {
+        expiries.add(new Expiry(deadline, key));
+    }
+
+    void remove(RedisKey key, long deadline) {
+        expiries.remove(new Expiry(deadline, key));
+    }
+
+    void remove(Expiry expiry) {
+        expiries.remove(expiry);
+    }
+
+    void clear() {
+        expiries.clear();
+    }
+
+    // earliest deadline, null when no key has a timer
+    Expiry first() {
+        // first() throws on an empty set, checking isEmpty() before would race with removals
+        try {
+            return expiries.first();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// list value in the spirit of the Redis quicklist: a doubly linked chain of array segments of up to SEGMENT_SIZE elements.
+// push and pop at both ends are O(1), reads and trims walk whole segments up to the first element they touch.
+// indexes follow Redis: negative ones count from the tail, -1 being the last element.
+public class QuickList {
+    static final int SEGMENT_SIZE = 128;
+    private Segment head;
+    private Segment tail;
+    private long size;
+
+    // elements live in [start, end): a segment created for a head push fills from the end of its array, one for a tail push from the start
+    private static final class Segment {
+        private final byte[][] elements = new byte[SEGMENT_SIZE][];
+        private int start;
+        private int end;
+        private Segment previous;
+        private Segment next;
+
+        private Segment(int position) {
+            this.start = position;
+            this.end = position;
+        }
+
+        private int count() {
+            return end - start;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public void pushHead(byte[] element) {
+        if (head == null || head.start == 0) {
+            Segment segment = new Segment(SEGMENT_SIZE);
+            segment.next = head;
+            if (head == null) {
+                tail = segment;
+            } else {
+                head.previous = segment;
+            }
+            head = segment;
+        }
+        head.elements[--head.start] = element;
+        size++;
+    }
+
+    public void pushTail(byte[] element) {
+        if (tail == null || tail.end == SEGMENT_SIZE) {
+            Segment segment = new Segment(0);
+            segment.previous = tail;
+            if (tail == null) {
+                head = segment;
+            } else {
+                tail.next = segment;
+            }
+            tail = segment;
+        }
+        tail.elements[tail.end++] = element;
+        size++;
+    }
+
+    // null when the list is empty
+    public byte[] popHead() {
+        if (size == 0) {
+            return null;
+        }
+        byte[] element = head.elements[head.start];
+        head.elements[head.start++] = null;
+        size--;
+        if (head.count() == 0) {
+            unlink(head);
+        }
+        return element;
+    }
+
+    // null when the list is empty
+    public byte[] popTail() {
+        if (size == 0) {
+            return null;
+        }
+        byte[] element = tail.elements[--tail.end];
+        tail.elements[tail.end] = null;
+        size--;
+        if (tail.count() == 0) {
+            unlink(tail);
+        }
+        return element;
+    }
+
+    // same elements, which are never changed in place, in new segments
+    public QuickList copy() {
+        QuickList copy = new QuickList();
+        for (Segment segment = head; segment != null; segment = segment.next) {
+            for (int i = segment.start; i < segment.end; i++) {
+                copy.pushTail(segment.elements[i]);
+            }
+        }
+        return copy;
+    }
+
+    // LINDEX: null when the index is out of range
+    public byte[] get(long index) {
+        if (index < 0) {
+            index += size;
+        }
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        Segment segment = head;
+        if (index < size / 2) {
+            while (index >= segment.count()) {
+                index -= segment.count();
+                segment = segment.next;
+            }
+        } else {
+            segment = tail;
+            long fromTail = size - 1 - index;
+            while (fromTail >= segment.count()) {
+                fromTail -= segment.count();
+                segment = segment.previous;
+            }
+            index = segment.count() - 1 - fromTail;
+        }
+        return segment.elements[segment.start + (int) index];
+    }
+
+    // LRANGE: a copy of the elements from start to stop, both included. out of range indexes are clamped to the list
+    public List<byte[]> range(long start, long stop) {
+        if (start < 0) {
+            start = Math.max(0, start + size);
+        }
+        if (stop < 0) {
+            stop += size;
+        }
+        stop = Math.min(stop, size - 1);
+        if (start > stop) {
+            return new ArrayList<>();
+        }
+        List<byte[]> elements = new ArrayList<>((int) Math.min(stop - start + 1, Integer.MAX_VALUE));
+        Segment segment = head;
+        long skip = start;
+        while (skip >= segment.count()) {
+            skip -= segment.count();
+            segment = segment.next;
+        }
+        long remaining = stop - start + 1;
+        int position = segment.start + (int) skip;
+        while (remaining > 0) {
+            if (position == segment.end) {
+                segment = segment.next;
+                position = segment.start;
+            }
+            elements.add(segment.elements[position++]);
+            remaining--;
+        }
+        return elements;
+    }
+
+    // LTRIM: keeps the elements from start to stop, both included, and drops the others
+    public void trim(long start, long stop) {
+        if (start < 0) {
+            start = Math.max(0, start + size);
+        }
+        if (stop < 0) {
+            stop += size;
+        }
+        stop = Math.min(stop, size - 1);
+        if (start > stop) {
+            head = null;
+            tail = null;
+            size = 0;
+            return;
+        }
+        removeFromHead(start);
+        removeFromTail(size - (stop - start + 1));
+    }
+
+    private void removeFromHead(long count) {
+        size -= count;
+        while (count > 0 && count >= head.count()) {
+            count -= head.count();
+            head = head.next;
+        }
+        head.previous = null;
+        for (; count > 0; count--) {
+            head.elements[head.start++] = null;
+        }
+    }
+
+    private void removeFromTail(long count) {
+        size -= count;
+        while (count > 0 && count >= tail.count()) {
+            count -= tail.count();
+            tail = tail.previous;
+        }
+        tail.next = null;
+        for (; count > 0; count--) {
+            tail.elements[--tail.end] = null;
+        }
+    }
+
+    private void unlink(Segment segment) {
+        if (segment.previous == null) {
+            head = segment.next;
+        } else {
+            segment.previous.next = segment.next;
+        }
+        if (segment.next == null) {
+            tail = segment.previous;
+        } else {
+            segment.next.previous = segment.previous;
+        }
+    }
+}
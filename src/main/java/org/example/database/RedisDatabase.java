@@ -1,238 +1,519 @@
 package org.example.database;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import java.io.*;
+import org.example.metrics.RedisMetrics;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class RedisDatabase {
-    private static RedisDatabase instance;
-    private final Map<String, Entry> database = new ConcurrentHashMap<>();
-    private static final Logger log = LogManager.getLogger(RedisDatabase.class);
+    // INCRBYFLOAT works like Redis on a long double: longer strings are not a float, values past its largest finite one
+    // are refused, values below its smallest one are 0 and results keep the 17 significant digits Redis prints
+    public static final int MAX_LONG_DOUBLE_CHARS = 5 * 1024;
+    private static final BigDecimal LONG_DOUBLE_MAX = new BigDecimal("1.18973149535723176502e4932");
+    private static final long LONG_DOUBLE_MIN_EXPONENT = -4951;
+    private static final MathContext LONG_DOUBLE_DIGITS = new MathContext(17);
+    private final Map<RedisKey, Entry> database = new ConcurrentHashMap<>();
+    // keys with a timer by deadline, for the active expire cycle
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+    // set while SAVE or BGSAVE runs: writes keep a copy of what they change
+    private volatile Snapshot snapshot;
 
+    // one logical database, see RedisDatabases for the numbered ones a server holds
+    public RedisDatabase() {}
 
-    private RedisDatabase(){}
-
-    public static RedisDatabase getInstance() {
-        if(instance == null) {
-            instance = new RedisDatabase();
-            instance.initializeDatabase();
-        }
-        return instance;
+    public void setValueForKey(RedisKey key, byte[] value) {
+        Entry entry = Entry.ofBytes(value);
+        putEntry(key, entry);
     }
 
-    public void setValueForKey(String key, String value) {
-        Entry entry = new Entry();
-        database.put(key, entry);
-        entry.setValue(value);
+    // deadline in epoch milliseconds, commands parse and check their timer (see Deadlines)
+    public void setValueForKeyWithDeadline(RedisKey key, byte[] value, long deadline) {
+        Entry entry = Entry.ofBytes(value);
+        entry.setDeadline(deadline);
+        putEntry(key, entry);
     }
 
-    public void setValueForKeyWithEX(String key, String value, String timer) {
-        Entry entry = new Entry();
-        database.put(key, entry);
-        entry.setValue(value);
+    // throws NumberFormatException for a non integer timer, ArithmeticException when the deadline does not fit a long
+    public void setValueForKeyWithEX(RedisKey key, byte[] value, String timer) {
+        Entry entry = Entry.ofBytes(value);
         entry.setTimerEX(Long.parseLong(timer));
+        putEntry(key, entry);
     }
 
-    public void setValueForKeyWithPEX(String key, String value, String timer) {
-        Entry entry = new Entry();
-        database.put(key, entry);
-        entry.setValue(value);
+    public void setValueForKeyWithPEX(RedisKey key, byte[] value, String timer) {
+        Entry entry = Entry.ofBytes(value);
         entry.setTimerPEX(Long.parseLong(timer));
+        putEntry(key, entry);
     }
 
-    public void setValueForKeyWithEAXT(String key, String value, String timer) {
-        Entry entry = new Entry();
-        database.put(key, entry);
-        entry.setValue(value);
+    public void setValueForKeyWithEAXT(RedisKey key, byte[] value, String timer) {
+        Entry entry = Entry.ofBytes(value);
         entry.setTimerEAXT(Long.parseLong(timer));
+        putEntry(key, entry);
     }
 
-    public Optional<Object> getValueForKey(String key) {
-        if (database.get(key) == null) {
+    public Optional<Object> getValueForKey(RedisKey key) {
+        Entry entry = database.get(key);
+        if (entry == null) {
             return Optional.empty();
         }
-        // timer checked only when accessed
-        if (database.get(key).getValue().isEmpty()) {
-            database.remove(key);
+        // expired keys nobody reads are reclaimed by the ActiveExpireCycle
+        Object value = entry.getValue();
+        if (value == null) {
+            removeIfExpired(key);
             return Optional.empty();
         }
-        return database.get(key).getValue();
-    }
-
-    public Optional<String> incrementValue(String key) {
-        Optional<String> result = Optional.empty();
-        if (checkKey(key) == 0) {
-            Entry entry = new Entry();
-            database.put(key, entry);
-            entry.setValue("1");
-            result = Optional.of("1");
-        } else {
-            Entry entry = database.get(key);
-            if (entry.getValue().isPresent()) {
-                if (entry.getValue().get() instanceof String stringValue) {
-                    try {
-                        int newValue = Integer.parseInt(stringValue) + 1;
-                        entry.setValue(String.valueOf(newValue));
-                        result = Optional.of(String.valueOf(newValue));
-                    } catch (NumberFormatException e) {
-                        result = Optional.of("NPS");
-                    }
-                } else {
+        return Optional.of(value);
+    }
 
-                    result = Optional.of("NAS");
-                }
-            }
+    public Optional<String> incrementValue(RedisKey key) {
+        return incrementValueBy(key, 1);
+    }
+
+    public Optional<String> decrementValue(RedisKey key) {
+        return incrementValueBy(key, -1);
+    }
+
+    // INCR, DECR, INCRBY, DECRBY: a counter is updated lock-free with a CAS.
+    // a missing key or a numeric string is turned into a counter once, under the lock of the key
+    public Optional<String> incrementValueBy(RedisKey key, long delta) {
+        // the CAS changes the counter outside the lock of the key, a snapshot needs the compute below to copy it first
+        if (snapshot == null && database.get(key) instanceof CounterEntry counter && !counter.isExpired()) {
+            return Optional.of(addToCounter(counter, delta));
         }
-        return result;
-    }
-
-    public Optional<String> decrementValue(String key) {
-        Optional<String> result = Optional.empty();
-        if (checkKey(key) == 0) {
-            Entry entry = new Entry();
-            database.put(key, entry);
-            entry.setValue("-1");
-            result = Optional.of("-1");
-        } else {
-            Entry entry = database.get(key);
-            if (entry.getValue().isPresent()) {
-                if (entry.getValue().get() instanceof String stringValue) {
-                    try {
-                        int newValue = Integer.parseInt(stringValue) - 1;
-                        entry.setValue(String.valueOf(newValue));
-                        result = Optional.of(String.valueOf(newValue));
-                    } catch (NumberFormatException e) {
-                        result = Optional.of("NPS");
+        String[] result = {null};
+        database.compute(key, (k, entry) -> {
+            if (entry != null && entry.isExpired()) {
+                entry = expired(k, entry);
+            }
+            beforeWrite(k, entry);
+            if (entry == null) {
+                result[0] = Long.toString(delta);
+                return new CounterEntry(delta);
+            }
+            if (entry instanceof CounterEntry counter) {
+                // another client converted it first
+                result[0] = addToCounter(counter, delta);
+                return counter;
+            }
+            if (!(entry.getValue() instanceof byte[] bytes)) {
+                result[0] = "NAS";
+                return entry;
+            }
+            try {
+                CounterEntry counter = new CounterEntry(Math.addExact(Long.parseLong(new String(bytes, StandardCharsets.US_ASCII)), delta));
+                // same deadline, the ExpiryIndex stays valid
+                counter.setDeadline(entry.getDeadline());
+                result[0] = Long.toString(counter.getCount());
+                return counter;
+            } catch (NumberFormatException e) {
+                result[0] = "NPS";
+            } catch (ArithmeticException e) {
+                result[0] = "OVF";
+            }
+            return entry;
+        });
+        return Optional.of(result[0]);
+    }
+
+    // INCRBYFLOAT: decimal arithmetic on the string form, the result is stored back as a string
+    public Optional<String> incrementValueByFloat(RedisKey key, BigDecimal delta) {
+        String[] result = {null};
+        database.compute(key, (k, entry) -> {
+            if (entry != null && entry.isExpired()) {
+                entry = expired(k, entry);
+            }
+            beforeWrite(k, entry);
+            BigDecimal current = BigDecimal.ZERO;
+            if (entry != null) {
+                if (!(entry.getValue() instanceof byte[] bytes)) {
+                    result[0] = "NAS";
+                    return entry;
+                }
+                try {
+                    if (bytes.length > MAX_LONG_DOUBLE_CHARS) {
+                        throw new NumberFormatException("too long");
                     }
-                } else {
-                    result = Optional.of("NAS");
+                    current = longDouble(new BigDecimal(new String(bytes, StandardCharsets.US_ASCII)));
+                } catch (NumberFormatException e) {
+                    result[0] = "NPS";
+                    return entry;
                 }
             }
+            BigDecimal sum;
+            try {
+                // add with a precision never aligns operands of far apart exponents digit by digit
+                sum = longDouble(current.add(longDouble(delta), LONG_DOUBLE_DIGITS));
+            } catch (NumberFormatException e) {
+                result[0] = "INF";
+                return entry;
+            }
+            result[0] = sum.stripTrailingZeros().toPlainString();
+            Entry updated = Entry.ofBytes(result[0].getBytes(StandardCharsets.US_ASCII));
+            if (entry != null) {
+                updated.setDeadline(entry.getDeadline());
+            }
+            return updated;
+        });
+        return Optional.of(result[0]);
+    }
+
+    // the value as a long double would hold it, NumberFormatException for one past its range
+    private static BigDecimal longDouble(BigDecimal value) {
+        if (value.signum() == 0) {
+            return value;
+        }
+        if (value.abs().compareTo(LONG_DOUBLE_MAX) > 0) {
+            throw new NumberFormatException("out of the long double range");
         }
-        return result;
+        if ((long) value.precision() - value.scale() - 1 < LONG_DOUBLE_MIN_EXPONENT) {
+            return BigDecimal.ZERO;
+        }
+        return value;
     }
 
-    public int checkKey(String key) {
-        return database.containsKey(key) ? 1 : 0;
+    private String addToCounter(CounterEntry counter, long delta) {
+        try {
+            return Long.toString(counter.add(delta));
+        } catch (ArithmeticException e) {
+            return "OVF";
+        }
     }
 
-    public int deleteKeys(List<String> keys) {
-        int counter = 0;
-        for(String key: keys) {
-            if (checkKey(key) == 1) {
-                database.remove(key);
-                counter++;
+    public int size() {
+        return database.size();
+    }
+
+    // EXPIRE, PEXPIRE, EXPIREAT: absolute deadline in epoch milliseconds, a deadline already passed deletes the key.
+    // 1 when the key exists, 0 otherwise
+    public int setDeadline(RedisKey key, long deadline) {
+        boolean[] found = {false};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired()) {
+                return expired(k, entry);
+            }
+            found[0] = true;
+            return updateDeadline(k, entry, deadline);
+        });
+        return found[0] ? 1 : 0;
+    }
+
+    // PERSIST: 1 when the key had a timer
+    public int removeDeadline(RedisKey key) {
+        boolean[] removed = {false};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired()) {
+                return expired(k, entry);
             }
+            removed[0] = entry.hasTimer();
+            return updateDeadline(k, entry, Entry.NO_DEADLINE);
+        });
+        return removed[0] ? 1 : 0;
+    }
+
+    // OBJECT ENCODING: int, embstr or raw for strings
+    public Optional<String> getEncoding(RedisKey key) {
+        Entry entry = database.get(key);
+        if (entry == null || entry.isExpired()) {
+            return Optional.empty();
         }
-        return counter;
+        return Optional.of(entry.getEncoding());
     }
 
-    public Optional<String> headPushToList(String key, List<String> value) {
-        Optional<String> response = Optional.empty();
-        if (checkKey(key) == 0) {
-            Entry entry = new Entry();
-            database.put(key, entry);
-            ArrayList<String> list = new ArrayList<>();
-            ListIterator<String> li = value.listIterator(value.size());
-            while(li.hasPrevious()) {
-                list.add(li.previous());
-            }
-            entry.setValue(list);
-            response = Optional.of(String.valueOf(list.size()));
-        } else {
-            Entry entry = database.get(key);
-            if (entry.getValue().isPresent()) {
-                if (entry.getValue().get() instanceof ArrayList list) {
-                    ListIterator<String> li = value.listIterator(value.size());
-                    while(li.hasPrevious()) {
-                        list.add(li.previous());
-                    }
-                    entry.setValue(list);
-                    response = Optional.of(String.valueOf(list.size()));
-                } else {
-                    response = Optional.of("NAL");
-                }
+    // PTTL: milliseconds left, -1 when the key has no timer, -2 when the key does not exist
+    public long getTimeToLive(RedisKey key) {
+        Entry entry = database.get(key);
+        if (entry == null || entry.getValue() == null) {
+            return -2;
+        }
+        if (!entry.hasTimer()) {
+            return -1;
+        }
+        return Math.max(0, entry.getDeadline() - System.currentTimeMillis());
+    }
+
+    // absolute deadline in epoch milliseconds, -1 when the key has no timer, -2 when the key does not exist
+    public long getDeadline(RedisKey key) {
+        Entry entry = database.get(key);
+        if (entry == null || entry.getValue() == null) {
+            return -2;
+        }
+        return entry.hasTimer() ? entry.getDeadline() : -1;
+    }
+
+    // GETEX: the value like getValueForKey, then the key gets the new deadline (Entry.NO_DEADLINE removes the timer).
+    // "NAS" when the key does not hold a string, its entry is left as it was
+    public Optional<Object> getValueForKeyAndSetDeadline(RedisKey key, long deadline) {
+        Object[] value = {null};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired()) {
+                return expired(k, entry);
             }
+            if (!(entry.getValue() instanceof byte[] bytes)) {
+                value[0] = "NAS";
+                return entry;
+            }
+            value[0] = bytes;
+            return updateDeadline(k, entry, deadline);
+        });
+        return Optional.ofNullable(value[0]);
+    }
+
+    // a database flushed out of its slot: entries are dropped so that commands still holding it do not keep them alive.
+    // a running snapshot still reads them, the garbage collector reclaims them once it is done
+    void clear() {
+        if (snapshot == null) {
+            database.clear();
+            expiryIndex.clear();
         }
-        return response;
-    }
-
-    public Optional<String> tailPushToList(String key, List<String> value) {
-        Optional<String> response = Optional.empty();
-        if (checkKey(key) == 0) {
-            Entry entry = new Entry();
-            database.put(key, entry);
-            ArrayList<String> list = new ArrayList<>(value);
-            entry.setValue(list);
-            response = Optional.of(String.valueOf(list.size()));
-        } else {
-            Entry entry = database.get(key);
-            if (entry.getValue().isPresent()) {
-                if (entry.getValue().get() instanceof ArrayList list) {
-                    list.addAll(value);
-                    entry.setValue(list);
-                    response = Optional.of(String.valueOf(list.size()));
-                } else {
-                    response = Optional.of("NAL");
-                }
+    }
+
+    void startSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    // the snapshot that was running, null when there was none
+    Snapshot endSnapshot() {
+        Snapshot finished = snapshot;
+        this.snapshot = null;
+        return finished;
+    }
+
+    // live view of the keys for the snapshot, see snapshotEntry
+    Set<RedisKey> keys() {
+        return database.keySet();
+    }
+
+    // the entry of key when the snapshot started, null when it did not exist then or was already saved
+    Entry snapshotEntry(RedisKey key) {
+        Entry[] captured = {null};
+        database.computeIfPresent(key, (k, entry) -> {
+            captured[0] = snapshot.capture(k, entry);
+            return entry;
+        });
+        return captured[0];
+    }
+
+    ExpiryIndex getExpiryIndex() {
+        return expiryIndex;
+    }
+
+    // removes the key only if the entry stored under it is still expired, a concurrent SET may have replaced it
+    boolean removeIfExpired(RedisKey key) {
+        boolean[] expired = {false};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (!entry.isExpired()) {
+                return entry;
             }
+            expired[0] = true;
+            return expired(k, entry);
+        });
+        return expired[0];
+    }
+
+    // the methods below run inside a compute on the key, where the ExpiryIndex is kept in step with the entry
+
+    // called before the entry of key is changed in place, replaced or removed, entry is null when the key does not exist
+    private void beforeWrite(RedisKey key, Entry entry) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.preserve(key, entry);
         }
-        return response;
     }
 
-    public Optional<List<String>> getListElements(String key, int startIndex, int endIndex) {
-        Optional<List<String>> response = Optional.empty();
-        Entry entry;
-        if (checkKey(key) == 1 && (entry = database.get(key)).getValue().isPresent()) {
-            if(entry.getValue().get() instanceof ArrayList list) {
-                if (startIndex <= list.size() -1) {
-                    startIndex = startIndex < 0 ? list.size() - Math.abs(startIndex) : startIndex;
-                    endIndex = endIndex < 0 ? list.size() - Math.abs(endIndex) : Math.min(endIndex, list.size() - 1);
-                    int newStartIndex = Math.min(startIndex, endIndex);
-                    int newEndIndex = Math.max(startIndex, endIndex);
-                    response = Optional.of(list.subList(newStartIndex, newEndIndex + 1));
-                } else {
-                    response = Optional.of(List.of());
-                }
+    private Entry expired(RedisKey key, Entry entry) {
+        beforeWrite(key, entry);
+        expiryIndex.remove(key, entry.getDeadline());
+        redisMetrics.keysExpired(1);
+        return null;
+    }
+
+    // Redis never keeps an empty list around
+    private Entry emptied(RedisKey key, Entry entry) {
+        if (entry.hasTimer()) {
+            expiryIndex.remove(key, entry.getDeadline());
+        }
+        return null;
+    }
+
+    private Entry updateDeadline(RedisKey key, Entry entry, long deadline) {
+        beforeWrite(key, entry);
+        if (entry.hasTimer()) {
+            expiryIndex.remove(key, entry.getDeadline());
+        }
+        if (deadline != Entry.NO_DEADLINE && deadline <= System.currentTimeMillis()) {
+            return null;
+        }
+        entry.setDeadline(deadline);
+        if (entry.hasTimer()) {
+            expiryIndex.add(key, deadline);
+        }
+        return entry;
+    }
+
+    void putEntry(RedisKey key, Entry entry) {
+        database.compute(key, (k, previous) -> {
+            beforeWrite(k, previous);
+            if (previous != null && previous.hasTimer()) {
+                expiryIndex.remove(k, previous.getDeadline());
+            }
+            if (entry.hasTimer()) {
+                expiryIndex.add(k, entry.getDeadline());
             }
+            return entry;
+        });
+    }
+
+    private boolean removeEntry(RedisKey key) {
+        boolean[] removed = {false};
+        database.computeIfPresent(key, (k, entry) -> {
+            // an expired key the ActiveExpireCycle did not reclaim yet no longer exists
+            if (entry.isExpired()) {
+                return expired(k, entry);
+            }
+            beforeWrite(k, entry);
+            if (entry.hasTimer()) {
+                expiryIndex.remove(k, entry.getDeadline());
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public int checkKey(RedisKey key) {
+        Entry entry = database.get(key);
+        if (entry == null) {
+            return 0;
         }
-        return response;
+        if (entry.isExpired()) {
+            removeIfExpired(key);
+            return 0;
+        }
+        return 1;
     }
 
-    public boolean saveToDisk() {
-        try {
-            FileOutputStream fileOutputStream = new FileOutputStream("redis_database.rdb");
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-            for (String key: this.database.keySet()) {
-                objectOutputStream.writeObject(key);
-                objectOutputStream.writeObject(this.database.get(key));
+    public int deleteKeys(List<RedisKey> keys) {
+        int counter = 0;
+        for(RedisKey key: keys) {
+            if (removeEntry(key)) {
+                counter++;
             }
-            log.info("Database saved into disk.");
-            return true;
-        } catch(IOException e) {
-            log.error(e.getCause());
-            return false;
         }
+        return counter;
     }
 
-    public void initializeDatabase() {
-        try {
-            log.info("Initializing database..");
-            FileInputStream fileInputStream = new FileInputStream("redis_database.rdb");
-            try(ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream);) {
-                while(true) {
-                    String key = (String) objectInputStream.readObject();
-                    Entry entry = (Entry) objectInputStream.readObject();
-                    this.database.put(key, entry);
+    // LPUSH: each element in turn becomes the head, so the last one given ends up first
+    public Optional<String> headPushToList(RedisKey key, List<byte[]> value) {
+        return pushToList(key, value, true);
+    }
+
+    public Optional<String> tailPushToList(RedisKey key, List<byte[]> value) {
+        return pushToList(key, value, false);
+    }
+
+    // LRANGE: empty when the key does not exist or does not hold a list
+    @SuppressWarnings("unchecked")
+    public Optional<List<byte[]>> getListElements(RedisKey key, long startIndex, long endIndex) {
+        return readList(key, list -> list.range(startIndex, endIndex))
+                .filter(List.class::isInstance)
+                .map(elements -> (List<byte[]>) elements);
+    }
+
+    // LPOP, RPOP: up to count elements, empty when the key does not exist. a list left empty is deleted
+    public Optional<Object> popFromList(RedisKey key, boolean head, long count) {
+        Object[] result = {null};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired()) {
+                return expired(k, entry);
+            }
+            if (!(entry.getValue() instanceof QuickList list)) {
+                result[0] = "NAL";
+                return entry;
+            }
+            beforeWrite(k, entry);
+            List<byte[]> elements = new ArrayList<>();
+            for (long i = 0; i < count && list.size() > 0; i++) {
+                elements.add(head ? list.popHead() : list.popTail());
+            }
+            result[0] = elements;
+            return list.size() > 0 ? entry : emptied(k, entry);
+        });
+        return Optional.ofNullable(result[0]);
+    }
+
+    // LLEN: 0 when the key does not exist
+    public Optional<String> getListLength(RedisKey key) {
+        return Optional.of((String) readList(key, list -> String.valueOf(list.size())).orElse("0"));
+    }
+
+    // LINDEX: empty when the key does not exist or the index is out of range
+    public Optional<Object> getListElement(RedisKey key, long index) {
+        return readList(key, list -> list.get(index));
+    }
+
+    // LTRIM: a list left empty is deleted, a missing key is fine
+    public Optional<String> trimList(RedisKey key, long startIndex, long endIndex) {
+        String[] result = {"OK"};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired()) {
+                return expired(k, entry);
+            }
+            if (!(entry.getValue() instanceof QuickList list)) {
+                result[0] = "NAL";
+                return entry;
+            }
+            beforeWrite(k, entry);
+            list.trim(startIndex, endIndex);
+            return list.size() > 0 ? entry : emptied(k, entry);
+        });
+        return Optional.of(result[0]);
+    }
+
+    // a QuickList is not thread safe: every list operation, reads included, runs inside a compute on its key.
+    // the lock is the one of the map bin, so clients working on unrelated keys never wait for each other
+    private Optional<String> pushToList(RedisKey key, List<byte[]> elements, boolean head) {
+        String[] result = {null};
+        database.compute(key, (k, entry) -> {
+            if (entry != null && entry.isExpired()) {
+                entry = expired(k, entry);
+            }
+            beforeWrite(k, entry);
+            if (entry == null) {
+                entry = new Entry();
+                entry.setValue(new QuickList());
+            }
+            if (!(entry.getValue() instanceof QuickList list)) {
+                result[0] = "NAL";
+                return entry;
+            }
+            for (byte[] element: elements) {
+                if (head) {
+                    list.pushHead(element);
+                } else {
+                    list.pushTail(element);
                 }
-            } catch (IOException | ClassNotFoundException e) {
-                log.info("Finished reading database file.");
             }
-        } catch (IOException e) {
-            log.error(e.getCause());
-        }
-        log.info("Database initialized.");
+            result[0] = String.valueOf(list.size());
+            return entry;
+        });
+        return Optional.of(result[0]);
+    }
+
+    // the result of read, "NAL" when the key does not hold a list, empty when it does not exist
+    private Optional<Object> readList(RedisKey key, Function<QuickList, Object> read) {
+        Object[] result = {null};
+        database.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired()) {
+                return expired(k, entry);
+            }
+            result[0] = entry.getValue() instanceof QuickList list ? read.apply(list) : "NAL";
+            return entry;
+        });
+        return Optional.ofNullable(result[0]);
     }
 }
@@ -0,0 +1,282 @@
+package org.example.database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.RedisServerConfig;
+import org.example.metrics.RedisMetrics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// the numbered logical databases of the server, SELECT picks one per connection.
+// clients look their database up on every request, so SWAPDB and FLUSHDB only replace slots and never copy entries.
+public class RedisDatabases {
+    private static final Logger log = LogManager.getLogger(RedisDatabases.class);
+    private final AtomicReferenceArray<RedisDatabase> databases;
+    // where SAVE and BGSAVE write and startup reads
+    private final String snapshotFile;
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+    // one SAVE, BGSAVE or BGREWRITEAOF at a time
+    private final AtomicBoolean saving = new AtomicBoolean(false);
+    private volatile long lastSave = System.currentTimeMillis();
+    // null unless writes are logged, see startAppendOnly
+    private volatile AppendOnlyFile appendOnlyFile;
+    // flushed databases are cleared here, the flushing client never walks them
+    private final ExecutorService lazyFree = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lazy-free");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisDatabases(int count, String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.databases = new AtomicReferenceArray<>(count);
+        for (int i = 0; i < count; i++) {
+            databases.set(i, new RedisDatabase());
+        }
+        registerGauge();
+    }
+
+    // a server with the given databases, numbered in order
+    public RedisDatabases(RedisDatabase... databases) {
+        this.snapshotFile = RedisServerConfig.DEFAULT_SNAPSHOT_FILE;
+        this.databases = new AtomicReferenceArray<>(databases);
+        registerGauge();
+    }
+
+    private void registerGauge() {
+        redisMetrics.registerGauge("jredis_keyspace_keys", "Keys in the keyspace, including expired keys not reclaimed yet.", this::size);
+    }
+
+    public int count() {
+        return databases.length();
+    }
+
+    public RedisDatabase get(int index) {
+        return databases.get(index);
+    }
+
+    // keys in all the databases
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < databases.length(); i++) {
+            size += databases.get(i).size();
+        }
+        return size;
+    }
+
+    // SWAPDB: clients of the first database see the keys of the second one and the other way round
+    public synchronized void swap(int first, int second) {
+        databases.set(first, databases.getAndSet(second, databases.get(first)));
+    }
+
+    // FLUSHDB: an empty database takes the slot in O(1), the old one is cleared in the background unless sync.
+    // a command that looked the old database up just before still completes on it, as if it ran before the flush
+    public synchronized void flush(int index, boolean sync) {
+        RedisDatabase flushed = databases.getAndSet(index, new RedisDatabase());
+        if (sync) {
+            flushed.clear();
+        } else {
+            lazyFree.execute(flushed::clear);
+        }
+    }
+
+    // FLUSHALL
+    public synchronized void flushAll(boolean sync) {
+        for (int i = 0; i < databases.length(); i++) {
+            flush(i, sync);
+        }
+    }
+
+    // one daemon thread running the ActiveExpireCycle over all the databases hz times per second
+    public void startActiveExpire(int hz) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "active-expire");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMicros = 1_000_000L / hz;
+        executor.scheduleWithFixedDelay(new ActiveExpireCycle(this, hz), periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+    }
+
+    // SAVE: the snapshot is written by the calling thread, other clients keep running meanwhile.
+    // false when it failed or another save is running
+    public boolean saveToDisk() {
+        if (!saving.compareAndSet(false, true)) {
+            return false;
+        }
+        return writeSnapshot(startSnapshot());
+    }
+
+    // BGSAVE: the snapshot starts now and is written by a background thread. false when another save is running
+    public boolean saveToDiskInBackground() {
+        if (!saving.compareAndSet(false, true)) {
+            return false;
+        }
+        RedisDatabase[] snapshot = startSnapshot();
+        Thread saver = new Thread(() -> writeSnapshot(snapshot), "bgsave");
+        saver.setDaemon(true);
+        saver.start();
+        return true;
+    }
+
+    public boolean isSaving() {
+        return saving.get();
+    }
+
+    // LASTSAVE: epoch seconds of the last successful save, the start of the server when there was none
+    public long getLastSave() {
+        return lastSave / 1000;
+    }
+
+    // every database gets a Snapshot and they all start at once: writes after this point do not show up in the file.
+    // synchronized with SWAPDB and FLUSHDB, the snapshot holds the databases in their slots of this instant
+    private synchronized RedisDatabase[] startSnapshot() {
+        AtomicBoolean started = new AtomicBoolean(false);
+        RedisDatabase[] snapshot = new RedisDatabase[databases.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = databases.get(i);
+            snapshot[i].startSnapshot(new Snapshot(started, snapshot[i].size()));
+        }
+        started.set(true);
+        return snapshot;
+    }
+
+    private boolean writeSnapshot(RedisDatabase[] snapshot) {
+        long startTime = System.nanoTime();
+        try (SnapshotWriter snapshotWriter = new SnapshotWriter(Path.of(snapshotFile))) {
+            DatasetWritten written = writeDataset(snapshot, snapshotWriter);
+            snapshotWriter.commit();
+            lastSave = System.currentTimeMillis();
+            redisMetrics.saveCompleted(System.nanoTime() - startTime, written.copies());
+            log.info("Database saved into disk in {} ms: {} keys, {} entries copied on write.", (System.nanoTime() - startTime) / 1_000_000, written.keys(), written.copies());
+            return true;
+        } catch(IOException e) {
+            log.error("Database not saved: {}", e.toString());
+            return false;
+        } finally {
+            endSnapshot(snapshot);
+            saving.set(false);
+        }
+    }
+
+    private record DatasetWritten(long keys, long copies) {}
+
+    // every key of the snapshot as it was when it started, each database ends its snapshot once written
+    private static DatasetWritten writeDataset(RedisDatabase[] snapshot, DatasetWriter datasetWriter) throws IOException {
+        long copies = 0;
+        long keys = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            RedisDatabase database = snapshot[i];
+            datasetWriter.selectDatabase(i);
+            for (RedisKey key: database.keys()) {
+                Entry entry = database.snapshotEntry(key);
+                if (entry != null && datasetWriter.write(key, entry)) {
+                    keys++;
+                }
+            }
+            Snapshot finished = database.endSnapshot();
+            for (Map.Entry<RedisKey, Entry> removed: finished.removed()) {
+                if (datasetWriter.write(removed.getKey(), removed.getValue())) {
+                    keys++;
+                }
+            }
+            copies += finished.getCopies();
+        }
+        return new DatasetWritten(keys, copies);
+    }
+
+    private static void endSnapshot(RedisDatabase[] snapshot) {
+        for (RedisDatabase database: snapshot) {
+            database.endSnapshot();
+        }
+    }
+
+    public AppendOnlyFile getAppendOnlyFile() {
+        return appendOnlyFile;
+    }
+
+    // from now on writes are logged to the file. a missing or empty file first gets the keys loaded from the snapshot,
+    // so that the log alone rebuilds the databases. false when the file cannot be written.
+    // the file is rewritten in the background once it grew by rewritePercentage over its last rewrite and is rewriteMinSize at least
+    public boolean startAppendOnly(Path file, AppendOnlyFile.FsyncPolicy fsyncPolicy, int rewritePercentage, long rewriteMinSize) {
+        try {
+            if (size() > 0 && (!Files.exists(file) || Files.size(file) == 0)) {
+                saving.set(true);
+                RedisDatabase[] snapshot = startSnapshot();
+                try (AppendOnlyFileWriter appendOnlyFileWriter = new AppendOnlyFileWriter(file)) {
+                    DatasetWritten written = writeDataset(snapshot, appendOnlyFileWriter);
+                    appendOnlyFileWriter.commit();
+                    log.info("Append only file {} created with the {} keys of the snapshot.", file, written.keys());
+                } finally {
+                    endSnapshot(snapshot);
+                    saving.set(false);
+                }
+            }
+            appendOnlyFile = new AppendOnlyFile(file, fsyncPolicy, rewritePercentage, rewriteMinSize, this::rewriteAppendOnlyFileInBackground);
+            log.info("Writes are logged to {}, fsync {}.", file.toAbsolutePath(), fsyncPolicy.name().toLowerCase());
+            return true;
+        } catch (IOException e) {
+            log.error("Append only file {} not opened: {}", file.toAbsolutePath(), e.toString());
+            return false;
+        }
+    }
+
+    // BGREWRITEAOF: the append only file is rewritten from a snapshot starting now, by a background thread. writes logged
+    // meanwhile are kept aside and appended to the new file before it replaces the current one.
+    // false when the append only file is off or another save or rewrite is running
+    public boolean rewriteAppendOnlyFileInBackground() {
+        AppendOnlyFile current = appendOnlyFile;
+        if (current == null || !saving.compareAndSet(false, true)) {
+            return false;
+        }
+        RedisDatabase[] snapshot = current.startRewrite(this::startSnapshot);
+        Thread rewriter = new Thread(() -> rewriteAppendOnlyFile(current, snapshot), "bgrewriteaof");
+        rewriter.setDaemon(true);
+        rewriter.start();
+        return true;
+    }
+
+    private void rewriteAppendOnlyFile(AppendOnlyFile current, RedisDatabase[] snapshot) {
+        long startTime = System.nanoTime();
+        long previousSize = current.size();
+        try (AppendOnlyFileWriter appendOnlyFileWriter = new AppendOnlyFileWriter(current.getFile())) {
+            DatasetWritten written = writeDataset(snapshot, appendOnlyFileWriter);
+            long size = current.finishRewrite(appendOnlyFileWriter);
+            redisMetrics.aofRewriteCompleted(System.nanoTime() - startTime);
+            log.info("Append only file rewritten in {} ms: {} keys, {} bytes instead of {}.", (System.nanoTime() - startTime) / 1_000_000, written.keys(), size, previousSize);
+        } catch (IOException e) {
+            current.abortRewrite();
+            log.error("Append only file not rewritten: {}", e.toString());
+        } finally {
+            endSnapshot(snapshot);
+            saving.set(false);
+        }
+    }
+
+    // false when the snapshot cannot be read: the server must not start from part of it, nor save over it.
+    // no snapshot file is an empty server
+    public boolean initializeDatabases() {
+        Path file = Path.of(snapshotFile);
+        if (!Files.exists(file)) {
+            log.info("No snapshot at {}, starting empty.", file.toAbsolutePath());
+            return true;
+        }
+        long startTime = System.nanoTime();
+        try {
+            long keys = SnapshotReader.load(file, this);
+            log.info("Database initialized in {} ms: {} keys loaded.", (System.nanoTime() - startTime) / 1_000_000, keys);
+            return true;
+        } catch (IOException e) {
+            log.error("Snapshot {} not loaded: {}", file.toAbsolutePath(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// binary safe key: the bytes sent by the client, never decoded. the hash is computed once,
+// so lookups in the keyspace and the ExpiryIndex only compare bytes when the hashes match.
+// the bytes are shared with the request, never modify them.
+public final class RedisKey implements Comparable<RedisKey> {
+    private final byte[] bytes;
+    private final int hash;
+
+    public RedisKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    public static RedisKey of(String key) {
+        return new RedisKey(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public byte[] getBytes() {
+        return this.bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof RedisKey key && key.hash == this.hash && Arrays.equals(key.bytes, this.bytes);
+    }
+
+    // byte order like memcmp in Redis
+    @Override
+    public int compareTo(RedisKey other) {
+        return Arrays.compareUnsigned(this.bytes, other.bytes);
+    }
+
+    // for logging only
+    @Override
+    public String toString() {
+        return new String(this.bytes, StandardCharsets.UTF_8);
+    }
+}
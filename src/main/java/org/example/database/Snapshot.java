@@ -0,0 +1,67 @@
+package org.example.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// point-in-time image of one RedisDatabase while it keeps taking writes, copy-on-write at key level like the pages of a forked Redis.
+// once started, the first write to a key keeps a copy of its entry as it was, the saver then writes that copy instead of the live entry.
+// every call runs under the lock of the key (see RedisDatabase), so a key is never preserved and captured at the same time.
+class Snapshot {
+    // the key did not exist when the snapshot started
+    private static final Entry ABSENT = new Entry();
+    // the saver already wrote the key, later writes need no copy
+    private static final Entry WRITTEN = new Entry();
+    // shared by the snapshots of all the databases, so they all start at the same instant
+    private final AtomicBoolean started;
+    // every key of the database ends up in it, WRITTEN at least
+    private final Map<RedisKey, Entry> preimages;
+    private final LongAdder copies = new LongAdder();
+
+    Snapshot(AtomicBoolean started, int keys) {
+        this.started = started;
+        this.preimages = new ConcurrentHashMap<>(keys);
+    }
+
+    // before a write changes or removes the entry of key, null when the key does not exist
+    void preserve(RedisKey key, Entry entry) {
+        if (!started.get() || preimages.containsKey(key)) {
+            return;
+        }
+        if (entry == null) {
+            preimages.put(key, ABSENT);
+        } else {
+            preimages.put(key, entry.copy());
+            copies.increment();
+        }
+    }
+
+    // the entry to save for a key of the live map, null when it did not exist at the start or was already saved
+    Entry capture(RedisKey key, Entry live) {
+        Entry preimage = preimages.put(key, WRITTEN);
+        if (preimage == null) {
+            return live.copy();
+        }
+        return preimage == ABSENT || preimage == WRITTEN ? null : preimage;
+    }
+
+    // keys deleted since the start that the saver could not find in the live map any more
+    List<Map.Entry<RedisKey, Entry>> removed() {
+        List<Map.Entry<RedisKey, Entry>> removed = new ArrayList<>();
+        for (Map.Entry<RedisKey, Entry> preimage: preimages.entrySet()) {
+            Entry entry = preimage.getValue();
+            if (entry != ABSENT && entry != WRITTEN && preimages.replace(preimage.getKey(), entry, WRITTEN)) {
+                removed.add(Map.entry(preimage.getKey(), entry));
+            }
+        }
+        return removed;
+    }
+
+    // entries copied because a client wrote them while the snapshot was running
+    long getCopies() {
+        return copies.sum();
+    }
+}
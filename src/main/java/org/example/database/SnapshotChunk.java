@@ -0,0 +1,148 @@
+package org.example.database;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+import static org.example.database.SnapshotFormat.*;
+
+// a run of records of one database in a snapshot file, see SnapshotFormat. it needs nothing from the chunks before it,
+// so any thread decodes it straight from the memory mapped file into its database
+record SnapshotChunk(int database, long offset, long length, long keys, int checksum) {
+
+    // keys put into the database. keys whose deadline is not after now are dropped
+    long load(FileChannel channel, RedisDatabase redisDatabase, long now) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long position = offset; position < offset + length; position += MAP_WINDOW) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, offset + length - position)));
+        }
+        if ((int) crc.getValue() != checksum) {
+            throw corrupt(String.format("checksum %08x, expected %08x", (int) crc.getValue(), checksum));
+        }
+        MappedInput input = new MappedInput(channel, offset, length);
+        long loaded = 0;
+        long deadline = Entry.NO_DEADLINE;
+        try {
+            while (input.hasRemaining()) {
+                byte type = input.get();
+                if (type == OPCODE_EXPIRE_AT) {
+                    deadline = input.getLong();
+                    continue;
+                }
+                RedisKey key = new RedisKey(readString(input));
+                Entry entry = readValue(input, type);
+                if (deadline == Entry.NO_DEADLINE || deadline > now) {
+                    entry.setDeadline(deadline);
+                    redisDatabase.putEntry(key, entry);
+                    loaded++;
+                }
+                deadline = Entry.NO_DEADLINE;
+            }
+        } catch (BufferUnderflowException e) {
+            throw corrupt("record cut by the end of the chunk");
+        }
+        return loaded;
+    }
+
+    private Entry readValue(MappedInput input, byte type) throws IOException {
+        switch (type) {
+            case TYPE_INT -> {
+                long zigzag = input.readVarint();
+                return new CounterEntry((zigzag >>> 1) ^ -(zigzag & 1));
+            }
+            case TYPE_STRING -> {
+                return Entry.ofBytes(readString(input));
+            }
+            case TYPE_LIST -> {
+                long size = input.readVarint();
+                QuickList list = new QuickList();
+                for (long i = 0; i < size; i++) {
+                    list.pushTail(readString(input));
+                }
+                Entry entry = new Entry();
+                entry.setValue(list);
+                return entry;
+            }
+            default -> throw corrupt("unknown record type " + (type & 0xFF));
+        }
+    }
+
+    private byte[] readString(MappedInput input) throws IOException {
+        long length = input.readVarint();
+        if (length > input.remaining() || length > Integer.MAX_VALUE - 8) {
+            throw corrupt("string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        input.get(bytes);
+        return bytes;
+    }
+
+    private IOException corrupt(String reason) {
+        return new IOException(String.format("Corrupt snapshot in the chunk at byte %d: %s.", offset, reason));
+    }
+
+    // the bytes of a chunk mapped MAP_WINDOW at a time, the next window starts at the first byte not read.
+    // reading past the end of the chunk throws a BufferUnderflowException
+    private static final class MappedInput {
+        private final FileChannel channel;
+        private final long end;
+        // file offset of the first byte of window
+        private long windowOffset;
+        private MappedByteBuffer window;
+
+        private MappedInput(FileChannel channel, long offset, long length) throws IOException {
+            this.channel = channel;
+            this.end = offset + length;
+            map(offset);
+        }
+
+        private boolean hasRemaining() {
+            return remaining() > 0;
+        }
+
+        private long remaining() {
+            return end - windowOffset - window.position();
+        }
+
+        private byte get() throws IOException {
+            return ensure(1).get();
+        }
+
+        private long getLong() throws IOException {
+            return ensure(Long.BYTES).getLong();
+        }
+
+        private long readVarint() throws IOException {
+            return SnapshotFormat.readVarint(ensure((int) Math.min(10, remaining())));
+        }
+
+        private void get(byte[] bytes) throws IOException {
+            int read = 0;
+            while (read < bytes.length) {
+                ByteBuffer current = ensure(1);
+                if (!current.hasRemaining()) {
+                    throw new BufferUnderflowException();
+                }
+                int piece = Math.min(bytes.length - read, current.remaining());
+                current.get(bytes, read, piece);
+                read += piece;
+            }
+        }
+
+        // the window with at least bytes left in it, or what is left of the chunk
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes && remaining() > window.remaining()) {
+                map(windowOffset + window.position());
+            }
+            return window;
+        }
+
+        private void map(long position) throws IOException {
+            windowOffset = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, end - position));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.database;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// layout of the snapshot file, in the spirit of the Redis RDB:
+//   header    "JREDIS" followed by the version as 4 ASCII digits
+//   chunks    the keys of one database each, cut once they pass CHUNK_SIZE bytes so that startup decodes them in parallel.
+//             a chunk is a sequence of records: [EXPIRE_AT 8 bytes deadline in epoch milliseconds] type key value.
+//             a record is never cut, so a chunk holding a large value has no length limit: it is read MAP_WINDOW bytes at a time
+//   index     EOF, varint chunk count, then per chunk: varint database, varint offset, varint length, varint keys
+//             and the CRC32C of its bytes, 4 bytes
+//   footer    offset of the index, 8 bytes, then the CRC32C of the header, the index and that offset, 4 bytes
+// keys are a varint length and the raw bytes. values by type:
+//   STRING    varint length and the raw bytes
+//   INT       zigzag varint of the count, see CounterEntry
+//   LIST      varint element count, then each element like a STRING
+// fixed size numbers are big endian, varints are unsigned LEB128.
+// version 1 had no chunks nor index: SELECT_DB varint index records between the keys, then EOF and the CRC32C of every
+// byte before it and of EOF itself
+final class SnapshotFormat {
+    static final byte[] MAGIC = "JREDIS".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = MAGIC.length + 4;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_INT = 1;
+    static final byte TYPE_LIST = 2;
+    static final byte OPCODE_EXPIRE_AT = (byte) 0xFC;
+    static final byte OPCODE_SELECT_DB = (byte) 0xFE;
+    static final byte OPCODE_EOF = (byte) 0xFF;
+
+    // bytes staged between two channel writes or reads
+    static final int BUFFER_SIZE = 1 << 20;
+    // 8 GB of keys make 8192 chunks: enough to keep every core busy until the end of the load
+    static final int CHUNK_SIZE = 1 << 20;
+    // most bytes of a chunk memory mapped at once, a mapping cannot pass 2 GB
+    static final int MAP_WINDOW = 1 << 26;
+    static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private SnapshotFormat() {}
+
+    // unsigned LEB128 from the position of the buffer
+    static long readVarint(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt snapshot: varint longer than 10 bytes.");
+    }
+
+    static byte[] header() {
+        byte[] header = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        byte[] version = String.format("%04d", VERSION).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(version, 0, header, MAGIC.length, version.length);
+        return header;
+    }
+}
@@ -0,0 +1,436 @@
+package org.example.database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+import static org.example.database.SnapshotFormat.*;
+
+// loads a snapshot file (see SnapshotFormat) into the databases. a truncated or corrupt file fails with an IOException
+// telling where, it is never taken for a shorter snapshot. keys whose deadline passed while the server was down are dropped.
+// the chunks of the current version are decoded in parallel from the memory mapped file, one per core at a time, and the
+// progress is logged every second. version 1 files are read in one pass, files written with the Java serialization of earlier versions are still read, the next save rewrites them in the current format
+class SnapshotReader {
+    private static final Logger log = LogManager.getLogger(SnapshotReader.class);
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private final CRC32C checksum = new CRC32C();
+    // first byte of the buffer not added to the checksum yet
+    private int checksumMark = 0;
+    // file offset of the first byte of the buffer
+    private long bufferOffset = 0;
+
+    private SnapshotReader(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // keys loaded
+    static long load(Path file, RedisDatabases databases) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                // what SAVE left before SnapshotFormat when its stream was never flushed, like the tracked redis_database.rdb
+                log.info("Empty snapshot file, starting empty.");
+                return 0;
+            }
+            SnapshotReader reader = new SnapshotReader(channel);
+            if (reader.isJavaSerialization()) {
+                log.info("Snapshot written with Java serialization, the next save converts it.");
+                return loadJavaSerialization(file, databases);
+            }
+            return reader.loadRecords(databases);
+        }
+    }
+
+    private boolean isJavaSerialization() throws IOException {
+        ensure(2);
+        return buffer.get(0) == (byte) 0xAC && buffer.get(1) == (byte) 0xED;
+    }
+
+    private long loadRecords(RedisDatabases databases) throws IOException {
+        ensure(HEADER_SIZE);
+        byte[] header = new byte[HEADER_SIZE];
+        buffer.get(header);
+        if (!Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("Not a jredis snapshot.");
+        }
+        int version = Integer.parseInt(new String(header, MAGIC.length, 4, StandardCharsets.US_ASCII));
+        if (version > VERSION) {
+            throw new IOException(String.format("Snapshot version %d, this server reads up to %d.", version, VERSION));
+        }
+        if (version >= 2) {
+            return loadChunks(header, databases);
+        }
+        long now = System.currentTimeMillis();
+        RedisDatabase database = databases.get(0);
+        long deadline = Entry.NO_DEADLINE;
+        long loaded = 0;
+        while (true) {
+            byte opcode = readByte();
+            switch (opcode) {
+                case OPCODE_EOF -> {
+                    verifyChecksum();
+                    return loaded;
+                }
+                case OPCODE_SELECT_DB -> {
+                    long index = readVarint();
+                    if (index >= databases.count()) {
+                        log.error("Snapshot holds database {}, only {} configured: its keys are skipped.", index, databases.count());
+                    }
+                    database = index < databases.count() ? databases.get((int) index) : new RedisDatabase();
+                }
+                case OPCODE_EXPIRE_AT -> {
+                    ensure(Long.BYTES);
+                    deadline = buffer.getLong();
+                }
+                case TYPE_STRING, TYPE_INT, TYPE_LIST -> {
+                    RedisKey key = new RedisKey(readString());
+                    Entry entry = readValue(opcode);
+                    if (deadline == Entry.NO_DEADLINE || deadline > now) {
+                        entry.setDeadline(deadline);
+                        database.putEntry(key, entry);
+                        loaded++;
+                    }
+                    deadline = Entry.NO_DEADLINE;
+                }
+                default -> throw corrupt("unknown record type " + (opcode & 0xFF));
+            }
+        }
+    }
+
+    private long loadChunks(byte[] header, RedisDatabases databases) throws IOException {
+        List<SnapshotChunk> chunks = readIndex(header);
+        long now = System.currentTimeMillis();
+        long totalBytes = 0;
+        long totalKeys = 0;
+        Set<Integer> skipped = new TreeSet<>();
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), chunks.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong loadedBytes = new AtomicLong();
+        AtomicLong loadedKeys = new AtomicLong();
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (SnapshotChunk chunk: chunks) {
+                if (chunk.database() >= databases.count()) {
+                    skipped.add(chunk.database());
+                    continue;
+                }
+                RedisDatabase database = databases.get(chunk.database());
+                totalBytes += chunk.length();
+                totalKeys += chunk.keys();
+                futures.add(executor.submit(() -> {
+                    long keys = chunk.load(channel, database, now);
+                    loadedKeys.addAndGet(keys);
+                    loadedBytes.addAndGet(chunk.length());
+                    return keys;
+                }));
+            }
+            log.info("Loading snapshot: {} MB in {} chunks, decoded by up to {} threads.", totalBytes >> 20, futures.size(), threads);
+            for (int database: skipped) {
+                log.error("Snapshot holds database {}, only {} configured: its keys are skipped.", database, databases.count());
+            }
+            long loaded = 0;
+            long nextReport = System.currentTimeMillis() + PROGRESS_INTERVAL_MILLIS;
+            int done = 0;
+            while (done < futures.size()) {
+                try {
+                    loaded += futures.get(done).get(Math.max(1, nextReport - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    done++;
+                } catch (TimeoutException e) {
+                    // progress is reported below
+                }
+                if (System.currentTimeMillis() >= nextReport) {
+                    log.info("Loading snapshot: {}% ({} of {} MB), {} keys.", loadedBytes.get() * 100 / Math.max(1, totalBytes),
+                            loadedBytes.get() >> 20, totalBytes >> 20, loadedKeys.get());
+                    nextReport += PROGRESS_INTERVAL_MILLIS;
+                }
+            }
+            if (loaded < totalKeys) {
+                log.info("Snapshot loaded, {} expired keys dropped.", totalKeys - loaded);
+            }
+            return loaded;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Snapshot load interrupted.");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // the chunks listed by the index at the end of the file, checked against the footer
+    private List<SnapshotChunk> readIndex(byte[] header) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE + 1 + FOOTER_SIZE) {
+            throw new IOException("Corrupt snapshot: file ends before its index.");
+        }
+        ByteBuffer footer = read(size - FOOTER_SIZE, FOOTER_SIZE);
+        long indexOffset = footer.getLong();
+        int stored = footer.getInt();
+        if (indexOffset < HEADER_SIZE || indexOffset >= size - FOOTER_SIZE || size - indexOffset > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Corrupt snapshot: index at byte %d of a %d bytes file.", indexOffset, size));
+        }
+        // the index and the offset in the footer
+        ByteBuffer index = read(indexOffset, (int) (size - Integer.BYTES - indexOffset));
+        CRC32C indexChecksum = new CRC32C();
+        indexChecksum.update(header);
+        indexChecksum.update(index.duplicate());
+        if ((int) indexChecksum.getValue() != stored) {
+            throw new IOException(String.format("Corrupt snapshot: index checksum %08x, expected %08x.", stored, (int) indexChecksum.getValue()));
+        }
+        if (index.get() != OPCODE_EOF) {
+            throw new IOException("Corrupt snapshot: no index at byte " + indexOffset + ".");
+        }
+        long count = SnapshotFormat.readVarint(index);
+        List<SnapshotChunk> chunks = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            SnapshotChunk chunk = new SnapshotChunk((int) SnapshotFormat.readVarint(index), SnapshotFormat.readVarint(index), SnapshotFormat.readVarint(index), SnapshotFormat.readVarint(index), index.getInt());
+            if (chunk.offset() < HEADER_SIZE || chunk.length() < 0 || chunk.offset() + chunk.length() > indexOffset) {
+                throw new IOException(String.format("Corrupt snapshot: chunk of %d bytes at byte %d.", chunk.length(), chunk.offset()));
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("Corrupt snapshot: file ends at byte " + (position + bytes.position()) + ".");
+            }
+        }
+        return bytes.flip();
+    }
+
+    private Entry readValue(byte type) throws IOException {
+        if (type == TYPE_INT) {
+            long zigzag = readVarint();
+            return new CounterEntry((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        if (type == TYPE_STRING) {
+            return Entry.ofBytes(readString());
+        }
+        long size = readVarint();
+        QuickList list = new QuickList();
+        for (long i = 0; i < size; i++) {
+            list.pushTail(readString());
+        }
+        Entry entry = new Entry();
+        entry.setValue(list);
+        return entry;
+    }
+
+    private void verifyChecksum() throws IOException {
+        checksum.update(buffer.array(), checksumMark, buffer.position() - checksumMark);
+        checksumMark = buffer.position();
+        int expected = (int) checksum.getValue();
+        ensure(Integer.BYTES);
+        int stored = buffer.getInt();
+        if (stored != expected) {
+            throw corrupt(String.format("checksum %08x, expected %08x", stored, expected));
+        }
+    }
+
+    private byte readByte() throws IOException {
+        ensure(1);
+        return buffer.get();
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte current = readByte();
+            value |= (long) (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+        throw corrupt("varint longer than 10 bytes");
+    }
+
+    private byte[] readString() throws IOException {
+        long length = readVarint();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw corrupt("string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        int read = 0;
+        while (read < bytes.length) {
+            ensure(Math.min(bytes.length - read, buffer.capacity()));
+            int chunk = Math.min(bytes.length - read, buffer.remaining());
+            buffer.get(bytes, read, chunk);
+            read += chunk;
+        }
+        return bytes;
+    }
+
+    // at least bytes readable in the buffer, refilled from the channel
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        checksum.update(buffer.array(), checksumMark, buffer.position() - checksumMark);
+        bufferOffset += buffer.position();
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                throw corrupt("file ends in the middle of a record");
+            }
+        }
+        buffer.flip();
+        checksumMark = 0;
+    }
+
+    private IOException corrupt(String reason) {
+        return new IOException(String.format("Corrupt snapshot at byte %d: %s.", bufferOffset + buffer.position(), reason));
+    }
+
+    // format SAVE wrote before SnapshotFormat: the stream header, then each key as a String object followed by its Entry
+    // object, in the layout of LegacyEntry. any other content, or a record cut by the end of the file, fails the load
+    private static long loadJavaSerialization(Path file, RedisDatabases databases) throws IOException {
+        RedisDatabase database = databases.get(0);
+        long now = System.currentTimeMillis();
+        long records = 0;
+        long loaded = 0;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file));
+             ObjectInputStream objectInputStream = new LegacyObjectInputStream(input)) {
+            while (hasMore(input)) {
+                Object key = objectInputStream.readObject();
+                Object value = objectInputStream.readObject();
+                if (!(key instanceof String name) || !(value instanceof LegacyEntry legacyEntry)) {
+                    throw new IOException(String.format("Corrupt snapshot: Java serialization record %d is not a key and its entry.", records));
+                }
+                records++;
+                Entry entry = legacyEntry.toEntry();
+                if (entry.getDeadline() == Entry.NO_DEADLINE || entry.getDeadline() > now) {
+                    database.putEntry(RedisKey.of(name), entry);
+                    loaded++;
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException(String.format("Corrupt snapshot: Java serialization stream ends in record %d.", records));
+        } catch (ObjectStreamException e) {
+            throw new IOException(String.format("Corrupt snapshot: Java serialization record %d unreadable, %s.", records, e));
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in snapshot: " + e.getMessage());
+        }
+        if (loaded < records) {
+            log.info("Snapshot loaded, {} expired keys dropped.", records - loaded);
+        }
+        return loaded;
+    }
+
+    // the object input stream does not read ahead, a byte left in the file is the start of the next record
+    private static boolean hasMore(InputStream input) throws IOException {
+        input.mark(1);
+        int next = input.read();
+        input.reset();
+        return next >= 0;
+    }
+
+    // the fields of the Entry class these snapshots were written with: a String or an ArrayList of String, and a timer
+    // relative to timerSetAt (EX, PX) or absolute (EXAT)
+    private static final class LegacyEntry implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private static final String STREAM_NAME = "org.example.database.Entry";
+        private Object value;
+        private Instant timerSetAt;
+        private Instant timer;
+        private boolean timerSet;
+        private boolean timestampSet;
+
+        private Entry toEntry() throws IOException {
+            Entry entry;
+            if (value instanceof String string) {
+                entry = Entry.ofBytes(string.getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof List<?> elements) {
+                QuickList list = new QuickList();
+                for (Object element: elements) {
+                    if (!(element instanceof String string)) {
+                        throw new IOException("Corrupt snapshot: Java serialization list holding " + element + ".");
+                    }
+                    list.pushTail(string.getBytes(StandardCharsets.UTF_8));
+                }
+                entry = new Entry();
+                entry.setValue(list);
+            } else {
+                throw new IOException("Corrupt snapshot: Java serialization value " + value + ".");
+            }
+            try {
+                if (timerSet) {
+                    entry.setDeadline(Math.addExact(timerSetAt.toEpochMilli(), timer.toEpochMilli()));
+                } else if (timestampSet) {
+                    entry.setDeadline(timer.toEpochMilli());
+                }
+            } catch (ArithmeticException | NullPointerException e) {
+                throw new IOException("Corrupt snapshot: Java serialization timer " + timer + ".");
+            }
+            return entry;
+        }
+    }
+
+    // reads the Entry objects of the stream into LegacyEntry when they have its fields, and no class but the ones they hold
+    private static final class LegacyObjectInputStream extends ObjectInputStream {
+        private static final Set<String> ALLOWED = Set.of(LegacyEntry.class.getName(), String.class.getName(), ArrayList.class.getName(), "java.time.Ser");
+        private static final ObjectStreamClass LEGACY_ENTRY = ObjectStreamClass.lookup(LegacyEntry.class);
+
+        private LegacyObjectInputStream(InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass descriptor = super.readClassDescriptor();
+            if (!descriptor.getName().equals(LegacyEntry.STREAM_NAME)) {
+                return descriptor;
+            }
+            if (!fields(descriptor).equals(fields(LEGACY_ENTRY))) {
+                throw new InvalidClassException(descriptor.getName(), "fields " + fields(descriptor) + " are not the ones of the earlier versions");
+            }
+            return LEGACY_ENTRY;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+            if (!ALLOWED.contains(descriptor.getName())) {
+                throw new InvalidClassException(descriptor.getName(), "not in a snapshot of the earlier versions");
+            }
+            return super.resolveClass(descriptor);
+        }
+
+        private static List<String> fields(ObjectStreamClass descriptor) {
+            return Arrays.stream(descriptor.getFields()).map(field -> field.getName() + ":" + field.getTypeString()).toList();
+        }
+    }
+}
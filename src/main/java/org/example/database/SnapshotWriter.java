@@ -0,0 +1,201 @@
+package org.example.database;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.example.database.SnapshotFormat.*;
+
+// writes a snapshot file (see SnapshotFormat) next to the target and moves it in place on commit,
+// so a save that fails halfway leaves the previous snapshot untouched
+class SnapshotWriter implements DatasetWriter {
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final List<SnapshotChunk> chunks = new ArrayList<>();
+    // bytes of the chunk being written, from checksumMark in the buffer on
+    private final CRC32C checksum = new CRC32C();
+    private int checksumMark = 0;
+    // bytes already on the channel
+    private long flushed;
+    private int database = 0;
+    // -1 between two chunks, the next key starts one
+    private long chunkOffset = -1;
+    private long chunkKeys;
+    private boolean committed = false;
+
+    SnapshotWriter(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        this.temporary = this.target.resolveSibling("temp-" + ProcessHandle.current().pid() + "-" + this.target.getFileName());
+        this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        writeFully(ByteBuffer.wrap(header()));
+        this.flushed = HEADER_SIZE;
+    }
+
+    @Override
+    public void selectDatabase(int index) throws IOException {
+        endChunk();
+        database = index;
+    }
+
+    @Override
+    public boolean write(RedisKey key, Entry entry) throws IOException {
+        Object value = entry.getValue();
+        if (value == null) {
+            return false;
+        }
+        if (chunkOffset < 0) {
+            chunkOffset = offset();
+            chunkKeys = 0;
+            checksum.reset();
+            checksumMark = buffer.position();
+        }
+        if (entry.hasTimer()) {
+            writeByte(OPCODE_EXPIRE_AT);
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(entry.getDeadline());
+        }
+        if (entry instanceof CounterEntry counter) {
+            writeByte(TYPE_INT);
+            writeString(key.getBytes());
+            writeVarint((counter.getCount() << 1) ^ (counter.getCount() >> 63));
+        } else if (value instanceof QuickList list) {
+            writeByte(TYPE_LIST);
+            writeString(key.getBytes());
+            writeVarint(list.size());
+            for (byte[] element: list.range(0, -1)) {
+                writeString(element);
+            }
+        } else {
+            writeByte(TYPE_STRING);
+            writeString(key.getBytes());
+            writeString((byte[]) value);
+        }
+        chunkKeys++;
+        if (offset() - chunkOffset >= CHUNK_SIZE) {
+            endChunk();
+        }
+        return true;
+    }
+
+    private void endChunk() {
+        if (chunkOffset < 0) {
+            return;
+        }
+        checksum.update(buffer.array(), checksumMark, buffer.position() - checksumMark);
+        checksumMark = buffer.position();
+        chunks.add(new SnapshotChunk(database, chunkOffset, offset() - chunkOffset, chunkKeys, (int) checksum.getValue()));
+        chunkOffset = -1;
+    }
+
+    // index and footer, flush to disk and atomic move over the previous snapshot
+    @Override
+    public void commit() throws IOException {
+        endChunk();
+        flush();
+        long indexOffset = flushed;
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        index.write(OPCODE_EOF);
+        writeVarint(index, chunks.size());
+        for (SnapshotChunk chunk: chunks) {
+            writeVarint(index, chunk.database());
+            writeVarint(index, chunk.offset());
+            writeVarint(index, chunk.length());
+            writeVarint(index, chunk.keys());
+            index.write(ByteBuffer.allocate(Integer.BYTES).putInt(chunk.checksum()).array());
+        }
+        index.write(ByteBuffer.allocate(Long.BYTES).putLong(indexOffset).array());
+        byte[] indexBytes = index.toByteArray();
+        CRC32C fileChecksum = new CRC32C();
+        fileChecksum.update(header());
+        fileChecksum.update(indexBytes);
+        writeFully(ByteBuffer.wrap(indexBytes));
+        writeFully(ByteBuffer.allocate(Integer.BYTES).putInt((int) fileChecksum.getValue()).flip());
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    // without commit the temporary file is deleted
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private long offset() {
+        return flushed + buffer.position();
+    }
+
+    private void writeByte(byte value) throws IOException {
+        ensureRemaining(1);
+        buffer.put(value);
+    }
+
+    private void writeVarint(long value) throws IOException {
+        ensureRemaining(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private void writeString(byte[] bytes) throws IOException {
+        writeVarint(bytes.length);
+        writeBytes(bytes);
+    }
+
+    // values larger than the buffer go straight to the channel
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length <= buffer.capacity()) {
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+            return;
+        }
+        flush();
+        checksum.update(bytes);
+        writeFully(ByteBuffer.wrap(bytes));
+        flushed += bytes.length;
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        checksum.update(buffer.array(), checksumMark, buffer.position() - checksumMark);
+        checksumMark = 0;
+        flushed += buffer.position();
+        writeFully(buffer.flip());
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.database.RedisDatabases;
+import org.example.engine.commands.RedisCommandInfo;
+import org.example.engine.commands.RedisCommandTable;
+import org.example.exceptions.IncorrectSyntax;
+import org.example.resp.RespParser;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// replays an append only file (see AppendOnlyFile) through the command classes, like a client sending the whole file.
+// a request cut short at the end is what a crash in the middle of a write leaves: it is dropped from the file, like Redis
+// does with aof-load-truncated. anything else that does not parse stops the load.
+public final class AppendOnlyFileLoader {
+    private static final Logger log = LogManager.getLogger(AppendOnlyFileLoader.class);
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private AppendOnlyFileLoader() {}
+
+    // requests replayed
+    public static long load(Path file, RedisDatabases redisDatabases) throws IOException {
+        RedisClient redisClient = new RedisClient(redisDatabases);
+        RespParser respParser = new RespParser();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long replayed = 0;
+        // file offset right after the last complete request
+        long complete = 0;
+        long read = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int count;
+            while ((count = channel.read(buffer.clear())) >= 0) {
+                read += count;
+                respParser.feed(buffer.flip());
+                RespArray request;
+                while ((request = next(respParser, complete)) != null) {
+                    byte[] name = ((BulkString) request.getValue().get(0)).getBytes();
+                    RedisCommandInfo commandInfo = RedisCommandTable.lookup(name);
+                    if (commandInfo == null) {
+                        throw new IOException(String.format("Unknown command %s at byte %d of the append only file.", new String(name, StandardCharsets.UTF_8), complete));
+                    }
+                    commandInfo.execute(redisClient, request);
+                    replayed++;
+                    complete = read - respParser.bufferedBytes();
+                }
+            }
+            if (respParser.hasBufferedInput()) {
+                log.warn("Append only file {} ends with an incomplete request, {} bytes dropped.", file, read - complete);
+                channel.truncate(complete);
+            }
+        }
+        return replayed;
+    }
+
+    private static RespArray next(RespParser respParser, long offset) throws IOException {
+        try {
+            return respParser.next();
+        } catch (IncorrectSyntax e) {
+            throw new IOException(String.format("Corrupt append only file after byte %d: %s", offset, e.getMessage()));
+        }
+    }
+}
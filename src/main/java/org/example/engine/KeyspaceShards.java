@@ -0,0 +1,130 @@
+package org.example.engine;
+
+import org.example.database.AppendOnlyFile;
+import org.example.engine.commands.RedisCommandInfo;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.simple.RespInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Dragonfly style scale-out: keys are split into shards by hash and every command on a key runs on the single thread owning its shard,
+// so commands on one key never run concurrently and a shard thread never waits on another one: the shard count is a power
+// of two, so the append only file locks the keys of a shard with stripes no other shard uses. with the append only file,
+// writes without keys (FLUSHDB, SWAPDB) and the start of a rewrite lock every stripe and hold all the shards until they are appended.
+// the entries stay in the RedisDatabase map, which the active expire cycle and SAVE keep reading from their own threads.
+// commands with keys on several shards (DEL, EXISTS) are split into one command per shard and their integer replies added up:
+// like in Redis Cluster, they are atomic on each shard, not across shards.
+// replies are futures completed by the shard threads: the connection thread never waits for a shard, see RedisConnection.
+public class KeyspaceShards {
+    private final ExecutorService[] executors;
+
+    // shards is rounded up to a power of two, at most AppendOnlyFile.KEY_LOCKS
+    public KeyspaceShards(int shards) {
+        shards = shards <= 1 ? 1 : Math.min(AppendOnlyFile.KEY_LOCKS, Integer.highestOneBit(shards - 1) << 1);
+        this.executors = new ExecutorService[shards];
+        for (int i = 0; i < shards; i++) {
+            String name = "shard-" + i;
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int size() {
+        return executors.length;
+    }
+
+    // same hash as RedisKey, spread so that keys differing only in their last bytes still land on different shards
+    public int shardOf(byte[] key) {
+        int hash = Arrays.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (executors.length - 1);
+    }
+
+    // client commands and commands without keys run on the calling thread, the others on the shards owning their keys
+    boolean runsInline(RedisCommandInfo commandInfo, RespArray requestArray) {
+        return commandInfo.isClientCommand() || commandInfo.getFirstKey() == 0 || commandInfo.getFirstKey() >= requestArray.getLength();
+    }
+
+    // the shard owning every key of the request, -1 when they are on several shards
+    int shardOf(RedisCommandInfo commandInfo, RespArray requestArray) {
+        int length = requestArray.getLength();
+        int firstKey = commandInfo.getFirstKey();
+        int lastKey = lastKey(commandInfo, length);
+        int shard = shardOf(keyAt(requestArray, firstKey));
+        for (int i = firstKey + commandInfo.getStep(); i <= lastKey; i += commandInfo.getStep()) {
+            if (shardOf(keyAt(requestArray, i)) != shard) {
+                return -1;
+            }
+        }
+        return shard;
+    }
+
+    // the reply is completed by the shard thread once the command ran, nobody waits for it.
+    // the database the client selected is looked up before the handoff, shards never touch the client
+    <T> CompletableFuture<T> submit(int shard, Supplier<T> command) {
+        return CompletableFuture.supplyAsync(command, executors[shard]);
+    }
+
+    public void shutdown() {
+        for (ExecutorService executor: executors) {
+            executor.shutdown();
+        }
+    }
+
+    // one request per shard with the arguments before the keys and the keys of that shard, all shards run in parallel.
+    // the reply, the sum of their integer replies, is completed once the replies of every shard are
+    CompletableFuture<RespDataType> submitOnEachShard(RedisCommandInfo commandInfo, RespArray requestArray, Function<RespArray, CompletableFuture<RespDataType>> command) {
+        int firstKey = commandInfo.getFirstKey();
+        int lastKey = lastKey(commandInfo, requestArray.getLength());
+        RespArray[] shardRequests = new RespArray[executors.length];
+        for (int i = firstKey; i <= lastKey; i += commandInfo.getStep()) {
+            int shard = shardOf(keyAt(requestArray, i));
+            if (shardRequests[shard] == null) {
+                shardRequests[shard] = new RespArray();
+                for (int j = 0; j < firstKey; j++) {
+                    shardRequests[shard].addElement(requestArray.getValue().get(j));
+                }
+            }
+            for (int j = i; j < i + commandInfo.getStep() && j <= lastKey; j++) {
+                shardRequests[shard].addElement(requestArray.getValue().get(j));
+            }
+        }
+        List<CompletableFuture<RespDataType>> replies = new ArrayList<>();
+        for (int shard = 0; shard < executors.length; shard++) {
+            RespArray shardRequest = shardRequests[shard];
+            if (shardRequest != null) {
+                replies.add(submit(shard, () -> command.apply(shardRequest)).thenCompose(Function.identity()));
+            }
+        }
+        return CompletableFuture.allOf(replies.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            long total = 0;
+            for (CompletableFuture<RespDataType> future: replies) {
+                RespDataType reply = future.join();
+                if (!(reply instanceof RespInteger integer)) {
+                    return reply;
+                }
+                total += Long.parseLong(integer.getValue());
+            }
+            return SharedReplies.integer(total);
+        });
+    }
+
+    private static int lastKey(RedisCommandInfo commandInfo, int length) {
+        return commandInfo.getLastKey() < 0 ? length + commandInfo.getLastKey() : Math.min(commandInfo.getLastKey(), length - 1);
+    }
+
+    private static byte[] keyAt(RespArray requestArray, int index) {
+        return ((BulkString) requestArray.getValue().get(index)).getBytes();
+    }
+}
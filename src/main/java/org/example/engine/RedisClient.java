@@ -0,0 +1,32 @@
+package org.example.engine;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+
+// state a client keeps across its requests, whatever the io mode: the database it selected.
+// only touched by the thread serving the connection, one request at a time.
+public class RedisClient {
+    private final RedisDatabases redisDatabases;
+    private int selected = 0;
+
+    public RedisClient(RedisDatabases redisDatabases) {
+        this.redisDatabases = redisDatabases;
+    }
+
+    public RedisDatabases getDatabases() {
+        return redisDatabases;
+    }
+
+    // looked up on every request: after SWAPDB or FLUSHDB the index points to another database
+    public RedisDatabase getDatabase() {
+        return redisDatabases.get(selected);
+    }
+
+    public int getSelected() {
+        return selected;
+    }
+
+    public void select(int index) {
+        this.selected = index;
+    }
+}
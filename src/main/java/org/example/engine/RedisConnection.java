@@ -0,0 +1,219 @@
+package org.example.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.exceptions.IncorrectSyntax;
+import org.example.metrics.RedisMetrics;
+import org.example.resp.RespParser;
+import org.example.resp.RespWriter;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.errors.SimpleError;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// state of one non-blocking client connection, only touched by the owning RedisEventLoop thread.
+public class RedisConnection {
+    private static final Logger log = LogManager.getLogger(RedisConnection.class);
+    // replies a client may have in flight on the shards, it is not read from until they come back under this
+    private static final int MAX_REPLIES_IN_FLIGHT = 1024;
+    private final RedisEventLoop eventLoop;
+    private final SocketChannel channel;
+    private final SelectionKey selectionKey;
+    private final RedisRequestProcessor redisRequestProcessor;
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+    // keeps the partially received request between reads
+    private final RespParser respParser = new RespParser();
+    // replies in request order from the first one still in flight on a shard, empty when commands run on the loop thread
+    private final Queue<CompletableFuture<RespDataType>> replies = new ArrayDeque<>();
+    // the head of replies the event loop is told about once done
+    private CompletableFuture<RespDataType> watched;
+    // set from any thread when the connection is queued on its event loop, see onRepliesDone
+    private final AtomicBoolean queued = new AtomicBoolean();
+    // a request that runs on the loop thread waits here until the requests before it ran on their shards
+    private RespArray deferred;
+    // replies the socket did not accept yet, in order. appending never copies what is already queued
+    private final Queue<ByteBuffer> pendingOutput = new ArrayDeque<>();
+    private long pendingBytes = 0;
+    // a client that reads slower than it asks goes over this many pending bytes and is disconnected, 0 no limit
+    private final long outputBufferLimit;
+    private boolean closeAfterWrite = false;
+    private boolean closed = false;
+
+    public RedisConnection(RedisEventLoop eventLoop, SocketChannel channel, SelectionKey selectionKey, RedisRequestProcessor redisRequestProcessor, long outputBufferLimit) {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.selectionKey = selectionKey;
+        this.redisRequestProcessor = redisRequestProcessor;
+        this.outputBufferLimit = outputBufferLimit;
+        redisMetrics.clientConnected();
+    }
+
+    // readBuffer and respWriter belong to the event loop and are shared by all its connections
+    public void onReadable(ByteBuffer readBuffer, RespWriter respWriter) throws IOException {
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            close();
+            return;
+        }
+        if (read == 0) {
+            return;
+        }
+        redisMetrics.bytesRead(read);
+        readBuffer.flip();
+        respParser.feed(readBuffer);
+        respWriter.reset();
+        processCompleteRequests(respWriter);
+        if (respWriter.size() > 0) {
+            write(respWriter);
+        }
+    }
+
+    // called by the event loop once the reply at the head is done: writes the replies done so far
+    // and goes on with the requests that waited for them
+    public void onRepliesDone(RespWriter respWriter) throws IOException {
+        queued.set(false);
+        if (closed) {
+            return;
+        }
+        respWriter.reset();
+        processCompleteRequests(respWriter);
+        if (respWriter.size() > 0) {
+            write(respWriter);
+        } else if (closeAfterWrite && replies.isEmpty() && pendingOutput.isEmpty()) {
+            close();
+        }
+    }
+
+    public void onWritable() throws IOException {
+        ByteBuffer head;
+        while ((head = pendingOutput.peek()) != null) {
+            int written = channel.write(head);
+            redisMetrics.bytesWritten(written);
+            pendingBytes -= written;
+            if (head.hasRemaining()) {
+                return;
+            }
+            pendingOutput.poll();
+        }
+        if (closeAfterWrite && replies.isEmpty()) {
+            close();
+            return;
+        }
+        updateInterestOps();
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pendingOutput.clear();
+        redisMetrics.clientDisconnected();
+        selectionKey.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.error("IO error while closing client channel: {}", e.getMessage());
+        }
+    }
+
+    // runs every complete request sitting in the input, unless it has to wait for replies still in flight
+    private void processCompleteRequests(RespWriter respWriter) {
+        do {
+            try {
+                RespArray request;
+                while (!closeAfterWrite && replies.size() < MAX_REPLIES_IN_FLIGHT && (request = nextRequest()) != null) {
+                    if (redisRequestProcessor.mustWaitForShards(request)) {
+                        deferred = request;
+                        break;
+                    }
+                    reply(redisRequestProcessor.submitRequest(request), respWriter);
+                }
+            } catch (IncorrectSyntax e) {
+                // the stream cannot be resynchronized after a protocol error
+                reply(CompletableFuture.completedFuture(new SimpleError(String.format("ERR: %s", e.getMessage()))), respWriter);
+                closeAfterWrite = true;
+            }
+            writeDoneReplies(respWriter);
+            // the replies it waited for were done meanwhile, nothing will call back for them
+        } while (deferred != null && replies.isEmpty());
+        updateInterestOps();
+    }
+
+    private RespArray nextRequest() throws IncorrectSyntax {
+        RespArray request = deferred;
+        if (request != null) {
+            deferred = null;
+            return request;
+        }
+        return respParser.next();
+    }
+
+    // a reply done with none in flight before it goes out at once, the others keep the order of their requests
+    private void reply(CompletableFuture<RespDataType> reply, RespWriter respWriter) {
+        if (replies.isEmpty() && reply.isDone()) {
+            reply.join().write(respWriter);
+        } else {
+            replies.add(reply);
+        }
+    }
+
+    private void writeDoneReplies(RespWriter respWriter) {
+        CompletableFuture<RespDataType> head;
+        while ((head = replies.peek()) != null && head.isDone()) {
+            replies.poll();
+            head.join().write(respWriter);
+        }
+        if (head != null && head != watched) {
+            watched = head;
+            head.whenComplete((reply, e) -> {
+                if (queued.compareAndSet(false, true)) {
+                    eventLoop.repliesDone(this);
+                }
+            });
+        }
+    }
+
+    // the client is not read from while a request waits or too many replies are in flight, its input stays in the socket
+    private void updateInterestOps() {
+        if (closed) {
+            return;
+        }
+        boolean reading = deferred == null && replies.size() < MAX_REPLIES_IN_FLIGHT && !closeAfterWrite;
+        selectionKey.interestOps((reading ? SelectionKey.OP_READ : 0) | (pendingOutput.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+    }
+
+    private void write(RespWriter respWriter) throws IOException {
+        if (!pendingOutput.isEmpty()) {
+            // keep the order of replies: queue behind what the socket has not taken yet
+            queue(ByteBuffer.wrap(respWriter.toByteArray()));
+            return;
+        }
+        ByteBuffer unwritten = respWriter.writeTo(channel);
+        redisMetrics.bytesWritten(unwritten.position());
+        if (unwritten.hasRemaining()) {
+            // the writer is reused by the next connection, the rest is copied out
+            queue(ByteBuffer.allocate(unwritten.remaining()).put(unwritten).flip());
+            updateInterestOps();
+        } else if (closeAfterWrite && replies.isEmpty()) {
+            close();
+        }
+    }
+
+    private void queue(ByteBuffer output) {
+        pendingOutput.add(output);
+        pendingBytes += output.remaining();
+        if (outputBufferLimit > 0 && pendingBytes > outputBufferLimit) {
+            log.warn("Client over the output buffer limit with {} pending bytes, connection closed.", pendingBytes);
+            close();
+        }
+    }
+}
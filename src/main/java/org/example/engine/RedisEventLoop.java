@@ -0,0 +1,154 @@
+package org.example.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.database.RedisDatabases;
+import org.example.resp.RespWriter;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// single threaded selector loop serving many non-blocking client connections.
+// read buffer and reply writer are shared by all the connections of the loop, so idle clients only keep their small RedisConnection state.
+public class RedisEventLoop implements Runnable {
+    private static final Logger log = LogManager.getLogger(RedisEventLoop.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private final Selector selector;
+    private final RedisDatabases redisDatabases;
+    private final KeyspaceShards keyspaceShards;
+    private final long outputBufferLimit;
+    private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+    // connections with a reply done by a shard, the loop writes it out
+    private final Queue<RedisConnection> doneConnections = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final RespWriter respWriter = new RespWriter(READ_BUFFER_SIZE);
+    private volatile boolean running = true;
+
+    // keyspaceShards is null when commands run on the loop thread, outputBufferLimit is per connection, see RedisConnection
+    public RedisEventLoop(RedisDatabases redisDatabases, KeyspaceShards keyspaceShards, long outputBufferLimit) throws IOException {
+        this.redisDatabases = redisDatabases;
+        this.keyspaceShards = keyspaceShards;
+        this.outputBufferLimit = outputBufferLimit;
+        this.selector = Selector.open();
+    }
+
+    // called by the acceptor thread, the channel is registered by the loop thread itself
+    public void register(SocketChannel channel) {
+        pendingChannels.add(channel);
+        selector.wakeup();
+    }
+
+    // called by the thread completing a reply the connection waits for
+    void repliesDone(RedisConnection connection) {
+        doneConnections.add(connection);
+        selector.wakeup();
+    }
+
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerPendingChannels();
+                writeDoneReplies();
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    handleKey(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("IO error in event loop, loop stopped: {}", e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void registerPendingChannels() {
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new RedisConnection(this, channel, key, new RedisRequestProcessor(redisDatabases, keyspaceShards), outputBufferLimit));
+            } catch (IOException e) {
+                log.error("IO error while registering client channel: {}", e.getMessage());
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void writeDoneReplies() {
+        RedisConnection connection;
+        while ((connection = doneConnections.poll()) != null) {
+            try {
+                connection.onRepliesDone(respWriter);
+            } catch (IOException e) {
+                log.error("IO error on client channel: {}", e.getMessage());
+                connection.close();
+            } catch (CancelledKeyException e) {
+                connection.close();
+            } catch (RuntimeException e) {
+                log.error("Unexpected error on client channel, connection closed: {}", e.toString());
+                connection.close();
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        RedisConnection connection = (RedisConnection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.onReadable(readBuffer, respWriter);
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.onWritable();
+            }
+        } catch (IOException e) {
+            log.error("IO error on client channel: {}", e.getMessage());
+            connection.close();
+        } catch (CancelledKeyException e) {
+            connection.close();
+        } catch (RuntimeException e) {
+            // requests fail on their own (see RedisRequestProcessor), anything left only costs this connection, never the loop
+            log.error("Unexpected error on client channel, connection closed: {}", e.toString());
+            connection.close();
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key: selector.keys()) {
+            if (key.attachment() instanceof RedisConnection connection) {
+                connection.close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.error("IO error while closing selector: {}", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.error("IO error while closing client channel: {}", e.getMessage());
+        }
+    }
+}
@@ -2,9 +2,11 @@ package org.example.engine;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.example.database.RedisDatabase;
-import org.example.resp.Deserializer;
-import org.example.resp_types.RespDataType;
+import org.example.database.RedisDatabases;
+import org.example.exceptions.IncorrectSyntax;
+import org.example.metrics.RedisMetrics;
+import org.example.resp.RespParser;
+import org.example.resp.RespWriter;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.errors.SimpleError;
 import java.io.*;
@@ -12,31 +14,53 @@ import java.net.Socket;
 import java.net.SocketException;
 
 public class RedisRequestHandler implements Runnable{
+    // kept small: with virtual threads a connection costs little more than these buffers
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_WRITE_BUFFER_SIZE = 1024;
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
     private final Socket clientSocket;
     private static final Logger log = LogManager.getLogger(RedisRequestHandler.class);
     private final RedisRequestProcessor redisRequestProcessor;
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
 
-    public RedisRequestHandler(Socket clientSocket, RedisDatabase redisDatabase) {
+    // keyspaceShards is null when commands run on the connection thread
+    public RedisRequestHandler(Socket clientSocket, RedisDatabases redisDatabases, KeyspaceShards keyspaceShards) {
         this.clientSocket = clientSocket;
-        this.redisRequestProcessor = new RedisRequestProcessor(redisDatabase);
+        this.redisRequestProcessor = new RedisRequestProcessor(redisDatabases, keyspaceShards);
     }
 
     @Override
     public void run() {
-        try(BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(clientSocket.getOutputStream())))
+        redisMetrics.clientConnected();
+        try(InputStream inputStream = clientSocket.getInputStream();
+            OutputStream outputStream = clientSocket.getOutputStream())
         {
-            Deserializer deserializer = new Deserializer();
-            int arrayCommand;
-            // possible better strategy: to accumulate input stream into char[]
-            while((arrayCommand = bufferedReader.read()) >= 0) {
-                if ((char)arrayCommand != '*') {
-                    bufferedWriter.write(new SimpleError("ERR: commands are Resp Arrays").serialize().toString());
+            clientSocket.setTcpNoDelay(true);
+            RespParser respParser = new RespParser();
+            RespWriter respWriter = new RespWriter(INITIAL_WRITE_BUFFER_SIZE);
+            byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+            int read;
+            try {
+                while((read = inputStream.read(readBuffer)) >= 0) {
+                    redisMetrics.bytesRead(read);
+                    respParser.feed(readBuffer, 0, read);
+                    RespArray request;
+                    // pipelined requests: run everything already received, in order, and buffer the replies
+                    while ((request = respParser.next()) != null) {
+                        redisRequestProcessor.processRequest(request).write(respWriter);
+                        if (respWriter.size() >= WRITE_BUFFER_SIZE) {
+                            flush(respWriter, outputStream);
+                        }
+                    }
+                    // replies go out in one flush once the client has nothing more queued
+                    if (inputStream.available() == 0) {
+                        flush(respWriter, outputStream);
+                    }
                 }
-                RespDataType request = deserializer.deserializeRequest(bufferedReader);
-                String result = redisRequestProcessor.processRequest((RespArray) request).serialize().toString();
-                bufferedWriter.write(result);
-                bufferedWriter.flush();
+            } catch (IncorrectSyntax e) {
+                // the stream cannot be resynchronized after a protocol error
+                new SimpleError(String.format("ERR: %s", e.getMessage())).write(respWriter);
+                flush(respWriter, outputStream);
             }
         } catch (SocketException e) {
             try {
@@ -47,6 +71,16 @@ public class RedisRequestHandler implements Runnable{
             }
         }  catch (IOException e) {
             log.error("IO error in Input/Output streams: {}", e.getMessage());
+        } finally {
+            redisMetrics.clientDisconnected();
+        }
+    }
+
+    private void flush(RespWriter respWriter, OutputStream outputStream) throws IOException {
+        if (respWriter.size() > 0) {
+            respWriter.writeTo(outputStream);
+            redisMetrics.bytesWritten(respWriter.size());
+            respWriter.reset();
         }
     }
 }
@@ -2,86 +2,177 @@ package org.example.engine;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.database.AppendOnlyFile;
 import org.example.database.RedisDatabase;
-import org.example.engine.commands.*;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
+import org.example.engine.commands.CommandFlag;
+import org.example.engine.commands.RedisCommandInfo;
+import org.example.engine.commands.RedisCommandTable;
+import org.example.metrics.RedisMetrics;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+// one per connection: it keeps the state of the client between its requests
 public class RedisRequestProcessor {
-    private final RedisDatabase redisDatabase;
+    // commands whose timer is relative to the time they run
+    private static final Set<String> RELATIVE_TIMERS = Set.of("setex", "psetex", "expire", "pexpire", "getex");
+    private final RedisClient redisClient;
     private static final Logger log = LogManager.getLogger(RedisRequestProcessor.class);
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+    // null when commands run on the connection thread
+    private final KeyspaceShards keyspaceShards;
+    // requests submitted to the shards whose reply is not done yet, counted down by the thread completing it
+    private final AtomicInteger onShards = new AtomicInteger();
 
+    // a client of a server with this single database
     public RedisRequestProcessor(RedisDatabase redisDatabase) {
-        this.redisDatabase = redisDatabase;
+        this(new RedisDatabases(redisDatabase), null);
     }
 
+    public RedisRequestProcessor(RedisDatabases redisDatabases, KeyspaceShards keyspaceShards) {
+        this.redisClient = new RedisClient(redisDatabases);
+        this.keyspaceShards = keyspaceShards;
+    }
+
+    // blocking, for the threads io mode and the tests: the reply once the command ran
     public RespDataType processRequest(RespArray requestArray) {
+        return submitRequest(requestArray).join();
+    }
+
+    // the reply is done on return unless the command went to a shard, the shard thread completes it then.
+    // it never completes exceptionally: a command that throws fails alone, the client gets an error and the connection,
+    // or the event loop serving it, goes on
+    public CompletableFuture<RespDataType> submitRequest(RespArray requestArray) {
         BulkString commandName = (BulkString) requestArray.getValue().get(0);
-        switch(commandName.getValue()) {
-            case "PING" -> {
-                log.info("processing PING request.");
-                return new PingCommand().processCommand(requestArray);
-            }
-            case "ECHO" -> {
-                log.info("processing ECHO request.");
-                return new EchoCommand().processCommand(requestArray);
-            }
-            case "SET" -> {
-                log.info("processing SET request.");
-                return new SetCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "SETEX" -> {
-                log.info("processing SETEX request.");
-                return new SetEXCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "SETEAXT" -> {
-                log.info("processing SETEAXT request.");
-                return new SetEAXTCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "PSETEX" -> {
-                log.info("processing PSETEX request.");
-                return new PSetEXCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "GET" -> {
-                log.info("processing GET request.");
-                return new GetCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "EXISTS" -> {
-                log.info("processing EXISTS request.");
-                return new ExistsCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "DEL" -> {
-                log.info("processing DEL request.");
-                return new DeleteCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "INCR" -> {
-                log.info("processing INCR request.");
-                return new IncrementCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "DECR" -> {
-                log.info("processing DECR request.");
-                return new DecrementCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "LPUSH" -> {
-                log.info("processing LPUSH request.");
-                return new LPushCommand(redisDatabase).processCommand(requestArray);
-            }
-            case "RPUSH" -> {
-                log.info("processing RPUSH request.");
-                return new RPushCommand(redisDatabase).processCommand(requestArray);
+        RedisCommandInfo commandInfo = RedisCommandTable.lookup(commandName.getBytes());
+        if (commandInfo == null) {
+            redisMetrics.unknownCommand();
+            return CompletableFuture.completedFuture(SharedReplies.UNKNOWN_COMMAND);
+        }
+        // per command counts are in RedisMetrics, logging every request is for debugging only
+        log.debug("processing {} request.", commandInfo.getName());
+        redisMetrics.commandProcessed(commandInfo);
+        try {
+            AppendOnlyFile appendOnlyFile = redisClient.getDatabases().getAppendOnlyFile();
+            boolean logged = appendOnlyFile != null && commandInfo.hasFlag(CommandFlag.WRITE);
+            RedisDatabase redisDatabase = redisClient.getDatabase();
+            int selected = redisClient.getSelected();
+            if (keyspaceShards == null || keyspaceShards.runsInline(commandInfo, requestArray)) {
+                return logged
+                        ? executeLogged(appendOnlyFile, commandInfo, requestArray, redisDatabase, selected, () -> commandInfo.execute(redisClient, requestArray))
+                        : CompletableFuture.completedFuture(commandInfo.execute(redisClient, requestArray));
             }
-            case "LRANGE" -> {
-                log.info("processing LRANGE request.");
-                return new LRangeRequest(redisDatabase).processCommand(requestArray);
+            int shard = keyspaceShards.shardOf(commandInfo, requestArray);
+            onShards.incrementAndGet();
+            CompletableFuture<RespDataType> reply;
+            if (!logged) {
+                reply = shard < 0
+                        ? keyspaceShards.submitOnEachShard(commandInfo, requestArray, request -> CompletableFuture.completedFuture(commandInfo.getCommand().processCommand(redisDatabase, request)))
+                        : keyspaceShards.submit(shard, () -> commandInfo.getCommand().processCommand(redisDatabase, requestArray));
+            } else {
+                // each shard logs its part of the request itself, in the order its writes ran. the reply waits for the log
+                Function<RespArray, CompletableFuture<RespDataType>> command = request ->
+                        executeLogged(appendOnlyFile, commandInfo, request, redisDatabase, selected, () -> commandInfo.getCommand().processCommand(redisDatabase, request));
+                reply = shard < 0
+                        ? keyspaceShards.submitOnEachShard(commandInfo, requestArray, command)
+                        : keyspaceShards.submit(shard, () -> command.apply(requestArray)).thenCompose(Function.identity());
             }
-            case "SAVE" -> {
-                log.info("processing SAVE request.");
-                return new SaveCommand(redisDatabase).processCommand(requestArray);
+            // counted down before the reply completes: whoever sees the reply done also sees the command off its shard
+            return reply.handle((done, e) -> {
+                onShards.decrementAndGet();
+                return e == null ? done : failed(commandInfo, e instanceof CompletionException ? e.getCause() : e);
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed(commandInfo, e));
+        }
+    }
+
+    // true when the request would run on the calling thread while requests submitted before it still run on their shards:
+    // it has to wait for them, or it would run before them
+    boolean mustWaitForShards(RespArray requestArray) {
+        if (onShards.get() == 0) {
+            return false;
+        }
+        RedisCommandInfo commandInfo = RedisCommandTable.lookup(((BulkString) requestArray.getValue().get(0)).getBytes());
+        return commandInfo != null && keyspaceShards.runsInline(commandInfo, requestArray);
+    }
+
+    static SimpleError failed(RedisCommandInfo commandInfo, Throwable e) {
+        log.error("{} failed: {}", commandInfo.getName(), e.toString());
+        return new SimpleError(String.format("ERR: %s failed: %s", commandInfo.getName(), e.getMessage()));
+    }
+
+    // the write is appended to the log before its keys are unlocked: two writes on a key are logged in the order they ran.
+    // failed writes are not logged, they changed nothing. with appendfsync always the reply completes once the write is on disk,
+    // nobody blocks for it
+    private CompletableFuture<RespDataType> executeLogged(AppendOnlyFile appendOnlyFile, RedisCommandInfo commandInfo, RespArray requestArray,
+                                                          RedisDatabase redisDatabase, int selected, Supplier<RespDataType> command) {
+        if (appendOnlyFile.getWriteError() != null) {
+            return CompletableFuture.completedFuture(SharedReplies.AOF_NOT_WRITTEN);
+        }
+        List<byte[]> keys = keys(commandInfo, requestArray);
+        appendOnlyFile.lock(keys);
+        RespDataType reply;
+        long sequence;
+        try {
+            reply = command.get();
+            if (reply instanceof SimpleError) {
+                return CompletableFuture.completedFuture(reply);
             }
-            default -> {
-                return new SimpleError("Unknown Command"); }
+            RespArray expireAt = absoluteDeadline(commandInfo, requestArray, redisDatabase);
+            sequence = expireAt == null
+                    ? appendOnlyFile.append(selected, requestArray)
+                    : appendOnlyFile.append(selected, requestArray, expireAt);
+        } finally {
+            appendOnlyFile.unlock(keys);
+        }
+        return appendOnlyFile.synced(sequence).thenApply(written -> written ? reply : SharedReplies.AOF_NOT_WRITTEN);
+    }
+
+    // a timer relative to now would restart at replay: the log also gets the deadline the key has now, like Redis logs PEXPIREAT
+    private RespArray absoluteDeadline(RedisCommandInfo commandInfo, RespArray requestArray, RedisDatabase redisDatabase) {
+        if (!RELATIVE_TIMERS.contains(commandInfo.getName())) {
+            return null;
+        }
+        BulkString key = (BulkString) requestArray.getValue().get(1);
+        long deadline = redisDatabase.getDeadline(new RedisKey(key.getBytes()));
+        if (deadline < 0) {
+            return null;
+        }
+        RespArray expireAt = new RespArray(3);
+        expireAt.addElement(new BulkString("PEXPIREAT"));
+        expireAt.addElement(key);
+        expireAt.addElement(new BulkString(Long.toString(deadline)));
+        return expireAt;
+    }
+
+    // the keys of the request, by the key positions of the command
+    private static List<byte[]> keys(RedisCommandInfo commandInfo, RespArray requestArray) {
+        int length = requestArray.getLength();
+        int firstKey = commandInfo.getFirstKey();
+        if (firstKey == 0 || firstKey >= length) {
+            return List.of();
+        }
+        int lastKey = commandInfo.getLastKey() < 0 ? length + commandInfo.getLastKey() : Math.min(commandInfo.getLastKey(), length - 1);
+        if (lastKey == firstKey) {
+            return List.of(((BulkString) requestArray.getValue().get(firstKey)).getBytes());
+        }
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = firstKey; i <= lastKey; i += commandInfo.getStep()) {
+            keys.add(((BulkString) requestArray.getValue().get(i)).getBytes());
         }
+        return keys;
     }
 }
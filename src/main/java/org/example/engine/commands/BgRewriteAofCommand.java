@@ -0,0 +1,22 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabases;
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.simple.SimpleString;
+
+// BGREWRITEAOF: replies once the rewrite has started, a background thread writes the compacted append only file
+public class BgRewriteAofCommand extends ClientCommand {
+    private static final SimpleString STARTED = SimpleString.shared("Background append only file rewriting started");
+
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        RedisDatabases databases = redisClient.getDatabases();
+        if (databases.getAppendOnlyFile() == null) {
+            return SharedReplies.AOF_OFF;
+        }
+        return databases.rewriteAppendOnlyFileInBackground() ? STARTED : SharedReplies.SAVE_IN_PROGRESS;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.simple.SimpleString;
+
+// BGSAVE: replies once the point-in-time snapshot has started, a background thread writes it. LASTSAVE tells when it is done
+public class BgSaveCommand extends ClientCommand {
+    private static final SimpleString STARTED = SimpleString.shared("Background saving started");
+
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        return redisClient.getDatabases().saveToDiskInBackground() ? STARTED : SharedReplies.SAVE_IN_PROGRESS;
+    }
+}
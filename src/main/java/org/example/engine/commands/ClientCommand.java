@@ -0,0 +1,21 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+
+// commands working on the client or on whole databases rather than on keys of the selected database: SELECT, SWAPDB, FLUSHDB...
+// they are not RedisCommands, one database alone is not enough to run them: RedisCommandInfo.execute hands them the client
+abstract class ClientCommand {
+    public abstract RespDataType processCommand(RedisClient redisClient, RespArray requestArray);
+
+    // a database index argument, -1 when it is not a number or out of range
+    static int databaseIndex(RedisClient redisClient, RespDataType argument) {
+        try {
+            int index = Integer.parseInt(argument.getValue());
+            return index >= 0 && index < redisClient.getDatabases().count() ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+import org.example.resp_types.simple.SimpleString;
+
+// COMMAND, COMMAND COUNT, COMMAND INFO name [name ...], COMMAND DOCS (empty, enough for redis-cli)
+public class CommandCommand implements RedisCommand {
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        if (requestArray.getLength() == 1) {
+            RespArray response = new RespArray(RedisCommandTable.size());
+            for (RedisCommandInfo info: RedisCommandTable.getCommands()) {
+                response.addElement(describe(info));
+            }
+            return response;
+        }
+        String subcommand = requestArray.getValue().get(1).getValue();
+        if (subcommand.equalsIgnoreCase("COUNT")) {
+            return SharedReplies.integer(RedisCommandTable.size());
+        }
+        if (subcommand.equalsIgnoreCase("INFO")) {
+            RespArray response = new RespArray(requestArray.getLength() - 2);
+            for (int i = 2; i < requestArray.getLength(); i++) {
+                RedisCommandInfo info = RedisCommandTable.lookup(((BulkString) requestArray.getValue().get(i)).getBytes());
+                response.addElement(info == null ? SharedReplies.NULL : describe(info));
+            }
+            return response;
+        }
+        if (subcommand.equalsIgnoreCase("DOCS")) {
+            return new RespArray();
+        }
+        return new SimpleError(String.format("ERR: unknown subcommand '%s'.", subcommand));
+    }
+
+    // name, arity, flags, first key, last key, step
+    private RespArray describe(RedisCommandInfo info) {
+        RespArray flags = new RespArray(info.getFlags().size());
+        for (CommandFlag flag: info.getFlags()) {
+            flags.addElement(new SimpleString(flag.getFlagName()));
+        }
+        RespArray description = new RespArray(6);
+        description.addElement(new BulkString(info.getName()));
+        description.addElement(SharedReplies.integer(info.getArity()));
+        description.addElement(flags);
+        description.addElement(SharedReplies.integer(info.getFirstKey()));
+        description.addElement(SharedReplies.integer(info.getLastKey()));
+        description.addElement(SharedReplies.integer(info.getStep()));
+        return description;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.engine.commands;
+
+// command flags as reported by COMMAND INFO
+public enum CommandFlag {
+    READONLY("readonly"),
+    WRITE("write"),
+    FAST("fast");
+
+    private final String flagName;
+
+    CommandFlag(String flagName) {
+        this.flagName = flagName;
+    }
+
+    public String getFlagName() {
+        return flagName;
+    }
+}
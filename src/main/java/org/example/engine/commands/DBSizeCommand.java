@@ -0,0 +1,14 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+
+// DBSIZE: keys in the selected database, expired keys not reclaimed yet included
+public class DBSizeCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        return SharedReplies.integer(redisDatabase.size());
+    }
+}
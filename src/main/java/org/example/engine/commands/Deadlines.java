@@ -0,0 +1,31 @@
+package org.example.engine.commands;
+
+// absolute deadlines in epoch milliseconds from the timer argument of EXPIRE and GETEX like commands
+final class Deadlines {
+    private Deadlines() {}
+
+    // throws NumberFormatException for a non integer timer, ArithmeticException when the deadline does not fit a long
+    static long fromSeconds(String seconds) {
+        return Math.addExact(System.currentTimeMillis(), Math.multiplyExact(Long.parseLong(seconds), 1000L));
+    }
+
+    static long fromMilliseconds(String milliseconds) {
+        return Math.addExact(System.currentTimeMillis(), Long.parseLong(milliseconds));
+    }
+
+    static long fromUnixSeconds(String timestamp) {
+        return Math.multiplyExact(Long.parseLong(timestamp), 1000L);
+    }
+
+    static long fromUnixMilliseconds(String timestamp) {
+        return Long.parseLong(timestamp);
+    }
+
+    // SETEX, PSETEX and SETEAXT only take a timer above 0, like Redis
+    static String positive(String timer) {
+        if (Long.parseLong(timer) <= 0) {
+            throw new NumberFormatException(timer);
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.Optional;
+
+// DECRBY key decrement: the new value, the key is created at 0 when missing
+public class DecrementByCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            BulkString decrement = (BulkString) requestArray.getValue().get(2);
+            long delta = Long.parseLong(decrement.getValue());
+            Optional<String> value = redisDatabase.incrementValueBy(new RedisKey(key.getBytes()), Math.negateExact(delta));
+            if (value.isEmpty()) {
+                response = SharedReplies.NULL;
+            } else if (value.get().equals("NPS")){
+                response = SharedReplies.NOT_A_NUMBER;
+            } else if(value.get().equals("NAS")) {
+                response = SharedReplies.NOT_A_STRING;
+            } else if(value.get().equals("OVF")) {
+                response = SharedReplies.OVERFLOW;
+            } else {
+                response = SharedReplies.integer(value.get());
+            }
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key or decrement.");
+        } catch (NumberFormatException e) {
+            response = SharedReplies.INVALID_INCREMENT;
+        } catch (ArithmeticException e) {
+            response = SharedReplies.OVERFLOW;
+        }
+        return response;
+    }
+}
@@ -1,35 +1,32 @@
 package org.example.engine.commands;
 
 import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
-import org.example.resp_types.simple.RespInteger;
-import org.example.resp_types.simple.RespNull;
 
 import java.util.Optional;
 
 public class DecrementCommand implements RedisCommand{
-    private final RedisDatabase redisDatabase;
-
-    public DecrementCommand(RedisDatabase redisDatabase) {
-        this.redisDatabase = redisDatabase;
-    }
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
         RespDataType response;
         try {
             BulkString key = (BulkString) requestArray.getValue().get(1);
-            Optional<String> value = redisDatabase.decrementValue(key.getValue());
+            Optional<String> value = redisDatabase.decrementValue(new RedisKey(key.getBytes()));
             if (value.isEmpty()) {
-                response = new RespNull();
+                response = SharedReplies.NULL;
             } else if (value.get().equals("NPS")){
-                response = new SimpleError("Accessed value is not a valid number.");
+                response = SharedReplies.NOT_A_NUMBER;
             } else if(value.get().equals("NAS")) {
-                response = new SimpleError("Accessed value is not a string.");
+                response = SharedReplies.NOT_A_STRING;
+            } else if(value.get().equals("OVF")) {
+                response = SharedReplies.OVERFLOW;
             } else {
-                response = new RespInteger(value.get());
+                response = SharedReplies.integer(value.get());
             }
         } catch (IndexOutOfBoundsException e) {
             response = new SimpleError("Missing key to check.");
@@ -1,12 +1,13 @@
 package org.example.engine.commands;
 
+import org.example.database.RedisDatabase;
 import org.example.resp_types.RespDataType;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.errors.SimpleError;
 
 public class EchoCommand implements RedisCommand{
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
         RespDataType response;
         try {
             response = requestArray.getValue().get(1);
@@ -1,24 +1,24 @@
 package org.example.engine.commands;
 
 import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
-import org.example.resp_types.simple.RespInteger;
 
 public class ExistsCommand implements RedisCommand{
-    private final RedisDatabase redisDatabase;
-
-    public ExistsCommand(RedisDatabase redisDatabase) {
-        this.redisDatabase = redisDatabase;
-    }
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
         RespDataType response;
         try {
-            BulkString key = (BulkString) requestArray.getValue().get(1);
-            response = new RespInteger(Integer.toString(redisDatabase.checkKey(key.getValue())));
+            // a key given several times is counted several times, like in Redis
+            int existing = redisDatabase.checkKey(new RedisKey(((BulkString) requestArray.getValue().get(1)).getBytes()));
+            for (int i = 2; i < requestArray.getLength(); i++) {
+                existing += redisDatabase.checkKey(new RedisKey(((BulkString) requestArray.getValue().get(i)).getBytes()));
+            }
+            response = SharedReplies.integer(existing);
         } catch (IndexOutOfBoundsException e) {
             response = new SimpleError("Missing key to check");
         }
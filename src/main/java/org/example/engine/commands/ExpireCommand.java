@@ -0,0 +1,28 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+// EXPIRE key seconds: 1 when the timer is set, 0 when the key does not exist
+public class ExpireCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            BulkString timer = (BulkString) requestArray.getValue().get(2);
+            long deadline = Deadlines.fromSeconds(timer.getValue());
+            response = SharedReplies.integer(redisDatabase.setDeadline(new RedisKey(key.getBytes()), deadline));
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Incomplete command: key and timer needed");
+        } catch (NumberFormatException | ArithmeticException e) {
+            response = SharedReplies.INVALID_TIMER;
+        }
+        return response;
+    }
+}
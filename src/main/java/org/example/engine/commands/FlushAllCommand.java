@@ -0,0 +1,20 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.errors.SimpleError;
+
+// FLUSHALL [ASYNC | SYNC]: FLUSHDB on every database
+public class FlushAllCommand extends ClientCommand {
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        Boolean sync = FlushDBCommand.syncOption(requestArray);
+        if (sync == null) {
+            return new SimpleError("Syntax error, expected ASYNC or SYNC.");
+        }
+        redisClient.getDatabases().flushAll(sync);
+        return SharedReplies.OK;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.errors.SimpleError;
+
+// FLUSHDB [ASYNC | SYNC]: empties the selected database in O(1), the old keys are reclaimed in the background unless SYNC
+public class FlushDBCommand extends ClientCommand {
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        Boolean sync = syncOption(requestArray);
+        if (sync == null) {
+            return new SimpleError("Syntax error, expected ASYNC or SYNC.");
+        }
+        redisClient.getDatabases().flush(redisClient.getSelected(), sync);
+        return SharedReplies.OK;
+    }
+
+    // shared with FLUSHALL: null when the option is neither ASYNC nor SYNC
+    static Boolean syncOption(RespArray requestArray) {
+        if (requestArray.getLength() == 1) {
+            return false;
+        }
+        String option = requestArray.getValue().get(1).getValue();
+        if (requestArray.getLength() > 2 || !(option.equalsIgnoreCase("async") || option.equalsIgnoreCase("sync"))) {
+            return null;
+        }
+        return option.equalsIgnoreCase("sync");
+    }
+}
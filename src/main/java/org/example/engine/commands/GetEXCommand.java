@@ -0,0 +1,53 @@
+package org.example.engine.commands;
+
+import org.example.database.Entry;
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.Optional;
+
+// GETEX key [EX seconds | PX milliseconds | EXAT unix-time-seconds | PXAT unix-time-milliseconds | PERSIST]
+public class GetEXCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            RedisKey key = new RedisKey(((BulkString) requestArray.getValue().get(1)).getBytes());
+            Optional<Object> value;
+            if (requestArray.getLength() > 2) {
+                String option = ((BulkString) requestArray.getValue().get(2)).getValue().toUpperCase();
+                long deadline = switch (option) {
+                    case "EX" -> Deadlines.fromSeconds(requestArray.getValue().get(3).getValue());
+                    case "PX" -> Deadlines.fromMilliseconds(requestArray.getValue().get(3).getValue());
+                    case "EXAT" -> Deadlines.fromUnixSeconds(requestArray.getValue().get(3).getValue());
+                    case "PXAT" -> Deadlines.fromUnixMilliseconds(requestArray.getValue().get(3).getValue());
+                    case "PERSIST" -> Entry.NO_DEADLINE;
+                    default -> throw new IllegalArgumentException(option);
+                };
+                // type check and new deadline in one operation on the key
+                value = redisDatabase.getValueForKeyAndSetDeadline(key, deadline);
+            } else {
+                value = redisDatabase.getValueForKey(key);
+            }
+            if (value.isEmpty()) {
+                return SharedReplies.NULL;
+            }
+            if (!(value.get() instanceof byte[])) {
+                return new SimpleError("GETEX can only retrieve strings.");
+            }
+            response = new BulkString((byte[]) value.get());
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key or timer");
+        } catch (NumberFormatException | ArithmeticException e) {
+            response = SharedReplies.INVALID_TIMER;
+        } catch (IllegalArgumentException e) {
+            response = new SimpleError(String.format("ERR: unknown option '%s'.", e.getMessage()));
+        }
+        return response;
+    }
+}
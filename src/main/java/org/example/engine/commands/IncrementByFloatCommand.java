@@ -0,0 +1,45 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+// INCRBYFLOAT key increment: the new value as a bulk string, the key is created at 0 when missing
+public class IncrementByFloatCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            BulkString increment = (BulkString) requestArray.getValue().get(2);
+            if (increment.getValue().length() > RedisDatabase.MAX_LONG_DOUBLE_CHARS) {
+                throw new NumberFormatException("too long");
+            }
+            BigDecimal delta = new BigDecimal(increment.getValue());
+            Optional<String> value = redisDatabase.incrementValueByFloat(new RedisKey(key.getBytes()), delta);
+            if (value.isEmpty()) {
+                response = SharedReplies.NULL;
+            } else if (value.get().equals("NPS")){
+                response = SharedReplies.NOT_A_NUMBER;
+            } else if(value.get().equals("NAS")) {
+                response = SharedReplies.NOT_A_STRING;
+            } else if(value.get().equals("INF")) {
+                response = SharedReplies.NAN_OR_INFINITY;
+            } else {
+                response = new BulkString(value.get());
+            }
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key or increment.");
+        } catch (NumberFormatException e) {
+            response = SharedReplies.INVALID_INCREMENT;
+        }
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.Optional;
+
+// LINDEX key index: the element at index, negative indexes count from the tail. null when out of range
+public class LIndexCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            long index = Long.parseLong(requestArray.getValue().get(2).getValue());
+            Optional<Object> value = redisDatabase.getListElement(new RedisKey(key.getBytes()), index);
+            if (value.isEmpty()) {
+                response = SharedReplies.NULL;
+            } else if (!(value.get() instanceof byte[] bytes)) {
+                response = SharedReplies.NOT_A_LIST;
+            } else {
+                response = new BulkString(bytes);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key or index.");
+        } catch (NumberFormatException e) {
+            response = SharedReplies.INVALID_INDEX;
+        }
+        return response;
+    }
+}
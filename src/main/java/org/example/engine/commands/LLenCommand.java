@@ -0,0 +1,31 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.Optional;
+
+// LLEN key: length of the list, 0 when the key does not exist
+public class LLenCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            Optional<String> value = redisDatabase.getListLength(new RedisKey(key.getBytes()));
+            if (value.orElseThrow().equals("NAL")) {
+                response = SharedReplies.NOT_A_LIST;
+            } else {
+                response = SharedReplies.integer(value.get());
+            }
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key to check.");
+        }
+        return response;
+    }
+}
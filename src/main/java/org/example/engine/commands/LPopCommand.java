@@ -0,0 +1,13 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+
+// LPOP key [count]: removes and returns elements from the head of the list
+public class LPopCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        return ListPops.pop(redisDatabase, requestArray, true);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.Optional;
+
+// LTRIM key start stop: keeps only the elements from start to stop, both included
+public class LTrimCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            long startIndex = Long.parseLong(requestArray.getValue().get(2).getValue());
+            long endIndex = Long.parseLong(requestArray.getValue().get(3).getValue());
+            Optional<String> value = redisDatabase.trimList(new RedisKey(key.getBytes()), startIndex, endIndex);
+            if (value.isPresent() && value.get().equals("NAL")) {
+                response = SharedReplies.NOT_A_LIST;
+            } else {
+                response = SharedReplies.OK;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key, start or stop.");
+        } catch (NumberFormatException e) {
+            response = SharedReplies.INVALID_INDEX;
+        }
+        return response;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+
+// LASTSAVE: unix time in seconds of the last successful SAVE or BGSAVE
+public class LastSaveCommand extends ClientCommand {
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        return SharedReplies.integer(redisClient.getDatabases().getLastSave());
+    }
+}
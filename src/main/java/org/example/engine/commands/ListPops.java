@@ -0,0 +1,48 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.List;
+import java.util.Optional;
+
+// LPOP and RPOP key [count]: one element as a bulk string, or an array of up to count elements. null when the key does not exist
+final class ListPops {
+    private ListPops() {}
+
+    static RespDataType pop(RedisDatabase redisDatabase, RespArray requestArray, boolean head) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            boolean withCount = requestArray.getLength() > 2;
+            long count = withCount ? Long.parseLong(requestArray.getValue().get(2).getValue()) : 1;
+            if (count < 0) {
+                return SharedReplies.INVALID_INDEX;
+            }
+            Optional<Object> value = redisDatabase.popFromList(new RedisKey(key.getBytes()), head, count);
+            if (value.isEmpty()) {
+                response = SharedReplies.NULL;
+            } else if (!(value.get() instanceof List<?> elements)) {
+                response = SharedReplies.NOT_A_LIST;
+            } else if (withCount) {
+                RespArray responseArray = new RespArray();
+                for (Object element: elements) {
+                    responseArray.addElement(new BulkString((byte[]) element));
+                }
+                response = responseArray;
+            } else {
+                response = elements.isEmpty() ? SharedReplies.NULL : new BulkString((byte[]) elements.get(0));
+            }
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key to pop from.");
+        } catch (NumberFormatException e) {
+            response = SharedReplies.INVALID_INDEX;
+        }
+        return response;
+    }
+}
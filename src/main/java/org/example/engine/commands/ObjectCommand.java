@@ -0,0 +1,31 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+import java.util.Optional;
+
+// OBJECT ENCODING key: how the value is stored, int, embstr or raw for strings. null when the key does not exist
+public class ObjectCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString subcommand = (BulkString) requestArray.getValue().get(1);
+            if (!subcommand.getValue().equalsIgnoreCase("encoding")) {
+                return new SimpleError("Unknown OBJECT subcommand " + subcommand.getValue());
+            }
+            BulkString key = (BulkString) requestArray.getValue().get(2);
+            Optional<String> encoding = redisDatabase.getEncoding(new RedisKey(key.getBytes()));
+            response = encoding.isEmpty() ? SharedReplies.NULL : new BulkString(encoding.get());
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key to check");
+        }
+        return response;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+// PERSIST key: 1 when the timer is removed, 0 when the key has no timer or does not exist
+public class PersistCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            response = SharedReplies.integer(redisDatabase.removeDeadline(new RedisKey(key.getBytes())));
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key to check");
+        }
+        return response;
+    }
+}
@@ -1,12 +1,13 @@
 package org.example.engine.commands;
 
+import org.example.database.RedisDatabase;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
-import org.example.resp_types.bulk.BulkString;
 
 public class PingCommand implements RedisCommand{
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
-        return new BulkString("PONG");
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        return SharedReplies.PONG;
     }
 }
@@ -0,0 +1,13 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+
+// RPOP key [count]: removes and returns elements from the tail of the list
+public class RPopCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        return ListPops.pop(redisDatabase, requestArray, false);
+    }
+}
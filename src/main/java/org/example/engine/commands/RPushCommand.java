@@ -1,39 +1,34 @@
 package org.example.engine.commands;
 
 import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
-import org.example.resp_types.simple.RespInteger;
-import org.example.resp_types.simple.RespNull;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public class RPushCommand implements  RedisCommand{
-    private final RedisDatabase redisDatabase;
-
-    public RPushCommand(RedisDatabase redisDatabase) {
-        this.redisDatabase = redisDatabase;
-    }
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
         RespDataType response;
         try {
             BulkString key = (BulkString) requestArray.getValue().get(1);
-            List<String> elementsToAdd = new ArrayList<>();
+            List<byte[]> elementsToAdd = new ArrayList<>();
             for (int i = 2; i < requestArray.getLength(); i++) {
-                elementsToAdd.add(requestArray.getValue().get(i).getValue());
+                elementsToAdd.add(((BulkString) requestArray.getValue().get(i)).getBytes());
             }
-            Optional<String> value = redisDatabase.tailPushToList(key.getValue(), elementsToAdd);
+            Optional<String> value = redisDatabase.tailPushToList(new RedisKey(key.getBytes()), elementsToAdd);
             if (value.isEmpty()) {
-                response = new RespNull();
+                response = SharedReplies.NULL;
             } else if(value.get().equals("NAL")) {
-                response = new SimpleError("Accessed value is not a list.");
+                response = SharedReplies.NOT_A_LIST;
             } else {
-                response = new RespInteger(value.get());
+                response = SharedReplies.integer(value.get());
             }
         } catch (IndexOutOfBoundsException e) {
             response = new SimpleError("Missing key to check or elements to add.");
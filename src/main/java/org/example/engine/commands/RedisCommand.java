@@ -1,8 +1,11 @@
 package org.example.engine.commands;
 
+import org.example.database.RedisDatabase;
 import org.example.resp_types.RespDataType;
 import org.example.resp_types.aggregate.RespArray;
 
+// commands are stateless singletons registered once in RedisCommandTable, the database is passed on every call
 public interface RedisCommand {
-    RespDataType processCommand(RespArray requestArray);
+    // the database the client selected, commands that need the client itself are ClientCommands
+    RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray);
 }
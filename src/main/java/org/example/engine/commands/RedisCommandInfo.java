@@ -0,0 +1,98 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+// metadata of a registered command, redis semantics:
+// arity counts the command name, negative means "at least"; keys are at firstKey..lastKey (negative from the end) every step arguments.
+public class RedisCommandInfo {
+    private final int id;
+    private final String name;
+    private final byte[] nameBytes;
+    private final int arity;
+    private final Set<CommandFlag> flags;
+    private final int firstKey;
+    private final int lastKey;
+    private final int step;
+    // exactly one of them is set
+    private final RedisCommand command;
+    private final ClientCommand clientCommand;
+
+    RedisCommandInfo(int id, String name, int arity, Set<CommandFlag> flags, int firstKey, int lastKey, int step, RedisCommand command) {
+        this(id, name, arity, flags, firstKey, lastKey, step, command, null);
+    }
+
+    RedisCommandInfo(int id, String name, int arity, Set<CommandFlag> flags, int firstKey, int lastKey, int step, ClientCommand clientCommand) {
+        this(id, name, arity, flags, firstKey, lastKey, step, null, clientCommand);
+    }
+
+    private RedisCommandInfo(int id, String name, int arity, Set<CommandFlag> flags, int firstKey, int lastKey, int step, RedisCommand command, ClientCommand clientCommand) {
+        this.id = id;
+        this.name = name;
+        this.nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        this.arity = arity;
+        this.flags = flags;
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
+        this.step = step;
+        this.command = command;
+        this.clientCommand = clientCommand;
+    }
+
+    // dense index of the command in the table, 0 to RedisCommandTable.size() - 1
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    byte[] getNameBytes() {
+        return nameBytes;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    public Set<CommandFlag> getFlags() {
+        return flags;
+    }
+
+    public boolean hasFlag(CommandFlag flag) {
+        return flags.contains(flag);
+    }
+
+    public int getFirstKey() {
+        return firstKey;
+    }
+
+    public int getLastKey() {
+        return lastKey;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    // runs the command for the client, on the database it selected unless the command works on the client itself
+    public RespDataType execute(RedisClient redisClient, RespArray requestArray) {
+        if (clientCommand != null) {
+            return clientCommand.processCommand(redisClient, requestArray);
+        }
+        return command.processCommand(redisClient.getDatabase(), requestArray);
+    }
+
+    public boolean isClientCommand() {
+        return clientCommand != null;
+    }
+
+    // null for a client command, those only run through execute
+    public RedisCommand getCommand() {
+        return command;
+    }
+}
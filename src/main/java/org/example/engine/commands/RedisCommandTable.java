@@ -0,0 +1,133 @@
+package org.example.engine.commands;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.example.engine.commands.CommandFlag.*;
+
+// registry of the supported commands, each backed by a single stateless RedisCommand instance.
+// lookup is case-insensitive and works on the raw bytes of the command name, no String is created per request.
+public final class RedisCommandTable {
+    private static final List<RedisCommandInfo> commands = new ArrayList<>();
+    // open addressing table, kept at most 1/4 full so probes stay short
+    private static final RedisCommandInfo[] slots;
+    private static final int mask;
+
+    static {
+        register("ping", -1, EnumSet.of(FAST), 0, 0, 0, new PingCommand());
+        register("echo", 2, EnumSet.of(FAST), 0, 0, 0, new EchoCommand());
+        register("set", -3, EnumSet.of(WRITE), 1, 1, 1, new SetCommand());
+        register("setex", 4, EnumSet.of(WRITE), 1, 1, 1, new SetEXCommand());
+        register("seteaxt", 4, EnumSet.of(WRITE), 1, 1, 1, new SetEAXTCommand());
+        register("psetex", 4, EnumSet.of(WRITE), 1, 1, 1, new PSetEXCommand());
+        register("get", 2, EnumSet.of(READONLY, FAST), 1, 1, 1, new GetCommand());
+        register("exists", -2, EnumSet.of(READONLY, FAST), 1, -1, 1, new ExistsCommand());
+        register("del", -2, EnumSet.of(WRITE), 1, -1, 1, new DeleteCommand());
+        register("incr", 2, EnumSet.of(WRITE, FAST), 1, 1, 1, new IncrementCommand());
+        register("decr", 2, EnumSet.of(WRITE, FAST), 1, 1, 1, new DecrementCommand());
+        register("incrby", 3, EnumSet.of(WRITE, FAST), 1, 1, 1, new IncrementByCommand());
+        register("decrby", 3, EnumSet.of(WRITE, FAST), 1, 1, 1, new DecrementByCommand());
+        register("incrbyfloat", 3, EnumSet.of(WRITE, FAST), 1, 1, 1, new IncrementByFloatCommand());
+        register("lpush", -3, EnumSet.of(WRITE, FAST), 1, 1, 1, new LPushCommand());
+        register("rpush", -3, EnumSet.of(WRITE, FAST), 1, 1, 1, new RPushCommand());
+        register("lrange", 4, EnumSet.of(READONLY), 1, 1, 1, new LRangeRequest());
+        register("lpop", -2, EnumSet.of(WRITE, FAST), 1, 1, 1, new LPopCommand());
+        register("rpop", -2, EnumSet.of(WRITE, FAST), 1, 1, 1, new RPopCommand());
+        register("llen", 2, EnumSet.of(READONLY, FAST), 1, 1, 1, new LLenCommand());
+        register("lindex", 3, EnumSet.of(READONLY), 1, 1, 1, new LIndexCommand());
+        register("ltrim", 4, EnumSet.of(WRITE), 1, 1, 1, new LTrimCommand());
+        register("expire", -3, EnumSet.of(WRITE, FAST), 1, 1, 1, new ExpireCommand());
+        register("pexpire", -3, EnumSet.of(WRITE, FAST), 1, 1, 1, new PExpireCommand());
+        register("expireat", -3, EnumSet.of(WRITE, FAST), 1, 1, 1, new ExpireAtCommand());
+        register("pexpireat", -3, EnumSet.of(WRITE, FAST), 1, 1, 1, new PExpireAtCommand());
+        register("ttl", 2, EnumSet.of(READONLY, FAST), 1, 1, 1, new TTLCommand());
+        register("pttl", 2, EnumSet.of(READONLY, FAST), 1, 1, 1, new PTTLCommand());
+        register("persist", 2, EnumSet.of(WRITE, FAST), 1, 1, 1, new PersistCommand());
+        register("getex", -2, EnumSet.of(WRITE, FAST), 1, 1, 1, new GetEXCommand());
+        register("object", -2, EnumSet.of(READONLY), 2, 2, 1, new ObjectCommand());
+        register("select", 2, EnumSet.of(FAST), 0, 0, 0, new SelectCommand());
+        register("dbsize", 1, EnumSet.of(READONLY, FAST), 0, 0, 0, new DBSizeCommand());
+        register("swapdb", 3, EnumSet.of(WRITE, FAST), 0, 0, 0, new SwapDBCommand());
+        register("flushdb", -1, EnumSet.of(WRITE), 0, 0, 0, new FlushDBCommand());
+        register("flushall", -1, EnumSet.of(WRITE), 0, 0, 0, new FlushAllCommand());
+        register("save", 1, EnumSet.noneOf(CommandFlag.class), 0, 0, 0, new SaveCommand());
+        register("bgsave", -1, EnumSet.noneOf(CommandFlag.class), 0, 0, 0, new BgSaveCommand());
+        register("bgrewriteaof", 1, EnumSet.noneOf(CommandFlag.class), 0, 0, 0, new BgRewriteAofCommand());
+        register("lastsave", 1, EnumSet.of(FAST), 0, 0, 0, new LastSaveCommand());
+        register("command", -1, EnumSet.noneOf(CommandFlag.class), 0, 0, 0, new CommandCommand());
+
+        int capacity = Integer.highestOneBit(commands.size() * 4 - 1) << 1;
+        slots = new RedisCommandInfo[capacity];
+        mask = capacity - 1;
+        for (RedisCommandInfo info: commands) {
+            int slot = hash(info.getNameBytes()) & mask;
+            while (slots[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = info;
+        }
+    }
+
+    private RedisCommandTable() {}
+
+    // command registered under the given name in any letter case, null when unknown
+    public static RedisCommandInfo lookup(byte[] name) {
+        int slot = hash(name) & mask;
+        RedisCommandInfo candidate;
+        while ((candidate = slots[slot]) != null) {
+            if (equalsIgnoreCase(candidate.getNameBytes(), name)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public static RedisCommandInfo lookup(String name) {
+        return lookup(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static List<RedisCommandInfo> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    public static int size() {
+        return commands.size();
+    }
+
+    private static void register(String name, int arity, EnumSet<CommandFlag> flags, int firstKey, int lastKey, int step, RedisCommand command) {
+        commands.add(new RedisCommandInfo(commands.size(), name, arity, Collections.unmodifiableSet(flags), firstKey, lastKey, step, command));
+    }
+
+    private static void register(String name, int arity, EnumSet<CommandFlag> flags, int firstKey, int lastKey, int step, ClientCommand command) {
+        commands.add(new RedisCommandInfo(commands.size(), name, arity, Collections.unmodifiableSet(flags), firstKey, lastKey, step, command));
+    }
+
+    private static int hash(byte[] name) {
+        int hash = 0;
+        for (byte current: name) {
+            hash = 31 * hash + toLowerCase(current);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    // lowerCaseName is registered in lower case, only the candidate needs folding
+    private static boolean equalsIgnoreCase(byte[] lowerCaseName, byte[] candidate) {
+        if (lowerCaseName.length != candidate.length) {
+            return false;
+        }
+        for (int i = 0; i < candidate.length; i++) {
+            if (lowerCaseName[i] != toLowerCase(candidate[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte toLowerCase(byte value) {
+        return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+    }
+}
@@ -1,23 +1,22 @@
 package org.example.engine.commands;
 
-import org.example.database.RedisDatabase;
+import org.example.engine.RedisClient;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.errors.SimpleError;
-import org.example.resp_types.simple.SimpleString;
 
-public class SaveCommand implements RedisCommand{
-    private final RedisDatabase redisDatabase;
-
-    public SaveCommand(RedisDatabase redisDatabase) {
-        this.redisDatabase = redisDatabase;
-    }
+// SAVE: all the databases, whichever one the client selected. the client waits, the others do not
+public class SaveCommand extends ClientCommand {
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
         RespDataType response;
-        boolean isSaved = redisDatabase.saveToDisk();
+        if (redisClient.getDatabases().isSaving()) {
+            return SharedReplies.SAVE_IN_PROGRESS;
+        }
+        boolean isSaved = redisClient.getDatabases().saveToDisk();
         if (isSaved) {
-            response = new SimpleString("OK");
+            response = SharedReplies.OK;
         } else {
             response = new SimpleError("ERR: database not saved to disk.");
         }
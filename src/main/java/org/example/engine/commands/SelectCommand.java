@@ -0,0 +1,24 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.errors.SimpleError;
+
+// SELECT index: the following commands of the connection work on that database
+public class SelectCommand extends ClientCommand {
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        try {
+            int index = databaseIndex(redisClient, requestArray.getValue().get(1));
+            if (index < 0) {
+                return SharedReplies.INVALID_DB_INDEX;
+            }
+            redisClient.select(index);
+            return SharedReplies.OK;
+        } catch (IndexOutOfBoundsException e) {
+            return new SimpleError("Missing database index.");
+        }
+    }
+}
@@ -1,29 +1,28 @@
 package org.example.engine.commands;
 
 import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
-import org.example.resp_types.simple.SimpleString;
 
 public class SetEXCommand implements RedisCommand{
-    private final RedisDatabase redisDatabase;
-
-    public SetEXCommand(RedisDatabase redisDatabase) {
-        this.redisDatabase = redisDatabase;
-    }
     @Override
-    public RespDataType processCommand(RespArray requestArray) {
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
         RespDataType response;
         try {
             BulkString key = (BulkString) requestArray.getValue().get(1);
             BulkString timer = (BulkString) requestArray.getValue().get(2);
             BulkString value = (BulkString) requestArray.getValue().get(3);
-            redisDatabase.setValueForKeyWithEX(key.getValue(), value.getValue(), timer.getValue());
-            response = new SimpleString("OK");
+            long deadline = Deadlines.fromSeconds(Deadlines.positive(timer.getValue()));
+            redisDatabase.setValueForKeyWithDeadline(new RedisKey(key.getBytes()), value.getBytes(), deadline);
+            response = SharedReplies.OK;
         } catch (IndexOutOfBoundsException e) {
             response = new SimpleError("Incomplete command: key, timer and value needed");
+        } catch (NumberFormatException | ArithmeticException e) {
+            response = SharedReplies.INVALID_EXPIRE_TIME;
         }
         return response;
     }
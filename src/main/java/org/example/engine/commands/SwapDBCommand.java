@@ -0,0 +1,25 @@
+package org.example.engine.commands;
+
+import org.example.engine.RedisClient;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.errors.SimpleError;
+
+// SWAPDB index1 index2: every client of one database sees the keys of the other, no key is copied
+public class SwapDBCommand extends ClientCommand {
+    @Override
+    public RespDataType processCommand(RedisClient redisClient, RespArray requestArray) {
+        try {
+            int first = databaseIndex(redisClient, requestArray.getValue().get(1));
+            int second = databaseIndex(redisClient, requestArray.getValue().get(2));
+            if (first < 0 || second < 0) {
+                return SharedReplies.INVALID_DB_INDEX;
+            }
+            redisClient.getDatabases().swap(first, second);
+            return SharedReplies.OK;
+        } catch (IndexOutOfBoundsException e) {
+            return new SimpleError("Missing database index.");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.engine.commands;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+
+// TTL key: seconds left (rounded), -1 when the key has no timer, -2 when the key does not exist
+public class TTLCommand implements RedisCommand{
+    @Override
+    public RespDataType processCommand(RedisDatabase redisDatabase, RespArray requestArray) {
+        RespDataType response;
+        try {
+            BulkString key = (BulkString) requestArray.getValue().get(1);
+            long timeToLive = redisDatabase.getTimeToLive(new RedisKey(key.getBytes()));
+            response = SharedReplies.integer(timeToLive < 0 ? timeToLive : (timeToLive + 500) / 1000);
+        } catch (IndexOutOfBoundsException e) {
+            response = new SimpleError("Missing key to check");
+        }
+        return response;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// serves RedisMetrics on http://127.0.0.1:<port>/metrics for Prometheus to scrape, using the JDK built-in HTTP server
+public class MetricsHttpServer {
+    private static final Logger log = LogManager.getLogger(MetricsHttpServer.class);
+    private final HttpServer httpServer;
+
+    public MetricsHttpServer(int port, RedisMetrics redisMetrics) throws IOException {
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.httpServer.createContext("/metrics", exchange -> handle(exchange, redisMetrics));
+    }
+
+    public void start() {
+        httpServer.start();
+        log.info("metrics endpoint started on {}.", httpServer.getAddress());
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, RedisMetrics redisMetrics) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = redisMetrics.renderPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.metrics;
+
+import org.example.engine.commands.RedisCommandInfo;
+import org.example.engine.commands.RedisCommandTable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// server wide counters and gauges, updated lock-free from the request path and rendered in Prometheus text format.
+public class RedisMetrics {
+    private static final RedisMetrics instance = new RedisMetrics();
+
+    // indexed by RedisCommandInfo id
+    private final LongAdder[] commandsProcessed = new LongAdder[RedisCommandTable.size()];
+    private final LongAdder unknownCommands = new LongAdder();
+    private final LongAdder inputBytes = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAdder connectedClients = new LongAdder();
+    private final LongAdder connectionsReceived = new LongAdder();
+    private final LongAdder expiredKeys = new LongAdder();
+    private final LongAdder activeExpiredKeys = new LongAdder();
+    private final LongAdder expireCycles = new LongAdder();
+    private final LongAdder expireCycleNanos = new LongAdder();
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder saveNanos = new LongAdder();
+    private final LongAdder aofFsyncs = new LongAdder();
+    private final LongAdder aofFsyncNanos = new LongAdder();
+    private final LongAdder aofRewrites = new LongAdder();
+    private final LongAdder aofRewriteNanos = new LongAdder();
+    private volatile long lastSaveNanos = 0;
+    private volatile long lastSaveCopies = 0;
+    // gauges computed when scraped, e.g. the keyspace size
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private record Gauge(String help, LongSupplier value) {}
+
+    private RedisMetrics() {
+        for (int i = 0; i < commandsProcessed.length; i++) {
+            commandsProcessed[i] = new LongAdder();
+        }
+    }
+
+    public static RedisMetrics getInstance() {
+        return instance;
+    }
+
+    public void commandProcessed(RedisCommandInfo commandInfo) {
+        commandsProcessed[commandInfo.getId()].increment();
+    }
+
+    public void unknownCommand() {
+        unknownCommands.increment();
+    }
+
+    public void bytesRead(long bytes) {
+        inputBytes.add(bytes);
+    }
+
+    public void bytesWritten(long bytes) {
+        outputBytes.add(bytes);
+    }
+
+    public void clientConnected() {
+        connectionsReceived.increment();
+        connectedClients.increment();
+    }
+
+    public void clientDisconnected() {
+        connectedClients.decrement();
+    }
+
+    public void keysExpired(long keys) {
+        expiredKeys.add(keys);
+    }
+
+    // the keys were already counted by keysExpired, one by one
+    public void expireCycleCompleted(long keys, long durationNanos) {
+        activeExpiredKeys.add(keys);
+        expireCycles.increment();
+        expireCycleNanos.add(durationNanos);
+    }
+
+    // copies: entries written by clients while the snapshot ran, kept as they were for the snapshot
+    public void saveCompleted(long durationNanos, long copies) {
+        saves.increment();
+        saveNanos.add(durationNanos);
+        lastSaveNanos = durationNanos;
+        lastSaveCopies = copies;
+    }
+
+    public void aofFsynced(long durationNanos) {
+        aofFsyncs.increment();
+        aofFsyncNanos.add(durationNanos);
+    }
+
+    public void aofRewriteCompleted(long durationNanos) {
+        aofRewrites.increment();
+        aofRewriteNanos.add(durationNanos);
+    }
+
+    public void registerGauge(String name, String help, LongSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
+    public long getCommandsProcessed(RedisCommandInfo commandInfo) {
+        return commandsProcessed[commandInfo.getId()].sum();
+    }
+
+    public long getExpiredKeys() {
+        return expiredKeys.sum();
+    }
+
+    public long getActiveExpiredKeys() {
+        return activeExpiredKeys.sum();
+    }
+
+    public long getConnectedClients() {
+        return connectedClients.sum();
+    }
+
+    // Prometheus text exposition format 0.0.4
+    public String renderPrometheus() {
+        StringBuilder output = new StringBuilder(4096);
+        output.append("# HELP jredis_commands_processed_total Commands processed, by command name.\n");
+        output.append("# TYPE jredis_commands_processed_total counter\n");
+        for (RedisCommandInfo commandInfo: RedisCommandTable.getCommands()) {
+            output.append("jredis_commands_processed_total{command=\"").append(commandInfo.getName()).append("\"} ")
+                    .append(commandsProcessed[commandInfo.getId()].sum()).append('\n');
+        }
+        counter(output, "jredis_unknown_commands_total", "Requests naming an unknown command.", unknownCommands.sum());
+        counter(output, "jredis_net_input_bytes_total", "Bytes read from clients.", inputBytes.sum());
+        counter(output, "jredis_net_output_bytes_total", "Bytes written to clients.", outputBytes.sum());
+        gauge(output, "jredis_connected_clients", "Client connections currently open.", connectedClients.sum());
+        counter(output, "jredis_connections_received_total", "Client connections accepted.", connectionsReceived.sum());
+        counter(output, "jredis_expired_keys_total", "Keys deleted because their timer expired.", expiredKeys.sum());
+        counter(output, "jredis_active_expired_keys_total", "Expired keys deleted by the active expire cycle.", activeExpiredKeys.sum());
+        counter(output, "jredis_expire_cycles_total", "Active expire cycles run.", expireCycles.sum());
+        seconds(output, "jredis_expire_cycle_duration_seconds_total", "counter", "Time spent in active expire cycles.", expireCycleNanos.sum());
+        counter(output, "jredis_saves_total", "Completed SAVE and BGSAVE operations.", saves.sum());
+        seconds(output, "jredis_save_duration_seconds_total", "counter", "Time spent in SAVE and BGSAVE.", saveNanos.sum());
+        seconds(output, "jredis_last_save_duration_seconds", "gauge", "Duration of the last SAVE or BGSAVE.", lastSaveNanos);
+        gauge(output, "jredis_last_save_copied_entries", "Entries copied on write while the last SAVE or BGSAVE ran.", lastSaveCopies);
+        counter(output, "jredis_aof_fsyncs_total", "fsync calls on the append only file.", aofFsyncs.sum());
+        seconds(output, "jredis_aof_fsync_duration_seconds_total", "counter", "Time spent in fsync of the append only file.", aofFsyncNanos.sum());
+        counter(output, "jredis_aof_rewrites_total", "Completed rewrites of the append only file.", aofRewrites.sum());
+        seconds(output, "jredis_aof_rewrite_duration_seconds_total", "counter", "Time spent in rewrites of the append only file.", aofRewriteNanos.sum());
+        gauges.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> gauge(output, entry.getKey(), entry.getValue().help(), entry.getValue().value().getAsLong()));
+        return output.toString();
+    }
+
+    private static void counter(StringBuilder output, String name, String help, long value) {
+        metric(output, name, "counter", help).append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder output, String name, String help, long value) {
+        metric(output, name, "gauge", help).append(value).append('\n');
+    }
+
+    private static void seconds(StringBuilder output, String name, String type, String help, long nanos) {
+        metric(output, name, type, help).append(nanos / 1e9).append('\n');
+    }
+
+    private static StringBuilder metric(StringBuilder output, String name, String type, String help) {
+        return output.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n')
+                .append(name).append(' ');
+    }
+}
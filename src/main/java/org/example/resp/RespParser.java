@@ -0,0 +1,158 @@
+package org.example.resp;
+
+import org.example.exceptions.IncorrectSyntax;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// incremental, binary safe parser of RESP requests (arrays of bulk strings) working on raw bytes.
+// input is fed as it arrives from the socket, a request split across reads is resumed where it stopped.
+public class RespParser {
+    private static final byte[] EMPTY = new byte[0];
+    private static final int MAX_ARRAY_LENGTH = 1024 * 1024;
+    private static final int MAX_BULK_LENGTH = 512 * 1024 * 1024;
+    // buffers grown past this size by a large request are dropped once drained
+    private static final int RETAINED_BUFFER_SIZE = 16 * 1024;
+
+    private byte[] buffer = EMPTY;
+    private int readIndex = 0;
+    private int writeIndex = 0;
+
+    // request being parsed, survives between calls when the input ends mid request
+    private RespArray pendingRequest;
+    private int remainingElements = 0;
+    private int pendingBulkLength = -1;
+    private long parsedLength;
+
+    public void feed(ByteBuffer input) {
+        int length = input.remaining();
+        ensureCapacity(length);
+        input.get(buffer, writeIndex, length);
+        writeIndex += length;
+    }
+
+    public void feed(byte[] input, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(input, offset, buffer, writeIndex, length);
+        writeIndex += length;
+    }
+
+    // true when some bytes of an incomplete request are still waiting for the rest
+    public boolean hasBufferedInput() {
+        return readIndex < writeIndex || pendingRequest != null;
+    }
+
+    // bytes fed and not part of a request returned yet, when called right after next() returned one
+    public int bufferedBytes() {
+        return writeIndex - readIndex;
+    }
+
+    // next complete request, null when more input is needed
+    public RespArray next() throws IncorrectSyntax {
+        while (true) {
+            if (pendingRequest == null) {
+                if (readIndex >= writeIndex) {
+                    return null;
+                }
+                if (buffer[readIndex] != '*') {
+                    throw new IncorrectSyntax("Invalid type char for Resp data type.");
+                }
+                if (!parseLength(readIndex + 1, MAX_ARRAY_LENGTH)) {
+                    return null;
+                }
+                remainingElements = (int) parsedLength;
+                pendingRequest = new RespArray(remainingElements);
+            }
+            while (remainingElements > 0) {
+                if (pendingBulkLength < 0) {
+                    if (readIndex >= writeIndex) {
+                        return null;
+                    }
+                    if (buffer[readIndex] != '$') {
+                        throw new IncorrectSyntax("Invalid type char for Resp data type.");
+                    }
+                    if (!parseLength(readIndex + 1, MAX_BULK_LENGTH)) {
+                        return null;
+                    }
+                    pendingBulkLength = (int) parsedLength;
+                }
+                if (writeIndex - readIndex < pendingBulkLength + 2) {
+                    return null;
+                }
+                int end = readIndex + pendingBulkLength;
+                if (buffer[end] != '\r' || buffer[end + 1] != '\n') {
+                    throw new IncorrectSyntax("Missing CRLF after data.");
+                }
+                pendingRequest.addElement(new BulkString(Arrays.copyOfRange(buffer, readIndex, end)));
+                readIndex = end + 2;
+                pendingBulkLength = -1;
+                remainingElements--;
+            }
+            RespArray request = pendingRequest;
+            pendingRequest = null;
+            releaseConsumedInput();
+            // empty arrays are ignored, like redis does
+            if (request.getLength() > 0) {
+                return request;
+            }
+        }
+    }
+
+    // parses "<digits>\r\n" starting at position into parsedLength, moving readIndex after it.
+    // false when the line is not complete yet, nothing is consumed in that case.
+    private boolean parseLength(int position, int maxLength) throws IncorrectSyntax {
+        long length = 0;
+        int digits = 0;
+        while (position < writeIndex) {
+            byte current = buffer[position];
+            if (current < '0' || current > '9') {
+                break;
+            }
+            length = length * 10 + (current - '0');
+            if (length > maxLength) {
+                throw new IncorrectSyntax("Invalid length of data.");
+            }
+            digits++;
+            position++;
+        }
+        if (position + 1 >= writeIndex) {
+            return false;
+        }
+        if (digits == 0) {
+            throw new IncorrectSyntax("Missing length of data.");
+        }
+        if (buffer[position] != '\r' || buffer[position + 1] != '\n') {
+            throw new IncorrectSyntax("Missing CRLF before data.");
+        }
+        readIndex = position + 2;
+        parsedLength = length;
+        return true;
+    }
+
+    private void ensureCapacity(int length) {
+        if (writeIndex + length <= buffer.length) {
+            return;
+        }
+        int unread = writeIndex - readIndex;
+        if (unread + length <= buffer.length && readIndex > 0) {
+            System.arraycopy(buffer, readIndex, buffer, 0, unread);
+        } else {
+            byte[] grown = new byte[Math.max(unread + length, Math.max(256, buffer.length * 2))];
+            System.arraycopy(buffer, readIndex, grown, 0, unread);
+            buffer = grown;
+        }
+        readIndex = 0;
+        writeIndex = unread;
+    }
+
+    private void releaseConsumedInput() {
+        if (readIndex == writeIndex) {
+            readIndex = 0;
+            writeIndex = 0;
+            if (buffer.length > RETAINED_BUFFER_SIZE) {
+                buffer = EMPTY;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.resp;
+
+import org.example.resp_types.RespDataType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// reusable byte sink replies are encoded into, drained to the socket once per batch of requests.
+// lengths and integers are written as ASCII digits straight into the buffer, small length prefixes come pre-encoded.
+public class RespWriter {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int CACHED_PREFIXES = 1024;
+    private static final byte[][] BULK_PREFIXES = prefixes('$');
+    private static final byte[][] ARRAY_PREFIXES = prefixes('*');
+    // writers grown past this size by a large reply are shrunk back once drained
+    private static final int RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private final int initialCapacity;
+    private byte[] buffer;
+    private int size = 0;
+
+    public RespWriter(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+        if (buffer.length > RETAINED_BUFFER_SIZE) {
+            buffer = new byte[initialCapacity];
+        }
+    }
+
+    public RespWriter writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[size++] = value;
+        return this;
+    }
+
+    public RespWriter writeBytes(byte[] value) {
+        return writeBytes(value, 0, value.length);
+    }
+
+    public RespWriter writeBytes(byte[] value, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(value, offset, buffer, size, length);
+        size += length;
+        return this;
+    }
+
+    public RespWriter writeCRLF() {
+        return writeBytes(CRLF, 0, 2);
+    }
+
+    // UTF-8 encoding of the string, copied char by char when it is plain ASCII
+    public RespWriter writeString(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char current = value.charAt(i);
+            if (current >= 0x80) {
+                return writeBytes(value.substring(i).getBytes(StandardCharsets.UTF_8));
+            }
+            buffer[size++] = (byte) current;
+        }
+        return this;
+    }
+
+    public RespWriter writeDecimal(long value) {
+        if (value == Long.MIN_VALUE) {
+            return writeString(Long.toString(value));
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    // "$<length>\r\n"
+    public RespWriter writeBulkPrefix(int length) {
+        return writePrefix(BULK_PREFIXES, '$', length);
+    }
+
+    // "*<length>\r\n"
+    public RespWriter writeArrayPrefix(int length) {
+        return writePrefix(ARRAY_PREFIXES, '*', length);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, size);
+    }
+
+    // writes as much as the channel takes, returns what is left (empty when everything was written).
+    // the returned buffer shares this writer's memory: copy the rest before the next reset.
+    public ByteBuffer writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer output = ByteBuffer.wrap(buffer, 0, size);
+        channel.write(output);
+        return output;
+    }
+
+    // encoding of a single reply, for replies encoded once and written many times
+    public static byte[] encode(RespDataType respDataType) {
+        RespWriter respWriter = new RespWriter(64);
+        respDataType.write(respWriter);
+        return respWriter.toByteArray();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private RespWriter writePrefix(byte[][] cache, char type, int length) {
+        if (length >= 0 && length < CACHED_PREFIXES) {
+            return writeBytes(cache[length]);
+        }
+        writeByte((byte) type);
+        writeDecimal(length);
+        return writeCRLF();
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+        }
+    }
+
+    private static byte[][] prefixes(char type) {
+        byte[][] prefixes = new byte[CACHED_PREFIXES][];
+        for (int i = 0; i < CACHED_PREFIXES; i++) {
+            prefixes[i] = (type + Integer.toString(i) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+        return prefixes;
+    }
+}
@@ -1,6 +1,10 @@
 package org.example.resp_types;
 
+import org.example.resp.RespWriter;
+
 public interface RespDataType {
     <T> T getValue();
     StringBuilder serialize();
+    // encodes the value straight into the reply buffer, without intermediate strings
+    void write(RespWriter respWriter);
 }
@@ -0,0 +1,67 @@
+package org.example.resp_types;
+
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+import org.example.resp_types.simple.RespInteger;
+import org.example.resp_types.simple.RespNull;
+import org.example.resp_types.simple.SimpleString;
+
+import java.nio.charset.StandardCharsets;
+
+// replies sent over and over, allocated and encoded once and shared by every connection.
+// never mutate them: they are written concurrently by all the connection threads.
+public final class SharedReplies {
+    private static final int CACHED_INTEGERS = 10_000;
+    private static final RespInteger[] INTEGERS = new RespInteger[CACHED_INTEGERS + 1];
+
+    public static final SimpleString OK = SimpleString.shared("OK");
+    public static final RespNull NULL = new RespNull();
+    public static final BulkString PONG = new BulkString("PONG".getBytes(StandardCharsets.US_ASCII));
+
+    public static final SimpleError UNKNOWN_COMMAND = SimpleError.shared("Unknown Command");
+    public static final SimpleError NOT_A_NUMBER = SimpleError.shared("Accessed value is not a valid number.");
+    public static final SimpleError NOT_A_STRING = SimpleError.shared("Accessed value is not a string.");
+    public static final SimpleError NOT_A_LIST = SimpleError.shared("Accessed value is not a list.");
+    public static final SimpleError OVERFLOW = SimpleError.shared("Increment or decrement would overflow.");
+    public static final SimpleError INVALID_INCREMENT = SimpleError.shared("Increment is not a valid number.");
+    public static final SimpleError NAN_OR_INFINITY = SimpleError.shared("Increment would produce NaN or Infinity.");
+    public static final SimpleError INVALID_TIMER = SimpleError.shared("Timer is not a valid integer.");
+    public static final SimpleError INVALID_EXPIRE_TIME = SimpleError.shared("Invalid expire time, a positive integer is needed and the deadline must fit in 64 bits.");
+    public static final SimpleError INVALID_INDEX = SimpleError.shared("Index is not a valid integer.");
+    public static final SimpleError INVALID_DB_INDEX = SimpleError.shared("DB index is out of range.");
+    public static final SimpleError SAVE_IN_PROGRESS = SimpleError.shared("Background save already in progress.");
+    public static final SimpleError AOF_OFF = SimpleError.shared("Append only file is off, start the server with --appendonly yes.");
+    public static final SimpleError AOF_NOT_WRITTEN = SimpleError.shared("Errors writing to the append only file, write commands are refused.");
+
+    static {
+        for (int i = 0; i <= CACHED_INTEGERS; i++) {
+            INTEGERS[i] = RespInteger.shared(Integer.toString(i));
+        }
+    }
+
+    private SharedReplies() {}
+
+    public static RespInteger integer(long value) {
+        if (value >= 0 && value <= CACHED_INTEGERS) {
+            return INTEGERS[(int) value];
+        }
+        return new RespInteger(Long.toString(value));
+    }
+
+    // counters and lengths still come back from the database as decimal strings
+    public static RespInteger integer(String value) {
+        int length = value.length();
+        if (length == 0 || length > 5) {
+            return new RespInteger(value);
+        }
+        int parsed = 0;
+        for (int i = 0; i < length; i++) {
+            char digit = value.charAt(i);
+            if (digit < '0' || digit > '9' || (digit == '0' && length > 1 && i == 0)) {
+                return new RespInteger(value);
+            }
+            parsed = parsed * 10 + (digit - '0');
+        }
+        return parsed <= CACHED_INTEGERS ? INTEGERS[parsed] : new RespInteger(value);
+    }
+}
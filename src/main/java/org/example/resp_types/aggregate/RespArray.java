@@ -2,6 +2,7 @@ package org.example.resp_types.aggregate;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.resp.RespWriter;
 import org.example.resp_types.RespDataType;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +16,10 @@ public class RespArray implements RespDataType {
         this.arrayOfElements = new ArrayList<>();
     }
 
+    public RespArray(int expectedLength) {
+        this.arrayOfElements = new ArrayList<>(expectedLength);
+    }
+
     @Override
     public List<RespDataType> getValue() {
         return this.arrayOfElements;
@@ -22,7 +27,7 @@ public class RespArray implements RespDataType {
 
     @Override
     public StringBuilder serialize() {
-        log.info("serialize RespArray.");
+        log.debug("serialize RespArray.");
         StringBuilder resultStringBuilder = new StringBuilder();
         if (this.isNull()) {
             return resultStringBuilder.append("*").append("-1").append("\r\n");
@@ -36,6 +41,18 @@ public class RespArray implements RespDataType {
         return resultStringBuilder;
     }
 
+    @Override
+    public void write(RespWriter respWriter) {
+        if (this.isNull()) {
+            respWriter.writeByte((byte) '*').writeDecimal(-1).writeCRLF();
+            return;
+        }
+        respWriter.writeArrayPrefix(this.arrayOfElements.size());
+        for (RespDataType respDataType: this.arrayOfElements) {
+            respDataType.write(respWriter);
+        }
+    }
+
     public int getLength() {
         return this.arrayOfElements.size();
     }
@@ -2,29 +2,53 @@ package org.example.resp_types.bulk;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.resp.RespWriter;
 import org.example.resp_types.RespDataType;
+import java.nio.charset.StandardCharsets;
 
 public class BulkString implements RespDataType {
     private static final Logger log = LogManager.getLogger(BulkString.class);
-    private final String value;
+    // raw bytes as received from the client, the String form is decoded only when asked for
+    private byte[] bytes;
+    private String value;
 
     public BulkString(String value) {
         this.value = value;
     }
 
+    public BulkString(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
     @Override
     public String getValue() {
+        if (this.value == null) {
+            this.value = new String(this.bytes, StandardCharsets.UTF_8);
+        }
         return this.value;
     }
 
+    public byte[] getBytes() {
+        if (this.bytes == null) {
+            this.bytes = this.value.getBytes(StandardCharsets.UTF_8);
+        }
+        return this.bytes;
+    }
+
     @Override
     public StringBuilder serialize() {
-        log.info("serialize BulkString.");
+        log.debug("serialize BulkString.");
         return new StringBuilder()
                 .append("$")
-                .append(this.getValue().length())
+                .append(this.getBytes().length)
                 .append("\r\n")
                 .append(this.getValue())
                 .append("\r\n");
     }
+
+    @Override
+    public void write(RespWriter respWriter) {
+        byte[] bytes = this.getBytes();
+        respWriter.writeBulkPrefix(bytes.length).writeBytes(bytes).writeCRLF();
+    }
 }
@@ -2,10 +2,13 @@ package org.example.resp_types.errors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.resp.RespWriter;
 import org.example.resp_types.RespDataType;
 
 public class SimpleError implements RespDataType {
     private final String value;
+    // set on shared replies only, written as is
+    private byte[] encoded;
     private static final Logger log = LogManager.getLogger(SimpleError.class);
 
 
@@ -13,6 +16,13 @@ public class SimpleError implements RespDataType {
         this.value = value;
     }
 
+    // immutable reply encoded once, safe to share between connections (see SharedReplies)
+    public static SimpleError shared(String value) {
+        SimpleError shared = new SimpleError(value);
+        shared.encoded = RespWriter.encode(shared);
+        return shared;
+    }
+
     @Override
     public String getValue() {
         return this.value;
@@ -20,10 +30,19 @@ public class SimpleError implements RespDataType {
 
     @Override
     public StringBuilder serialize() {
-        log.info("serialize SimpleError.");
+        log.debug("serialize SimpleError.");
         return new StringBuilder()
                 .append("-")
                 .append(this.getValue())
                 .append("\r\n");
     }
+
+    @Override
+    public void write(RespWriter respWriter) {
+        if (this.encoded != null) {
+            respWriter.writeBytes(this.encoded);
+            return;
+        }
+        respWriter.writeByte((byte) '-').writeString(this.value).writeCRLF();
+    }
 }
@@ -2,16 +2,26 @@ package org.example.resp_types.simple;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.resp.RespWriter;
 import org.example.resp_types.RespDataType;
 
 public class RespInteger implements RespDataType {
     private static final Logger log = LogManager.getLogger(RespInteger.class);
     private final String value;
+    // set on shared replies only, written as is
+    private byte[] encoded;
 
     public RespInteger(String value) {
         this.value = value;
     }
 
+    // immutable reply encoded once, safe to share between connections (see SharedReplies)
+    public static RespInteger shared(String value) {
+        RespInteger shared = new RespInteger(value);
+        shared.encoded = RespWriter.encode(shared);
+        return shared;
+    }
+
     @Override
     public String getValue() {
         return this.value;
@@ -19,10 +29,19 @@ public class RespInteger implements RespDataType {
 
     @Override
     public StringBuilder serialize() {
-        log.info("serialize RespInteger.");
+        log.debug("serialize RespInteger.");
         return new StringBuilder()
                 .append(":")
                 .append(this.getValue())
                 .append("\r\n");
     }
+
+    @Override
+    public void write(RespWriter respWriter) {
+        if (this.encoded != null) {
+            respWriter.writeBytes(this.encoded);
+            return;
+        }
+        respWriter.writeByte((byte) ':').writeString(this.value).writeCRLF();
+    }
 }
\ No newline at end of file
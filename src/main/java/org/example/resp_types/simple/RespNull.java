@@ -2,6 +2,7 @@ package org.example.resp_types.simple;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.resp.RespWriter;
 import org.example.resp_types.RespDataType;
 
 public class RespNull implements RespDataType {
@@ -17,9 +18,14 @@ public class RespNull implements RespDataType {
 
     @Override
     public StringBuilder serialize() {
-        log.info("serialize RespNull.");
+        log.debug("serialize RespNull.");
         return new StringBuilder()
                 .append(this.getValue())
                 .append("\r\n");
     }
+
+    @Override
+    public void write(RespWriter respWriter) {
+        respWriter.writeByte((byte) '_').writeCRLF();
+    }
 }
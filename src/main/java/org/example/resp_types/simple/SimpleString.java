@@ -2,16 +2,26 @@ package org.example.resp_types.simple;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.resp.RespWriter;
 import org.example.resp_types.RespDataType;
 
 public class SimpleString implements RespDataType {
     private static final Logger log = LogManager.getLogger(SimpleString.class);
     private final String value;
+    // set on shared replies only, written as is
+    private byte[] encoded;
 
     public SimpleString(String value) {
         this.value = value;
     }
 
+    // immutable reply encoded once, safe to share between connections (see SharedReplies)
+    public static SimpleString shared(String value) {
+        SimpleString shared = new SimpleString(value);
+        shared.encoded = RespWriter.encode(shared);
+        return shared;
+    }
+
     @Override
     public String getValue() {
         return this.value;
@@ -19,10 +29,19 @@ public class SimpleString implements RespDataType {
 
     @Override
     public StringBuilder serialize() {
-        log.info("serialize SimpleString.");
+        log.debug("serialize SimpleString.");
         return new StringBuilder()
                 .append("+")
                 .append(this.getValue())
                 .append("\r\n");
     }
+
+    @Override
+    public void write(RespWriter respWriter) {
+        if (this.encoded != null) {
+            respWriter.writeBytes(this.encoded);
+            return;
+        }
+        respWriter.writeByte((byte) '+').writeString(this.value).writeCRLF();
+    }
 }
@@ -4,7 +4,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Test;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.GetExParams;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -257,4 +260,152 @@ public class JedisTests {
             assertEquals("OK", result);
         }
     }
+
+    @Test
+    public void testPipelinedCommands() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Long>> increments = new ArrayList<>();
+            pipeline.set("test_pipeline_counter", "0");
+            for (int i = 0; i < 1000; i++) {
+                increments.add(pipeline.incr("test_pipeline_counter"));
+            }
+            Response<String> value = pipeline.get("test_pipeline_counter");
+            pipeline.sync();
+            for (int i = 0; i < increments.size(); i++) {
+                assertEquals(i + 1, increments.get(i).get());
+            }
+            assertEquals("1000", value.get());
+        }
+    }
+
+    @Test
+    public void testExpireTTLAndPersistCommands() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            jedis.set("test_expire", "Jedis");
+            assertEquals(-1, jedis.ttl("test_expire"));
+            assertEquals(1, jedis.expire("test_expire", 100));
+            assertTrue(jedis.ttl("test_expire") > 98);
+            assertTrue(jedis.pttl("test_expire") > 98_000);
+            assertEquals(1, jedis.persist("test_expire"));
+            assertEquals(0, jedis.persist("test_expire"));
+            assertEquals(-1, jedis.ttl("test_expire"));
+            assertEquals(1, jedis.pexpireAt("test_expire", System.currentTimeMillis() - 1));
+            assertEquals(-2, jedis.ttl("test_expire"));
+            assertEquals(0, jedis.expire("test_expire", 100));
+            assertNull(jedis.get("test_expire"));
+        }
+    }
+
+    @Test
+    public void testGetEXCommand() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            jedis.set("test_getex", "Jedis");
+            assertEquals("Jedis", jedis.getEx("test_getex", GetExParams.getExParams().px(100_000)));
+            assertTrue(jedis.pttl("test_getex") > 99_000);
+            assertEquals("Jedis", jedis.getEx("test_getex", GetExParams.getExParams().persist()));
+            assertEquals(-1, jedis.ttl("test_getex"));
+            assertNull(jedis.getEx("test_getex_missing", GetExParams.getExParams().ex(10)));
+        }
+    }
+
+    @Test
+    public void testIncrByDecrByAndIncrByFloatCommands() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            jedis.del("test_incrby");
+            assertEquals(5_000_000_000L, jedis.incrBy("test_incrby", 5_000_000_000L));
+            assertEquals(4_999_999_990L, jedis.decrBy("test_incrby", 10));
+            assertEquals(5.0e9 - 9.5, jedis.incrByFloat("test_incrby", 0.5));
+            assertEquals("4999999990.5", jedis.get("test_incrby"));
+            jedis.set("test_incrby_max", Long.toString(Long.MAX_VALUE));
+            assertThrows(JedisDataException.class, () -> jedis.incr("test_incrby_max"));
+        }
+    }
+
+    @Test
+    public void testObjectEncodingCommand() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            jedis.set("test_encoding", "42");
+            assertEquals("int", jedis.objectEncoding("test_encoding"));
+            jedis.set("test_encoding", "forty two");
+            assertEquals("embstr", jedis.objectEncoding("test_encoding"));
+            jedis.set("test_encoding", "forty two".repeat(10));
+            assertEquals("raw", jedis.objectEncoding("test_encoding"));
+            assertEquals("forty two".repeat(10), jedis.get("test_encoding"));
+            jedis.del("test_encoding");
+            assertNull(jedis.objectEncoding("test_encoding"));
+        }
+    }
+
+    @Test
+    public void testBinaryKeysAndValues() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            byte[] key = {'k', (byte) 0xff, '\r', '\n'};
+            byte[] value = {(byte) 0xc3, 0, (byte) 0x80, '\r', '\n'};
+            assertEquals("OK", jedis.set(key, value));
+            assertArrayEquals(value, jedis.get(key));
+            assertNull(jedis.get(new byte[]{'k', (byte) 0xfe, '\r', '\n'}));
+            assertEquals(1, jedis.del(key));
+        }
+    }
+
+    @Test
+    public void testListPopLengthIndexAndTrimCommands() {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            jedis.del("test_list_commands");
+            jedis.lpush("test_list_commands", "value1", "value0");
+            jedis.rpush("test_list_commands", "value2", "value3", "value4", "value5");
+            assertEquals(List.of("value0", "value1", "value2"), jedis.lrange("test_list_commands", 0, 2));
+            assertEquals(6, jedis.llen("test_list_commands"));
+            assertEquals("value4", jedis.lindex("test_list_commands", -2));
+            assertNull(jedis.lindex("test_list_commands", 6));
+            assertEquals("value0", jedis.lpop("test_list_commands"));
+            assertEquals(List.of("value5", "value4"), jedis.rpop("test_list_commands", 2));
+            assertEquals("OK", jedis.ltrim("test_list_commands", 1, -1));
+            assertEquals(List.of("value2", "value3"), jedis.lrange("test_list_commands", 0, -1));
+            jedis.ltrim("test_list_commands", 1, 0);
+            assertEquals(0, jedis.llen("test_list_commands"));
+            assertNull(jedis.lpop("test_list_commands"));
+            assertFalse(jedis.exists("test_list_commands"));
+        }
+    }
+
+    @Test
+    public void testSelectSwapDBAndFlushDBCommands() {
+        try(Jedis jedis = new Jedis("localhost", 6379); Jedis other = new Jedis("localhost", 6379)) {
+            assertEquals("OK", jedis.select(14));
+            jedis.flushDB();
+            jedis.set("test_select", "in_14");
+            assertEquals(1, jedis.dbSize());
+            other.select(15);
+            other.flushDB();
+            assertNull(other.get("test_select"));
+            assertEquals("OK", other.swapDB(14, 15));
+            assertEquals("in_14", other.get("test_select"));
+            assertEquals(0, jedis.dbSize());
+            assertEquals("OK", other.flushDB());
+            assertNull(other.get("test_select"));
+            assertThrows(JedisDataException.class, () -> jedis.select(16));
+        }
+    }
+
+    @Test
+    public void testBgsaveAndLastsaveCommands() throws InterruptedException {
+        try(Jedis jedis = new Jedis("localhost", 6379)) {
+            jedis.set("test_bgsave", "saved");
+            long before = jedis.lastsave();
+            assertEquals("Background saving started", jedis.bgsave());
+            // SAVE is refused until the BGSAVE is done
+            String saved = null;
+            for (int attempt = 0; attempt < 50 && saved == null; attempt++) {
+                try {
+                    saved = jedis.save();
+                } catch (JedisDataException e) {
+                    Thread.sleep(100);
+                }
+            }
+            assertEquals("OK", saved);
+            assertTrue(jedis.lastsave() >= before);
+        }
+    }
 }
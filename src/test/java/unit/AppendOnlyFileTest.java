@@ -0,0 +1,308 @@
+package unit;
+
+import org.example.database.AppendOnlyFile.FsyncPolicy;
+import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
+import org.example.engine.AppendOnlyFileLoader;
+import org.example.engine.RedisRequestProcessor;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AppendOnlyFileTest {
+    @TempDir
+    Path directory;
+    private Path appendOnlyFile;
+    private RedisDatabases redisDatabases;
+
+    @BeforeEach
+    public void createDatabases() {
+        appendOnlyFile = directory.resolve("appendonly.aof");
+        redisDatabases = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+    }
+
+    private static RespArray request(String... arguments) {
+        RespArray requestArray = new RespArray();
+        for (String argument: arguments) {
+            requestArray.addElement(new BulkString(argument));
+        }
+        return requestArray;
+    }
+
+    private RedisDatabases replayed() throws IOException {
+        RedisDatabases loaded = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+        AppendOnlyFileLoader.load(appendOnlyFile, loaded);
+        return loaded;
+    }
+
+    @Test
+    public void testWritesAreReplayedIntoTheSameKeyspace() throws IOException {
+        // setup
+        assertTrue(redisDatabases.startAppendOnly(appendOnlyFile, FsyncPolicy.ALWAYS, 0, 0));
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+
+        // act
+        client.processRequest(request("SET", "test_counter", "1"));
+        client.processRequest(request("INCR", "test_counter"));
+        client.processRequest(request("INCRBY", "test_counter", "10"));
+        client.processRequest(request("RPUSH", "test_list", "a", "b", "c"));
+        client.processRequest(request("LPOP", "test_list"));
+        client.processRequest(request("SET", "test_deleted", "value"));
+        client.processRequest(request("DEL", "test_deleted", "test_missing"));
+        client.processRequest(request("SELECT", "2"));
+        client.processRequest(request("SET", "test_swapped", "value"));
+        client.processRequest(request("SETEX", "test_timer", "1000", "value"));
+        RespDataType failed = client.processRequest(request("INCR", "test_swapped"));
+        client.processRequest(request("SWAPDB", "2", "3"));
+        client.processRequest(request("SELECT", "0"));
+        client.processRequest(request("GET", "test_counter"));
+        RedisDatabases loaded = replayed();
+
+        // assert
+        assertInstanceOf(SimpleError.class, failed);
+        RedisDatabase database0 = loaded.get(0);
+        assertEquals("12", decoded(database0.getValueForKey(RedisKey.of("test_counter"))));
+        assertEquals(List.of("b", "c"), database0.getListElements(RedisKey.of("test_list"), 0, -1).orElseThrow()
+                .stream().map(element -> new String(element, StandardCharsets.UTF_8)).toList());
+        assertEquals(Optional.empty(), database0.getValueForKey(RedisKey.of("test_deleted")));
+        assertEquals(0, loaded.get(2).size());
+        assertEquals("value", decoded(loaded.get(3).getValueForKey(RedisKey.of("test_swapped"))));
+        assertEquals(redisDatabases.get(3).getDeadline(RedisKey.of("test_timer")), loaded.get(3).getDeadline(RedisKey.of("test_timer")));
+        String log = Files.readString(appendOnlyFile, StandardCharsets.UTF_8);
+        assertTrue(log.contains("PEXPIREAT"));
+        assertFalse(log.contains("GET"));
+        assertEquals(redisDatabases.getAppendOnlyFile().size(), Files.size(appendOnlyFile));
+    }
+
+    @Test
+    public void testConcurrentWritesAreLoggedInTheOrderTheyRan() throws Exception {
+        // setup
+        assertTrue(redisDatabases.startAppendOnly(appendOnlyFile, FsyncPolicy.ALWAYS, 0, 0));
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String name = "client_" + i;
+            clients.add(new Thread(() -> {
+                RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < 2000; j++) {
+                    client.processRequest(request("SELECT", Integer.toString(random.nextInt(2))));
+                    switch (random.nextInt(4)) {
+                        case 0 -> client.processRequest(request("SET", "test_key_" + random.nextInt(10), name + "_" + j));
+                        case 1 -> client.processRequest(request("RPUSH", "test_list_" + random.nextInt(3), name + "_" + j));
+                        case 2 -> client.processRequest(request("LPOP", "test_list_" + random.nextInt(3)));
+                        default -> client.processRequest(request("INCR", "test_counter"));
+                    }
+                }
+            }));
+        }
+
+        // act
+        clients.forEach(Thread::start);
+        for (Thread client: clients) {
+            client.join();
+        }
+        RedisDatabases loaded = replayed();
+
+        // assert
+        for (int database = 0; database < 2; database++) {
+            RedisDatabase live = redisDatabases.get(database);
+            RedisDatabase image = loaded.get(database);
+            assertEquals(live.size(), image.size());
+            for (int i = 0; i < 10; i++) {
+                RedisKey key = RedisKey.of("test_key_" + i);
+                assertEquals(decoded(live.getValueForKey(key)), decoded(image.getValueForKey(key)));
+            }
+            for (int i = 0; i < 3; i++) {
+                RedisKey key = RedisKey.of("test_list_" + i);
+                assertEquals(live.getListLength(key), image.getListLength(key));
+                assertEquals(live.getListElement(key, 0).map(element -> decoded(Optional.of(element))),
+                        image.getListElement(key, 0).map(element -> decoded(Optional.of(element))));
+            }
+            assertEquals(decoded(live.getValueForKey(RedisKey.of("test_counter"))), decoded(image.getValueForKey(RedisKey.of("test_counter"))));
+        }
+    }
+
+    @Test
+    public void testAlwaysRepliesCompleteOnceTheWritesAreOnDisk() throws Exception {
+        // setup
+        assertTrue(redisDatabases.startAppendOnly(appendOnlyFile, FsyncPolicy.ALWAYS, 0, 0));
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+
+        // act
+        // a pipelined batch: every write is submitted before any reply is waited for
+        List<CompletableFuture<RespDataType>> replies = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            replies.add(client.submitRequest(request("SET", "test_key_" + i, Integer.toString(i))));
+        }
+        List<String> done = new ArrayList<>();
+        for (CompletableFuture<RespDataType> reply: replies) {
+            done.add(reply.get(5, TimeUnit.SECONDS).getValue());
+        }
+        RedisDatabases loaded = replayed();
+
+        // assert
+        assertEquals(Collections.nCopies(100, "OK"), done);
+        assertEquals(100, loaded.get(0).size());
+    }
+
+    @Test
+    public void testAppendOnlyFileStartsWithTheKeysOfTheSnapshot() throws IOException {
+        // setup
+        RedisDatabase database0 = redisDatabases.get(0);
+        database0.setValueForKey(RedisKey.of("test_string"), "value".getBytes(StandardCharsets.UTF_8));
+        database0.setValueForKey(RedisKey.of("test_counter"), "42".getBytes(StandardCharsets.UTF_8));
+        List<byte[]> elements = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            elements.add(("element_" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        database0.tailPushToList(RedisKey.of("test_list"), elements);
+        redisDatabases.get(1).setValueForKeyWithEX(RedisKey.of("test_timer"), "value".getBytes(StandardCharsets.UTF_8), "1000");
+
+        // act
+        boolean started = redisDatabases.startAppendOnly(appendOnlyFile, FsyncPolicy.EVERYSEC, 0, 0);
+        RedisDatabases loaded = replayed();
+
+        // assert
+        assertTrue(started);
+        assertEquals(4, loaded.size());
+        assertEquals("value", decoded(loaded.get(0).getValueForKey(RedisKey.of("test_string"))));
+        assertEquals(Optional.of("int"), loaded.get(0).getEncoding(RedisKey.of("test_counter")));
+        assertEquals(Optional.of("200"), loaded.get(0).getListLength(RedisKey.of("test_list")));
+        assertEquals("element_199", decoded(loaded.get(0).getListElement(RedisKey.of("test_list"), -1)));
+        assertEquals(redisDatabases.get(1).getDeadline(RedisKey.of("test_timer")), loaded.get(1).getDeadline(RedisKey.of("test_timer")));
+    }
+
+    @Test
+    public void testIncompleteLastRequestIsDroppedAndGarbageStopsTheLoad() throws IOException {
+        // setup
+        String complete = "*3\r\n$3\r\nSET\r\n$8\r\ntest_key\r\n$5\r\nvalue\r\n";
+        Files.writeString(appendOnlyFile, complete + "*3\r\n$3\r\nSET\r\n$8\r\ntest_", StandardCharsets.UTF_8);
+
+        // act
+        long requests = AppendOnlyFileLoader.load(appendOnlyFile, redisDatabases);
+
+        // assert
+        assertEquals(1, requests);
+        assertEquals(complete.length(), Files.size(appendOnlyFile));
+        assertEquals("value", decoded(redisDatabases.get(0).getValueForKey(RedisKey.of("test_key"))));
+        Files.writeString(appendOnlyFile, "+OK\r\n" + complete, StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> AppendOnlyFileLoader.load(appendOnlyFile, redisDatabases));
+        Files.writeString(appendOnlyFile, "*1\r\n$7\r\nUNKNOWN\r\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> AppendOnlyFileLoader.load(appendOnlyFile, redisDatabases));
+    }
+
+    private void awaitRewrite() throws InterruptedException {
+        while (redisDatabases.isSaving()) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testRewriteKeepsTheKeyspaceInFewerCommands() throws Exception {
+        // setup
+        assertTrue(redisDatabases.startAppendOnly(appendOnlyFile, FsyncPolicy.ALWAYS, 0, 0));
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+        for (int i = 0; i < 1000; i++) {
+            client.processRequest(request("INCR", "test_counter"));
+            client.processRequest(request("SET", "test_string", "value_" + i));
+            client.processRequest(request("RPUSH", "test_list", "element_" + i));
+            client.processRequest(request("LPOP", "test_list"));
+        }
+        client.processRequest(request("RPUSH", "test_list", "last"));
+        client.processRequest(request("SELECT", "1"));
+        client.processRequest(request("SETEX", "test_timer", "1000", "value"));
+        client.processRequest(request("SELECT", "0"));
+        client.processRequest(request("SET", "test_deleted", "value"));
+        client.processRequest(request("DEL", "test_deleted"));
+        long before = Files.size(appendOnlyFile);
+
+        // act
+        RespDataType started = client.processRequest(request("BGREWRITEAOF"));
+        awaitRewrite();
+        client.processRequest(request("INCR", "test_counter"));
+        RedisDatabases loaded = replayed();
+
+        // assert
+        assertEquals("Background append only file rewriting started", started.getValue());
+        assertTrue(Files.size(appendOnlyFile) < before / 100);
+        assertEquals("1001", decoded(loaded.get(0).getValueForKey(RedisKey.of("test_counter"))));
+        assertEquals("value_999", decoded(loaded.get(0).getValueForKey(RedisKey.of("test_string"))));
+        assertEquals(Optional.of("1"), loaded.get(0).getListLength(RedisKey.of("test_list")));
+        assertEquals(Optional.empty(), loaded.get(0).getValueForKey(RedisKey.of("test_deleted")));
+        assertEquals(redisDatabases.get(1).getDeadline(RedisKey.of("test_timer")), loaded.get(1).getDeadline(RedisKey.of("test_timer")));
+        assertFalse(Files.readString(appendOnlyFile, StandardCharsets.UTF_8).contains("LPOP"));
+        assertInstanceOf(SimpleError.class, new RedisRequestProcessor(new RedisDatabases(1, "unused.rdb"), null).processRequest(request("BGREWRITEAOF")));
+    }
+
+    @Test
+    public void testWritesDuringAutomaticRewritesAreKept() throws Exception {
+        // setup
+        assertTrue(redisDatabases.startAppendOnly(appendOnlyFile, FsyncPolicy.ALWAYS, 100, 16 * 1024));
+        RedisRequestProcessor first = new RedisRequestProcessor(redisDatabases, null);
+        first.processRequest(request("SET", "test_marker", "value"));
+        first.processRequest(request("DEL", "test_marker"));
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String name = "client_" + i;
+            clients.add(new Thread(() -> {
+                RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < 5000; j++) {
+                    client.processRequest(request("SELECT", Integer.toString(random.nextInt(2))));
+                    switch (random.nextInt(4)) {
+                        case 0 -> client.processRequest(request("SET", "test_key_" + random.nextInt(100), name + "_" + j));
+                        case 1 -> client.processRequest(request("RPUSH", "test_list_" + random.nextInt(3), name + "_" + j));
+                        case 2 -> client.processRequest(request("LPOP", "test_list_" + random.nextInt(3)));
+                        default -> client.processRequest(request("INCR", "test_counter"));
+                    }
+                }
+            }));
+        }
+
+        // act
+        clients.forEach(Thread::start);
+        for (Thread client: clients) {
+            client.join();
+        }
+        awaitRewrite();
+        RedisDatabases loaded = replayed();
+
+        // assert
+        assertFalse(Files.readString(appendOnlyFile, StandardCharsets.UTF_8).contains("test_marker"));
+        for (int database = 0; database < 2; database++) {
+            RedisDatabase live = redisDatabases.get(database);
+            RedisDatabase image = loaded.get(database);
+            assertEquals(live.size(), image.size());
+            for (int i = 0; i < 100; i++) {
+                RedisKey key = RedisKey.of("test_key_" + i);
+                assertEquals(decoded(live.getValueForKey(key)), decoded(image.getValueForKey(key)));
+            }
+            for (int i = 0; i < 3; i++) {
+                RedisKey key = RedisKey.of("test_list_" + i);
+                assertEquals(live.getListElements(key, 0, -1).map(List::size), image.getListElements(key, 0, -1).map(List::size));
+            }
+            assertEquals(decoded(live.getValueForKey(RedisKey.of("test_counter"))), decoded(image.getValueForKey(RedisKey.of("test_counter"))));
+        }
+    }
+
+    private static String decoded(Optional<Object> value) {
+        return value.map(bytes -> new String((byte[]) bytes, StandardCharsets.UTF_8)).orElse(null);
+    }
+}
@@ -0,0 +1,117 @@
+package unit;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
+import org.example.engine.KeyspaceShards;
+import org.example.engine.RedisRequestProcessor;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyspaceShardsTest {
+    private final RedisDatabase redisDatabase = new RedisDatabase();
+    private final KeyspaceShards keyspaceShards = new KeyspaceShards(4);
+    private final RedisRequestProcessor redisRequestProcessor = new RedisRequestProcessor(new RedisDatabases(redisDatabase), keyspaceShards);
+
+    @AfterEach
+    public void shutdown() {
+        keyspaceShards.shutdown();
+    }
+
+    private static RespArray request(String... arguments) {
+        RespArray requestArray = new RespArray();
+        for (String argument: arguments) {
+            requestArray.addElement(new BulkString(argument));
+        }
+        return requestArray;
+    }
+
+    @Test
+    public void testKeysAreSpreadOverAllShards() {
+        // setup
+        Set<Integer> shards = new HashSet<>();
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            shards.add(keyspaceShards.shardOf(("key:" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // assert
+        assertEquals(Set.of(0, 1, 2, 3), shards);
+        assertEquals(keyspaceShards.shardOf("key:1".getBytes(StandardCharsets.UTF_8)), keyspaceShards.shardOf("key:1".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testShardCountIsRoundedUpToAPowerOfTwo() {
+        // setup
+        List<KeyspaceShards> created = List.of(new KeyspaceShards(1), new KeyspaceShards(3), new KeyspaceShards(8), new KeyspaceShards(5000));
+
+        // act
+        List<Integer> sizes = created.stream().map(KeyspaceShards::size).toList();
+        created.forEach(KeyspaceShards::shutdown);
+
+        // assert
+        assertEquals(List.of(1, 4, 8, 1024), sizes);
+    }
+
+    @Test
+    public void testMultiKeyCommandsAcrossShards() {
+        // setup: 20 keys land on every shard
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add("test_shard_key_" + i);
+            redisRequestProcessor.processRequest(request("SET", keys.get(i), "value_" + i));
+        }
+        List<String> exists = new ArrayList<>(List.of("EXISTS"));
+        exists.addAll(keys);
+        exists.add("test_shard_key_missing");
+        List<String> del = new ArrayList<>(List.of("DEL"));
+        del.addAll(keys);
+
+        // act
+        RespDataType existing = redisRequestProcessor.processRequest(request(exists.toArray(new String[0])));
+        RespDataType deleted = redisRequestProcessor.processRequest(request(del.toArray(new String[0])));
+
+        // assert
+        assertEquals("20", existing.getValue());
+        assertEquals("20", deleted.getValue());
+        assertEquals(0, redisDatabase.checkKey(RedisKey.of("test_shard_key_0")));
+    }
+
+    @Test
+    public void testSingleKeyCommandsFromManyClients() throws InterruptedException {
+        // setup
+        int clients = 8;
+        int increments = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+
+        // act
+        for (int i = 0; i < clients; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < increments; j++) {
+                    redisRequestProcessor.processRequest(request("INCR", "test_shard_counter"));
+                    redisRequestProcessor.processRequest(request("RPUSH", "test_shard_list", "element"));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        // assert
+        assertEquals(Integer.toString(clients * increments), redisRequestProcessor.processRequest(request("GET", "test_shard_counter")).getValue());
+        assertEquals(Integer.toString(clients * increments), redisRequestProcessor.processRequest(request("LLEN", "test_shard_list")).getValue());
+        assertEquals("PONG", redisRequestProcessor.processRequest(request("PING")).getValue());
+    }
+}
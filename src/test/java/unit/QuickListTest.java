@@ -0,0 +1,111 @@
+package unit;
+
+import org.example.database.QuickList;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuickListTest {
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> elements) {
+        return elements.stream().map(element -> new String(element, StandardCharsets.UTF_8)).toList();
+    }
+
+    @Test
+    public void testPushAndPopAtBothEnds() {
+        // setup
+        QuickList list = new QuickList();
+
+        // act
+        for (int i = 0; i < 300; i++) {
+            list.pushHead(bytes("head_" + i));
+            list.pushTail(bytes("tail_" + i));
+        }
+
+        // assert
+        assertEquals(600, list.size());
+        assertEquals("head_299", new String(list.get(0), StandardCharsets.UTF_8));
+        assertEquals("tail_299", new String(list.get(-1), StandardCharsets.UTF_8));
+        assertEquals("head_0", new String(list.get(299), StandardCharsets.UTF_8));
+        assertEquals("tail_0", new String(list.get(300), StandardCharsets.UTF_8));
+        assertNull(list.get(600));
+        assertNull(list.get(-601));
+        for (int i = 299; i >= 0; i--) {
+            assertEquals("head_" + i, new String(list.popHead(), StandardCharsets.UTF_8));
+        }
+        for (int i = 299; i >= 0; i--) {
+            assertEquals("tail_" + i, new String(list.popTail(), StandardCharsets.UTF_8));
+        }
+        assertEquals(0, list.size());
+        assertNull(list.popHead());
+        assertNull(list.popTail());
+    }
+
+    @Test
+    public void testRandomOperationsMatchArrayList() {
+        // setup: same operations on a plain list
+        QuickList list = new QuickList();
+        List<String> expected = new ArrayList<>();
+        Random random = new Random(42);
+
+        // act + assert
+        for (int i = 0; i < 20_000; i++) {
+            String element = Integer.toString(i);
+            int size = expected.size();
+            switch (random.nextInt(7)) {
+                case 0, 1 -> {
+                    list.pushHead(bytes(element));
+                    expected.add(0, element);
+                }
+                case 2, 3 -> {
+                    list.pushTail(bytes(element));
+                    expected.add(element);
+                }
+                case 4 -> {
+                    boolean head = random.nextBoolean();
+                    byte[] popped = head ? list.popHead() : list.popTail();
+                    if (size == 0) {
+                        assertNull(popped);
+                    } else {
+                        assertEquals(expected.remove(head ? 0 : size - 1), new String(popped, StandardCharsets.UTF_8));
+                    }
+                }
+                case 5 -> {
+                    long start = random.nextInt(size + 3) - 2;
+                    long stop = random.nextInt(size + 3) - 2;
+                    assertEquals(expectedRange(expected, start, stop), strings(list.range(start, stop)));
+                }
+                default -> {
+                    if (random.nextInt(20) == 0) {
+                        long start = random.nextInt(size / 4 + 1);
+                        long stop = -1 - random.nextInt(size / 4 + 1);
+                        list.trim(start, stop);
+                        expected = new ArrayList<>(expectedRange(expected, start, stop));
+                    }
+                }
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, strings(list.range(0, -1)));
+    }
+
+    // LRANGE semantics on a plain list
+    private static List<String> expectedRange(List<String> list, long start, long stop) {
+        int size = list.size();
+        if (start < 0) {
+            start = Math.max(0, start + size);
+        }
+        if (stop < 0) {
+            stop += size;
+        }
+        stop = Math.min(stop, size - 1);
+        return start > stop ? List.of() : list.subList((int) start, (int) stop + 1);
+    }
+}
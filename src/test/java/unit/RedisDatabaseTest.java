@@ -1,27 +1,63 @@
 package unit;
 
+import org.example.database.ActiveExpireCycle;
+import org.example.database.QuickList;
 import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
 import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RedisDatabaseTest {
     // unit test works on the shared data structure, no issue with concurrency accesses.
-    private final RedisDatabase redisDatabase = RedisDatabase.getInstance();
+    private final RedisDatabase redisDatabase = new RedisDatabase();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<byte[]> bytes(List<String> values) {
+        return values.stream().map(RedisDatabaseTest::bytes).toList();
+    }
+
+    // strings and list elements are stored as byte[], decoded so they can be compared with equals
+    private static Optional<Object> decoded(Optional<?> value) {
+        return value.map(RedisDatabaseTest::decoded);
+    }
+
+    private static Object decoded(Object value) {
+        if (value instanceof QuickList list) {
+            return decoded(list.range(0, -1));
+        }
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(RedisDatabaseTest::decoded).toList();
+        }
+        return value;
+    }
 
     @Test
     public void testGetValueForNonExpiredKeyEX() {
         try {
             // setup
-            redisDatabase.setValueForKeyWithEX("test_key_setex", "test_value", "1");
+            redisDatabase.setValueForKeyWithEX(RedisKey.of("test_key_setex"), bytes("test_value"), "1");
             Thread.sleep(500);
 
             // act
-            assertNotEquals(Optional.empty(), redisDatabase.getValueForKey("test_key_setex"));
+            assertNotEquals(Optional.empty(), decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_setex"))));
 
-            Optional<?> actualValue = redisDatabase.getValueForKey("test_key_setex");
+            Optional<?> actualValue = decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_setex")));
 
             // assert
             assertEquals("test_value", actualValue.orElseThrow());
@@ -35,11 +71,11 @@ public class RedisDatabaseTest {
     public void testGetValueForKeyOnExpiredKeyEX() {
         try {
             // setup
-            redisDatabase.setValueForKeyWithEX("test_key_setex_expired", "test_value", "1");
+            redisDatabase.setValueForKeyWithEX(RedisKey.of("test_key_setex_expired"), bytes("test_value"), "1");
             Thread.sleep(1000);
 
             // act
-            Optional<?> actualValue = redisDatabase.getValueForKey("test_key_setex_expired");
+            Optional<?> actualValue = decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_setex_expired")));
 
             // assert
             assertEquals(Optional.empty(), actualValue);
@@ -53,11 +89,11 @@ public class RedisDatabaseTest {
     public void testGetValueForKeyOnExpiredKeyEAXT() {
         try {
             // setup
-            redisDatabase.setValueForKeyWithEAXT("test_key_get_eaxt_expired", "test_value", String.valueOf(Instant.now().plus(Duration.ofSeconds(1)).getEpochSecond()));
+            redisDatabase.setValueForKeyWithEAXT(RedisKey.of("test_key_get_eaxt_expired"), bytes("test_value"), String.valueOf(Instant.now().plus(Duration.ofSeconds(1)).getEpochSecond()));
             Thread.sleep(1001);
 
             // act
-            Optional<?> actualValue = redisDatabase.getValueForKey("test_key_eaxt_expired");
+            Optional<?> actualValue = decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_eaxt_expired")));
 
             // assert
             assertEquals(Optional.empty(), actualValue);
@@ -70,11 +106,11 @@ public class RedisDatabaseTest {
     public void testGetValueForKeyOnNonExpiredKeyEAXT() {
         try {
             // setup
-            redisDatabase.setValueForKeyWithEAXT("test_key_get_eaxt_non_expired", "test_value", String.valueOf(Instant.now().plus(Duration.ofSeconds(2)).getEpochSecond()));
+            redisDatabase.setValueForKeyWithEAXT(RedisKey.of("test_key_get_eaxt_non_expired"), bytes("test_value"), String.valueOf(Instant.now().plus(Duration.ofSeconds(2)).getEpochSecond()));
             Thread.sleep(500);
 
             // act
-            Optional<?> actualValue = redisDatabase.getValueForKey("test_key_get_eaxt_non_expired");
+            Optional<?> actualValue = decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_get_eaxt_non_expired")));
 
             // assert
             assertEquals("test_value", actualValue.orElseThrow());
@@ -88,11 +124,11 @@ public class RedisDatabaseTest {
     public void testGetValueForNonExpiredKeyPEX() {
         try {
             // setup
-            redisDatabase.setValueForKeyWithPEX("test_key_get_psetex_non_expired", "test_value", String.valueOf(1000));
+            redisDatabase.setValueForKeyWithPEX(RedisKey.of("test_key_get_psetex_non_expired"), bytes("test_value"), String.valueOf(1000));
             Thread.sleep(500);
 
             // act
-            Optional<?> actualValue = redisDatabase.getValueForKey("test_key_get_psetex_non_expired");
+            Optional<?> actualValue = decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_get_psetex_non_expired")));
 
             // assert
             assertEquals("test_value", actualValue.orElseThrow());
@@ -104,10 +140,10 @@ public class RedisDatabaseTest {
     @Test
     public void testIfKeyExist() {
         // setup
-        redisDatabase.setValueForKey("test_key_exists", "test_value");
+        redisDatabase.setValueForKey(RedisKey.of("test_key_exists"), bytes("test_value"));
 
         // act
-        int checkResult = redisDatabase.checkKey("test_key_exists");
+        int checkResult = redisDatabase.checkKey(RedisKey.of("test_key_exists"));
 
         // assert
         assertEquals(1, checkResult);
@@ -116,19 +152,19 @@ public class RedisDatabaseTest {
     @Test
     public void testDeleteKeysIfExist() {
         // setup
-        List<String> keysToDelete = new ArrayList<>();
-        keysToDelete.add("test_key1");
-        keysToDelete.add("test_key2");
-        redisDatabase.setValueForKey(keysToDelete.get(0), "test_value1");
-        redisDatabase.setValueForKey(keysToDelete.get(1), "test_value2");
+        List<RedisKey> keysToDelete = new ArrayList<>();
+        keysToDelete.add(RedisKey.of("test_key1"));
+        keysToDelete.add(RedisKey.of("test_key2"));
+        redisDatabase.setValueForKey(keysToDelete.get(0), bytes("test_value1"));
+        redisDatabase.setValueForKey(keysToDelete.get(1), bytes("test_value2"));
 
         // act
         int numberOfDeletedKeys = redisDatabase.deleteKeys(keysToDelete);
 
         // assert
         assertEquals(2, numberOfDeletedKeys);
-        int checkKey1 = redisDatabase.checkKey("test_key1");
-        int checkKey2 = redisDatabase.checkKey("test_key2");
+        int checkKey1 = redisDatabase.checkKey(RedisKey.of("test_key1"));
+        int checkKey2 = redisDatabase.checkKey(RedisKey.of("test_key2"));
         assertEquals(0, checkKey1);
         assertEquals(0, checkKey2);
     }
@@ -137,8 +173,8 @@ public class RedisDatabaseTest {
     public void testIncrementStoredValue() {
         try {
             // setup
-            String key = "test_key_incr_stored";
-            redisDatabase.setValueForKey(key, "0");
+            RedisKey key = RedisKey.of("test_key_incr_stored");
+            redisDatabase.setValueForKey(key, bytes("0"));
 
             // act
             Optional<String> value = redisDatabase.incrementValue(key);
@@ -154,7 +190,7 @@ public class RedisDatabaseTest {
     public void testIncrementNonStoredValue() {
         try {
             // act
-            Optional<String> value = redisDatabase.incrementValue("test_key_incr_non_stored");
+            Optional<String> value = redisDatabase.incrementValue(RedisKey.of("test_key_incr_non_stored"));
 
             // assert
             assertEquals("1", value.orElseThrow());
@@ -167,10 +203,10 @@ public class RedisDatabaseTest {
     public void testIncrementNonParsableString() {
         try {
             // setup
-            redisDatabase.setValueForKey("test_key_incr_np", "NON_PARSABLE");
+            redisDatabase.setValueForKey(RedisKey.of("test_key_incr_np"), bytes("NON_PARSABLE"));
 
             // act
-            Optional<String> value = redisDatabase.incrementValue("test_key_incr_np");
+            Optional<String> value = redisDatabase.incrementValue(RedisKey.of("test_key_incr_np"));
 
             // assert
             assertEquals("NPS", value.orElseThrow());
@@ -188,8 +224,8 @@ public class RedisDatabaseTest {
     public void testDecrementStoredValue() {
         try {
             // setup
-            String key = "test_key_decr_stored";
-            redisDatabase.setValueForKey(key, "0");
+            RedisKey key = RedisKey.of("test_key_decr_stored");
+            redisDatabase.setValueForKey(key, bytes("0"));
 
             // act
             Optional<String> value = redisDatabase.decrementValue(key);
@@ -204,7 +240,7 @@ public class RedisDatabaseTest {
     @Test
     public void testDecrementNonStoredValue() {
         // act
-        Optional<String> value = redisDatabase.decrementValue("test_key_decr_non_stored");
+        Optional<String> value = redisDatabase.decrementValue(RedisKey.of("test_key_decr_non_stored"));
 
         // assert
         value.ifPresent(s -> assertEquals("-1", s));
@@ -213,10 +249,10 @@ public class RedisDatabaseTest {
     @Test
     public void testDecrementNonParsableString() {
         // setup
-        redisDatabase.setValueForKey("test_key_decr_np", "NON_PARSABLE");
+        redisDatabase.setValueForKey(RedisKey.of("test_key_decr_np"), bytes("NON_PARSABLE"));
 
         // act
-        Optional<String> value = redisDatabase.decrementValue("test_key_decr_np");
+        Optional<String> value = redisDatabase.decrementValue(RedisKey.of("test_key_decr_np"));
 
         // assert
         value.ifPresent(s -> assertEquals("NPS", s));
@@ -233,10 +269,10 @@ public class RedisDatabaseTest {
             // setup + act
             ArrayList<String> expectedValue = new ArrayList<>();
             expectedValue.add("test_value");
-            redisDatabase.headPushToList("test_list_key_non_existing", Collections.singletonList("test_value"));
+            redisDatabase.headPushToList(RedisKey.of("test_list_key_non_existing"), List.of(bytes("test_value")));
 
             // assert
-            Optional<?> list = redisDatabase.getValueForKey("test_list_key_non_existing");
+            Optional<?> list = decoded(redisDatabase.getValueForKey(RedisKey.of("test_list_key_non_existing")));
 
             assertEquals(expectedValue, list.orElseThrow());
 
@@ -248,15 +284,15 @@ public class RedisDatabaseTest {
     @Test
     public void testPushElementToHeadOfListWithExistingKey() {
         try {
-            // setup + act
+            // setup + act: the element pushed last is the head
             ArrayList<String> expectedValue = new ArrayList<>();
-            expectedValue.add("test_value_0");
             expectedValue.add("test_value_1");
-            redisDatabase.headPushToList("test_list_key_existing", Collections.singletonList("test_value_0"));
-            redisDatabase.headPushToList("test_list_key_existing", Collections.singletonList("test_value_1"));
+            expectedValue.add("test_value_0");
+            redisDatabase.headPushToList(RedisKey.of("test_list_key_existing"), List.of(bytes("test_value_0")));
+            redisDatabase.headPushToList(RedisKey.of("test_list_key_existing"), List.of(bytes("test_value_1")));
 
             // act
-            Optional<?> list = redisDatabase.getValueForKey("test_list_key_existing");
+            Optional<?> list = decoded(redisDatabase.getValueForKey(RedisKey.of("test_list_key_existing")));
 
             // assert
             assertEquals(expectedValue, list.orElseThrow());
@@ -269,10 +305,10 @@ public class RedisDatabaseTest {
     public void testPushElementToHeadOfListNotAList() {
         try {
             // setup
-            redisDatabase.setValueForKey("test_list_not_a_list", "test_value");
+            redisDatabase.setValueForKey(RedisKey.of("test_list_not_a_list"), bytes("test_value"));
 
             // act
-            Optional<String> opResult = redisDatabase.headPushToList("test_list_not_a_list", Collections.singletonList("test_value_1"));
+            Optional<String> opResult = redisDatabase.headPushToList(RedisKey.of("test_list_not_a_list"), List.of(bytes("test_value_1")));
 
             // assert
             assertEquals("NAL", opResult.orElseThrow());
@@ -297,8 +333,8 @@ public class RedisDatabaseTest {
             valuesToAdd.add("test_value_2");
 
             // act
-            redisDatabase.headPushToList("test_hlist_multiple_elements", valuesToAdd);
-            Optional<?> list = redisDatabase.getValueForKey("test_hlist_multiple_elements");
+            redisDatabase.headPushToList(RedisKey.of("test_hlist_multiple_elements"), bytes(valuesToAdd));
+            Optional<?> list = decoded(redisDatabase.getValueForKey(RedisKey.of("test_hlist_multiple_elements")));
 
             // assert
             assertEquals(expectedList, list.orElseThrow());
@@ -322,8 +358,8 @@ public class RedisDatabaseTest {
             valuesToAdd.add("test_value_2");
 
             // act
-            redisDatabase.tailPushToList("test_tlist_multiple_elements", valuesToAdd);
-            Optional<?> list = redisDatabase.getValueForKey("test_tlist_multiple_elements");
+            redisDatabase.tailPushToList(RedisKey.of("test_tlist_multiple_elements"), bytes(valuesToAdd));
+            Optional<?> list = decoded(redisDatabase.getValueForKey(RedisKey.of("test_tlist_multiple_elements")));
 
             // assert
             assertEquals(expectedList, list.orElseThrow());
@@ -342,7 +378,7 @@ public class RedisDatabaseTest {
             initialValues.add("value_2");
             initialValues.add("value_3");
             initialValues.add("value_4");
-            String key = "test_lrange_positive";
+            RedisKey key = RedisKey.of("test_lrange_positive");
             int startIndex = 1;
             int endIndex = 4;
             List<String> expectedValues = new ArrayList<>();
@@ -350,10 +386,10 @@ public class RedisDatabaseTest {
             expectedValues.add("value_2");
             expectedValues.add("value_3");
             expectedValues.add("value_4");
-            redisDatabase.tailPushToList(key, initialValues);
+            redisDatabase.tailPushToList(key, bytes(initialValues));
 
             // act
-            Optional<List<String>> actualValues = redisDatabase.getListElements(key, startIndex, endIndex);
+            Optional<Object> actualValues = decoded(redisDatabase.getListElements(key, startIndex, endIndex));
 
             // assert
             assertEquals(expectedValues, actualValues.orElseThrow());
@@ -373,7 +409,7 @@ public class RedisDatabaseTest {
             initialValues.add("value_2");
             initialValues.add("value_3");
             initialValues.add("value_4");
-            String key = "test_lrange_negative";
+            RedisKey key = RedisKey.of("test_lrange_negative");
             int startIndex = -4;
             int endIndex = -1;
             List<String> expectedValues = new ArrayList<>();
@@ -381,10 +417,10 @@ public class RedisDatabaseTest {
             expectedValues.add("value_2");
             expectedValues.add("value_3");
             expectedValues.add("value_4");
-            redisDatabase.tailPushToList(key, initialValues);
+            redisDatabase.tailPushToList(key, bytes(initialValues));
 
             // act
-            Optional<List<String>> actualValues = redisDatabase.getListElements(key, startIndex, endIndex);
+            Optional<Object> actualValues = decoded(redisDatabase.getListElements(key, startIndex, endIndex));
 
             // assert
             assertEquals(expectedValues, actualValues.orElseThrow());
@@ -403,14 +439,14 @@ public class RedisDatabaseTest {
             initialValues.add("value_2");
             initialValues.add("value_3");
             initialValues.add("value_4");
-            String key = "test_lrange_start_index_greater";
+            RedisKey key = RedisKey.of("test_lrange_start_index_greater");
             int startIndex = 5;
             int endIndex = 4;
             List<String> expectedValues = new ArrayList<>();
-            redisDatabase.tailPushToList(key, initialValues);
+            redisDatabase.tailPushToList(key, bytes(initialValues));
 
             // act
-            Optional<List<String>> actualValues = redisDatabase.getListElements(key, startIndex, endIndex);
+            Optional<Object> actualValues = decoded(redisDatabase.getListElements(key, startIndex, endIndex));
 
             // assert
             assertEquals(expectedValues, actualValues.orElseThrow());
@@ -429,7 +465,7 @@ public class RedisDatabaseTest {
             initialValues.add("value_2");
             initialValues.add("value_3");
             initialValues.add("value_4");
-            String key = "test_lrange_endindex_greater";
+            RedisKey key = RedisKey.of("test_lrange_endindex_greater");
             int startIndex = 1;
             int endIndex = 5;
             List<String> expectedValues = new ArrayList<>();
@@ -437,10 +473,10 @@ public class RedisDatabaseTest {
             expectedValues.add("value_2");
             expectedValues.add("value_3");
             expectedValues.add("value_4");
-            redisDatabase.tailPushToList(key, initialValues);
+            redisDatabase.tailPushToList(key, bytes(initialValues));
 
             // act
-            Optional<List<String>> actualValues = redisDatabase.getListElements(key, startIndex, endIndex);
+            Optional<Object> actualValues = decoded(redisDatabase.getListElements(key, startIndex, endIndex));
 
             // assert
             assertEquals(expectedValues, actualValues.orElseThrow());
@@ -453,12 +489,12 @@ public class RedisDatabaseTest {
     public void testGetSublistOfNonExistingKey() {
         try {
             // setup
-            String key = "test_lrange_missing_key";
+            RedisKey key = RedisKey.of("test_lrange_missing_key");
             int startIndex = 1;
             int endIndex = 5;
 
             // act
-            Optional<List<String>> actualValues = redisDatabase.getListElements(key, startIndex, endIndex);
+            Optional<Object> actualValues = decoded(redisDatabase.getListElements(key, startIndex, endIndex));
 
             // assert
             assertEquals(Optional.empty(), actualValues);
@@ -471,13 +507,13 @@ public class RedisDatabaseTest {
     public void testGetSublistOfNonListValue() {
         try {
             // setup
-            String key = "test_lrange_nonlist_value";
+            RedisKey key = RedisKey.of("test_lrange_nonlist_value");
             int startIndex = 1;
             int endIndex = 5;
-            redisDatabase.setValueForKey(key, "value");
+            redisDatabase.setValueForKey(key, bytes("value"));
 
             // act
-            Optional<List<String>> actualValues = redisDatabase.getListElements(key, startIndex, endIndex);
+            Optional<Object> actualValues = decoded(redisDatabase.getListElements(key, startIndex, endIndex));
 
             // assert
             assertEquals(Optional.empty(), actualValues);
@@ -485,4 +521,390 @@ public class RedisDatabaseTest {
             fail(e.getCause());
         }
     }
+
+    @Test
+    public void testActiveExpireCycleDeletesExpiredKeysNeverRead() {
+        try {
+            // setup
+            for (int i = 0; i < 500; i++) {
+                redisDatabase.setValueForKeyWithPEX(RedisKey.of("test_active_expire_" + i), bytes("test_value"), "50");
+            }
+            redisDatabase.setValueForKeyWithEX(RedisKey.of("test_active_expire_live"), bytes("test_value"), "60");
+            redisDatabase.setValueForKeyWithPEX(RedisKey.of("test_active_expire_persisted"), bytes("test_value"), "50");
+            redisDatabase.setValueForKey(RedisKey.of("test_active_expire_persisted"), bytes("test_value"));
+            Thread.sleep(100);
+            ActiveExpireCycle activeExpireCycle = new ActiveExpireCycle(new RedisDatabases(redisDatabase), 10);
+
+            // act
+            for (int cycle = 0; cycle < 100; cycle++) {
+                activeExpireCycle.run();
+            }
+
+            // assert
+            for (int i = 0; i < 500; i++) {
+                assertEquals(0, redisDatabase.checkKey(RedisKey.of("test_active_expire_" + i)));
+            }
+            assertEquals(1, redisDatabase.checkKey(RedisKey.of("test_active_expire_live")));
+            assertEquals(1, redisDatabase.checkKey(RedisKey.of("test_active_expire_persisted")));
+        } catch (InterruptedException e) {
+            fail(e.getCause());
+        }
+    }
+
+    @Test
+    public void testSetDeadlineAndTimeToLive() {
+        // setup
+        RedisKey key = RedisKey.of("test_deadline");
+        redisDatabase.setValueForKey(key, bytes("test_value"));
+
+        // act
+        long withoutTimer = redisDatabase.getTimeToLive(key);
+        int updated = redisDatabase.setDeadline(key, System.currentTimeMillis() + 10_000);
+        long withTimer = redisDatabase.getTimeToLive(key);
+        int missing = redisDatabase.setDeadline(RedisKey.of("test_deadline_missing"), System.currentTimeMillis() + 10_000);
+
+        // assert
+        assertEquals(-1, withoutTimer);
+        assertEquals(1, updated);
+        assertTrue(withTimer > 9_000 && withTimer <= 10_000);
+        assertEquals(0, missing);
+        assertEquals(-2, redisDatabase.getTimeToLive(RedisKey.of("test_deadline_missing")));
+    }
+
+    @Test
+    public void testSetDeadlineInThePastDeletesKey() {
+        // setup
+        RedisKey key = RedisKey.of("test_deadline_past");
+        redisDatabase.setValueForKeyWithEX(key, bytes("test_value"), "100");
+
+        // act
+        int updated = redisDatabase.setDeadline(key, System.currentTimeMillis() - 1);
+
+        // assert
+        assertEquals(1, updated);
+        assertEquals(0, redisDatabase.checkKey(key));
+    }
+
+    @Test
+    public void testRemoveDeadline() {
+        // setup
+        RedisKey key = RedisKey.of("test_remove_deadline");
+        redisDatabase.setValueForKeyWithPEX(key, bytes("test_value"), "100");
+
+        // act
+        int removed = redisDatabase.removeDeadline(key);
+        int removedAgain = redisDatabase.removeDeadline(key);
+
+        // assert
+        assertEquals(1, removed);
+        assertEquals(0, removedAgain);
+        assertEquals(-1, redisDatabase.getTimeToLive(key));
+    }
+
+    @Test
+    public void testGetValueForKeyAndSetDeadline() {
+        // setup
+        RedisKey key = RedisKey.of("test_get_and_set_deadline");
+        redisDatabase.setValueForKey(key, bytes("test_value"));
+
+        // act
+        Optional<Object> value = decoded(redisDatabase.getValueForKeyAndSetDeadline(key, System.currentTimeMillis() + 10_000));
+        Optional<Object> missing = decoded(redisDatabase.getValueForKeyAndSetDeadline(RedisKey.of("test_get_and_set_deadline_missing"), System.currentTimeMillis() + 10_000));
+
+        // assert
+        assertEquals("test_value", value.orElseThrow());
+        assertTrue(redisDatabase.getTimeToLive(key) > 9_000);
+        assertEquals(Optional.empty(), missing);
+    }
+
+    @Test
+    public void testGetValueForKeyAndSetDeadlineLeavesOtherTypesUnchanged() {
+        // setup
+        RedisKey key = RedisKey.of("test_get_and_set_deadline_list");
+        redisDatabase.tailPushToList(key, List.of(bytes("a")));
+
+        // act
+        Optional<Object> value = redisDatabase.getValueForKeyAndSetDeadline(key, System.currentTimeMillis() + 10_000);
+
+        // assert
+        assertEquals(Optional.of("NAS"), value);
+        assertEquals(-1, redisDatabase.getTimeToLive(key));
+    }
+
+    @Test
+    public void testExpiredKeyIsNeitherCountedByExistsNorByDel() throws InterruptedException {
+        // setup: deadline passed, the key is still in the keyspace
+        RedisKey existing = RedisKey.of("test_expired_exists");
+        RedisKey deleted = RedisKey.of("test_expired_del");
+        redisDatabase.setValueForKeyWithPEX(existing, bytes("value"), "1");
+        redisDatabase.setValueForKeyWithPEX(deleted, bytes("value"), "1");
+        Thread.sleep(20);
+
+        // act
+        int exists = redisDatabase.checkKey(existing);
+        int removed = redisDatabase.deleteKeys(List.of(deleted));
+
+        // assert
+        assertEquals(0, exists);
+        assertEquals(0, removed);
+        assertEquals(0, redisDatabase.size());
+    }
+
+    @Test
+    public void testConcurrentIncrementsAreNotLost() throws InterruptedException {
+        // setup
+        RedisKey key = RedisKey.of("test_key_incr_concurrent");
+        redisDatabase.setValueForKey(key, bytes("100"));
+        int threads = 8;
+        int increments = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // act
+        for (int i = 0; i < threads; i++) {
+            boolean decrement = i % 4 == 0;
+            executor.execute(() -> {
+                for (int j = 0; j < increments; j++) {
+                    if (decrement) {
+                        redisDatabase.decrementValue(key);
+                    } else {
+                        redisDatabase.incrementValueBy(key, 2);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // assert: 6 threads add 2, 2 threads subtract 1
+        assertEquals(Optional.of(Long.toString(100L + 6 * 2 * increments - 2 * increments)), decoded(redisDatabase.getValueForKey(key)));
+    }
+
+    @Test
+    public void testIncrementByBeyondIntegerRangeAndOverflow() {
+        // setup
+        RedisKey key = RedisKey.of("test_key_incrby_long");
+        redisDatabase.setValueForKey(key, bytes("2147483647"));
+
+        // act
+        Optional<String> value = redisDatabase.incrementValueBy(key, 1);
+        redisDatabase.incrementValueBy(key, Long.MAX_VALUE - 2147483648L);
+        Optional<String> overflow = redisDatabase.incrementValueBy(key, 1);
+
+        // assert
+        assertEquals("2147483648", value.orElseThrow());
+        assertEquals("OVF", overflow.orElseThrow());
+        assertEquals(Optional.of(Long.toString(Long.MAX_VALUE)), decoded(redisDatabase.getValueForKey(key)));
+    }
+
+    @Test
+    public void testIncrementKeepsTimer() {
+        // setup
+        RedisKey key = RedisKey.of("test_key_incr_timer");
+        redisDatabase.setValueForKeyWithEX(key, bytes("1"), "100");
+
+        // act
+        redisDatabase.incrementValue(key);
+
+        // assert
+        assertTrue(redisDatabase.getTimeToLive(key) > 99_000);
+        assertEquals(Optional.of("2"), decoded(redisDatabase.getValueForKey(key)));
+    }
+
+    @Test
+    public void testIncrementValueByFloat() {
+        // setup
+        RedisKey key = RedisKey.of("test_key_incrbyfloat");
+        redisDatabase.setValueForKey(key, bytes("10.50"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_incrbyfloat_np"), bytes("NON_PARSABLE"));
+
+        // act
+        Optional<String> value = redisDatabase.incrementValueByFloat(key, new BigDecimal("0.1"));
+        Optional<String> integral = redisDatabase.incrementValueByFloat(key, new BigDecimal("-5.6"));
+        Optional<String> nonParsable = redisDatabase.incrementValueByFloat(RedisKey.of("test_key_incrbyfloat_np"), BigDecimal.ONE);
+
+        // assert
+        assertEquals("10.6", value.orElseThrow());
+        assertEquals("5", integral.orElseThrow());
+        assertEquals("NPS", nonParsable.orElseThrow());
+        assertEquals("6", redisDatabase.incrementValue(key).orElseThrow());
+    }
+
+    @Test
+    public void testIncrementValueByFloatStaysInTheLongDoubleRange() {
+        // setup
+        RedisKey key = RedisKey.of("test_key_incrbyfloat_range");
+        redisDatabase.setValueForKey(key, bytes("1.5"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_incrbyfloat_huge"), bytes("1e100000000"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_incrbyfloat_max"), bytes("1.1e4932"));
+
+        // act
+        Optional<String> huge = redisDatabase.incrementValueByFloat(key, new BigDecimal("1e100000000"));
+        Optional<String> overflowing = redisDatabase.incrementValueByFloat(RedisKey.of("test_key_incrbyfloat_max"), new BigDecimal("1e4931"));
+        Optional<String> tiny = redisDatabase.incrementValueByFloat(key, new BigDecimal("1e-100000000"));
+        Optional<String> rounded = redisDatabase.incrementValueByFloat(key, new BigDecimal("0.1234567890123456789"));
+        Optional<String> hugeValue = redisDatabase.incrementValueByFloat(RedisKey.of("test_key_incrbyfloat_huge"), BigDecimal.ONE);
+
+        // assert
+        assertEquals("INF", huge.orElseThrow());
+        assertEquals("1.5", tiny.orElseThrow());
+        assertEquals("INF", overflowing.orElseThrow());
+        assertEquals("1.6234567890123457", rounded.orElseThrow());
+        assertEquals("NPS", hugeValue.orElseThrow());
+    }
+
+    @Test
+    public void testStringEncodings() {
+        // setup
+        redisDatabase.setValueForKey(RedisKey.of("test_key_enc_int"), bytes("-12345"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_enc_zero"), bytes("007"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_enc_big"), bytes("9223372036854775808"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_enc_emb"), bytes("héllo"));
+        redisDatabase.setValueForKey(RedisKey.of("test_key_enc_raw"), bytes("x".repeat(45)));
+
+        // act
+        Optional<String> integer = redisDatabase.getEncoding(RedisKey.of("test_key_enc_int"));
+        Optional<String> leadingZero = redisDatabase.getEncoding(RedisKey.of("test_key_enc_zero"));
+        Optional<String> beyondLong = redisDatabase.getEncoding(RedisKey.of("test_key_enc_big"));
+        Optional<String> embedded = redisDatabase.getEncoding(RedisKey.of("test_key_enc_emb"));
+        Optional<String> raw = redisDatabase.getEncoding(RedisKey.of("test_key_enc_raw"));
+
+        // assert
+        assertEquals(Optional.of("int"), integer);
+        assertEquals(Optional.of("embstr"), leadingZero);
+        assertEquals(Optional.of("embstr"), beyondLong);
+        assertEquals(Optional.of("embstr"), embedded);
+        assertEquals(Optional.of("raw"), raw);
+        assertEquals(Optional.empty(), redisDatabase.getEncoding(RedisKey.of("test_key_enc_missing")));
+        assertEquals(Optional.of("-12345"), decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_enc_int"))));
+        assertEquals(Optional.of("007"), decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_enc_zero"))));
+        assertEquals(Optional.of("héllo"), decoded(redisDatabase.getValueForKey(RedisKey.of("test_key_enc_emb"))));
+    }
+
+    @Test
+    public void testBinaryKeysAndValues() {
+        // setup: invalid UTF-8, both would decode to the same replacement character
+        RedisKey key = new RedisKey(new byte[]{'k', (byte) 0xff, 0});
+        RedisKey otherKey = new RedisKey(new byte[]{'k', (byte) 0xfe, 0});
+        byte[] value = {(byte) 0xc3, 0, (byte) 0x80};
+
+        // act
+        redisDatabase.setValueForKey(key, value);
+
+        // assert
+        assertEquals(new RedisKey(new byte[]{'k', (byte) 0xff, 0}), key);
+        assertArrayEquals(value, (byte[]) redisDatabase.getValueForKey(key).orElseThrow());
+        assertEquals(0, redisDatabase.checkKey(otherKey));
+    }
+
+    @Test
+    public void testPopFromBothEndsAndDeleteEmptyList() {
+        // setup
+        RedisKey key = RedisKey.of("test_list_pop");
+        redisDatabase.tailPushToList(key, bytes(List.of("value_1", "value_2", "value_3")));
+        redisDatabase.headPushToList(key, bytes(List.of("value_0")));
+
+        // act
+        Optional<Object> head = decoded(redisDatabase.popFromList(key, true, 1));
+        Optional<Object> tail = decoded(redisDatabase.popFromList(key, false, 5));
+        Optional<Object> missing = redisDatabase.popFromList(key, true, 1);
+
+        // assert
+        assertEquals(List.of("value_0"), head.orElseThrow());
+        assertEquals(List.of("value_3", "value_2", "value_1"), tail.orElseThrow());
+        assertEquals(Optional.empty(), missing);
+        assertEquals(0, redisDatabase.checkKey(key));
+    }
+
+    @Test
+    public void testListLengthIndexAndTrim() {
+        // setup
+        RedisKey key = RedisKey.of("test_list_trim");
+        redisDatabase.setValueForKey(RedisKey.of("test_list_trim_string"), bytes("value"));
+        for (int i = 0; i < 1000; i++) {
+            redisDatabase.tailPushToList(key, List.of(bytes("value_" + i)));
+        }
+
+        // act
+        Optional<String> length = redisDatabase.getListLength(key);
+        Optional<Object> last = decoded(redisDatabase.getListElement(key, -1));
+        Optional<Object> outOfRange = redisDatabase.getListElement(key, 1000);
+        redisDatabase.trimList(key, 200, -301);
+
+        // assert
+        assertEquals("1000", length.orElseThrow());
+        assertEquals("value_999", last.orElseThrow());
+        assertEquals(Optional.empty(), outOfRange);
+        assertEquals("500", redisDatabase.getListLength(key).orElseThrow());
+        assertEquals("value_200", decoded(redisDatabase.getListElement(key, 0)).orElseThrow());
+        assertEquals("value_699", decoded(redisDatabase.getListElement(key, -1)).orElseThrow());
+        assertEquals("0", redisDatabase.getListLength(RedisKey.of("test_list_trim_missing")).orElseThrow());
+        assertEquals("NAL", redisDatabase.getListLength(RedisKey.of("test_list_trim_string")).orElseThrow());
+        assertEquals("NAL", redisDatabase.trimList(RedisKey.of("test_list_trim_string"), 0, 1).orElseThrow());
+        redisDatabase.trimList(key, 5, 1);
+        assertEquals(0, redisDatabase.checkKey(key));
+    }
+
+    @Test
+    public void testConcurrentPushesAndRangesOnTheSameList() throws InterruptedException {
+        // setup: half of the writers push at the head, half at the tail, readers scan the whole list meanwhile
+        RedisKey key = RedisKey.of("test_list_concurrent");
+        int writers = 8;
+        int readers = 4;
+        int pushes = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger(writers);
+
+        // act
+        for (int i = 0; i < writers; i++) {
+            int writer = i;
+            executor.execute(() -> {
+                try {
+                    for (int j = 0; j < pushes; j++) {
+                        List<byte[]> element = List.of(bytes(writer + ":" + j));
+                        if (writer % 2 == 0) {
+                            redisDatabase.headPushToList(key, element);
+                        } else {
+                            redisDatabase.tailPushToList(key, element);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+        for (int i = 0; i < readers; i++) {
+            executor.execute(() -> {
+                try {
+                    while (running.get() > 0) {
+                        redisDatabase.getListElements(key, 0, -1).ifPresent(elements -> elements.forEach(Objects::requireNonNull));
+                        redisDatabase.getListElements(key, -10, -1);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        // assert: nothing lost, and every writer's elements kept in push order
+        assertEquals(List.of(), failures);
+        assertEquals(Integer.toString(writers * pushes), redisDatabase.getListLength(key).orElseThrow());
+        int[] next = new int[writers];
+        Arrays.fill(next, -1);
+        for (Object element: (List<?>) decoded(redisDatabase.getListElements(key, 0, -1)).orElseThrow()) {
+            String[] writerAndIndex = ((String) element).split(":");
+            int writer = Integer.parseInt(writerAndIndex[0]);
+            int index = Integer.parseInt(writerAndIndex[1]);
+            if (writer % 2 == 0) {
+                assertEquals(next[writer] == -1 ? pushes - 1 : next[writer] - 1, index);
+            } else {
+                assertEquals(next[writer] + 1, index);
+            }
+            next[writer] = index;
+        }
+    }
 }
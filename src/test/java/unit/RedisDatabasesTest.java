@@ -0,0 +1,479 @@
+package unit;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
+import org.example.engine.RedisRequestProcessor;
+import org.example.resp_types.RespDataType;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.example.resp_types.errors.SimpleError;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamConstants;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisDatabasesTest {
+    @TempDir
+    Path directory;
+    private RedisDatabases redisDatabases;
+
+    @BeforeEach
+    public void createDatabases() {
+        redisDatabases = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+    }
+
+    private static RespArray request(String... arguments) {
+        RespArray requestArray = new RespArray();
+        for (String argument: arguments) {
+            requestArray.addElement(new BulkString(argument));
+        }
+        return requestArray;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testEachClientKeepsItsSelectedDatabase() {
+        // setup
+        RedisRequestProcessor first = new RedisRequestProcessor(redisDatabases, null);
+        RedisRequestProcessor second = new RedisRequestProcessor(redisDatabases, null);
+
+        // act
+        RespDataType selected = first.processRequest(request("SELECT", "2"));
+        first.processRequest(request("SET", "test_select", "in_2"));
+        second.processRequest(request("SET", "test_select", "in_0"));
+        RespDataType outOfRange = first.processRequest(request("SELECT", "4"));
+        RespDataType notANumber = first.processRequest(request("SELECT", "two"));
+
+        // assert
+        assertEquals("OK", selected.getValue());
+        assertEquals("in_2", first.processRequest(request("GET", "test_select")).getValue());
+        assertEquals("in_0", second.processRequest(request("GET", "test_select")).getValue());
+        assertEquals("1", first.processRequest(request("DBSIZE")).getValue());
+        assertEquals(0, redisDatabases.get(1).size());
+        assertInstanceOf(SimpleError.class, outOfRange);
+        assertInstanceOf(SimpleError.class, notANumber);
+    }
+
+    @Test
+    public void testSwapDBSwitchesTheKeysOfConnectedClients() {
+        // setup
+        RedisDatabase database0 = redisDatabases.get(0);
+        RedisDatabase database1 = redisDatabases.get(1);
+        database0.setValueForKey(RedisKey.of("test_swap"), bytes("in_0"));
+        database1.setValueForKey(RedisKey.of("test_swap"), bytes("in_1"));
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+
+        // act
+        RespDataType swapped = client.processRequest(request("SWAPDB", "0", "1"));
+
+        // assert
+        assertEquals("OK", swapped.getValue());
+        assertSame(database1, redisDatabases.get(0));
+        assertSame(database0, redisDatabases.get(1));
+        assertEquals("in_1", client.processRequest(request("GET", "test_swap")).getValue());
+        assertInstanceOf(SimpleError.class, client.processRequest(request("SWAPDB", "0", "9")));
+    }
+
+    @Test
+    public void testFlushDBReplacesTheDatabaseAndReclaimsTheOldOne() throws InterruptedException {
+        // setup
+        RedisDatabase flushed = redisDatabases.get(0);
+        for (int i = 0; i < 100_000; i++) {
+            flushed.setValueForKeyWithEX(RedisKey.of("test_flush_" + i), bytes("value"), "100");
+        }
+        redisDatabases.get(1).setValueForKey(RedisKey.of("test_flush_other"), bytes("value"));
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+
+        // act
+        RespDataType reply = client.processRequest(request("FLUSHDB"));
+
+        // assert: the client sees an empty database right away, the old one is emptied in the background
+        assertEquals("OK", reply.getValue());
+        assertNotSame(flushed, redisDatabases.get(0));
+        assertEquals("0", client.processRequest(request("DBSIZE")).getValue());
+        for (int attempt = 0; attempt < 100 && flushed.size() > 0; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, flushed.size());
+        assertEquals(1, redisDatabases.get(1).size());
+        assertInstanceOf(SimpleError.class, client.processRequest(request("FLUSHDB", "LATER")));
+    }
+
+    @Test
+    public void testFlushAllEmptiesEveryDatabase() {
+        // setup
+        for (int i = 0; i < redisDatabases.count(); i++) {
+            redisDatabases.get(i).setValueForKey(RedisKey.of("test_flush_all"), bytes("value"));
+        }
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+
+        // act
+        RespDataType reply = client.processRequest(request("FLUSHALL", "SYNC"));
+
+        // assert
+        assertEquals("OK", reply.getValue());
+        assertEquals(0, redisDatabases.size());
+    }
+
+    @Test
+    public void testBackgroundSaveIsAPointInTimeImage() throws InterruptedException {
+        // setup
+        RedisDatabase database0 = redisDatabases.get(0);
+        for (int i = 0; i < 200_000; i++) {
+            database0.setValueForKey(RedisKey.of("test_bgsave_" + i), bytes("before"));
+        }
+        database0.incrementValueBy(RedisKey.of("test_bgsave_counter"), 10);
+        database0.tailPushToList(RedisKey.of("test_bgsave_list"), List.of(bytes("a"), bytes("b")));
+        redisDatabases.get(3).setValueForKey(RedisKey.of("test_bgsave_other"), bytes("before"));
+        RedisRequestProcessor client = new RedisRequestProcessor(redisDatabases, null);
+        long lastSave = redisDatabases.getLastSave();
+
+        // act: every write below comes after the snapshot started
+        RespDataType started = client.processRequest(request("BGSAVE"));
+        RespDataType second = client.processRequest(request("BGSAVE"));
+        for (int i = 199_999; i >= 0; i -= 2) {
+            database0.setValueForKey(RedisKey.of("test_bgsave_" + i), bytes("after"));
+            database0.deleteKeys(List.of(RedisKey.of("test_bgsave_" + (i - 1))));
+        }
+        database0.incrementValueBy(RedisKey.of("test_bgsave_counter"), 5);
+        database0.tailPushToList(RedisKey.of("test_bgsave_list"), List.of(bytes("c")));
+        database0.setValueForKey(RedisKey.of("test_bgsave_new"), bytes("after"));
+        redisDatabases.flush(3, false);
+        while (redisDatabases.isSaving()) {
+            Thread.sleep(10);
+        }
+        RedisDatabases loaded = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+        boolean initialized = loaded.initializeDatabases();
+
+        // assert
+        assertTrue(initialized);
+        assertEquals("Background saving started", started.getValue());
+        assertInstanceOf(SimpleError.class, second);
+        assertTrue(redisDatabases.getLastSave() >= lastSave);
+        RedisDatabase image = loaded.get(0);
+        assertEquals(200_002, image.size());
+        for (int i = 0; i < 200_000; i++) {
+            assertEquals("before", decoded(image.getValueForKey(RedisKey.of("test_bgsave_" + i))));
+        }
+        assertEquals("10", decoded(image.getValueForKey(RedisKey.of("test_bgsave_counter"))));
+        assertEquals(List.of("a", "b"), image.getListElements(RedisKey.of("test_bgsave_list"), 0, -1).orElseThrow().stream().map(String::new).toList());
+        assertEquals(1, loaded.get(3).size());
+        assertEquals("15", decoded(database0.getValueForKey(RedisKey.of("test_bgsave_counter"))));
+    }
+
+    @Test
+    public void testSnapshotRoundTripKeepsTypesDeadlinesAndDatabases() throws IOException {
+        // setup
+        RedisDatabase database0 = redisDatabases.get(0);
+        database0.setValueForKey(RedisKey.of("test_string"), bytes("value"));
+        database0.setValueForKey(RedisKey.of("test_big_string"), new byte[3 << 20]);
+        database0.setValueForKey(RedisKey.of("test_counter"), bytes("-9223372036854775808"));
+        database0.setValueForKeyWithEX(RedisKey.of("test_timer"), bytes("value"), "1000");
+        database0.setValueForKeyWithPEX(RedisKey.of("test_expired"), bytes("value"), "1");
+        List<byte[]> elements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            elements.add(bytes("element_" + i));
+        }
+        database0.tailPushToList(RedisKey.of("test_list"), elements);
+        byte[] binary = {0, (byte) 0xff, '\r', '\n'};
+        redisDatabases.get(2).setValueForKey(new RedisKey(binary), binary);
+        long deadline = System.currentTimeMillis() + 1000 * 1000;
+        sleep(5);
+
+        // act
+        boolean saved = redisDatabases.saveToDisk();
+        RedisDatabases loaded = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+        boolean initialized = loaded.initializeDatabases();
+
+        // assert
+        assertTrue(saved);
+        assertTrue(initialized);
+        RedisDatabase image = loaded.get(0);
+        assertEquals(5, image.size());
+        assertEquals("value", decoded(image.getValueForKey(RedisKey.of("test_string"))));
+        assertEquals(3 << 20, ((byte[]) image.getValueForKey(RedisKey.of("test_big_string")).orElseThrow()).length);
+        assertEquals(Optional.of("int"), image.getEncoding(RedisKey.of("test_counter")));
+        assertEquals("-9223372036854775808", decoded(image.getValueForKey(RedisKey.of("test_counter"))));
+        assertTrue(Math.abs(deadline - System.currentTimeMillis() - image.getTimeToLive(RedisKey.of("test_timer"))) < 1000);
+        assertEquals(-1, image.getTimeToLive(RedisKey.of("test_string")));
+        assertEquals(1000, image.getListElements(RedisKey.of("test_list"), 0, -1).orElseThrow().size());
+        assertEquals("element_999", new String((byte[]) image.getListElement(RedisKey.of("test_list"), -1).orElseThrow(), StandardCharsets.UTF_8));
+        assertArrayEquals(binary, (byte[]) loaded.get(2).getValueForKey(new RedisKey(binary)).orElseThrow());
+        assertTrue(Files.readString(directory.resolve("dump.rdb"), StandardCharsets.ISO_8859_1).startsWith("JREDIS0002"));
+    }
+
+    @Test
+    public void testCorruptOrTruncatedSnapshotIsNotLoaded() throws IOException {
+        // setup
+        for (int i = 0; i < 10_000; i++) {
+            redisDatabases.get(0).setValueForKey(RedisKey.of("test_corrupt_" + i), bytes("value_" + i));
+        }
+        redisDatabases.saveToDisk();
+        Path file = directory.resolve("dump.rdb");
+        byte[] snapshot = Files.readAllBytes(file);
+        byte[] flipped = snapshot.clone();
+        flipped[snapshot.length / 2] ^= 1;
+        RedisDatabases loaded = new RedisDatabases(4, file.toString());
+
+        // act + assert
+        Files.write(file, flipped);
+        assertFalse(loaded.initializeDatabases());
+        Files.write(file, Arrays.copyOf(snapshot, snapshot.length - 5));
+        assertFalse(new RedisDatabases(4, file.toString()).initializeDatabases());
+        Files.write(file, snapshot);
+        assertTrue(new RedisDatabases(4, file.toString()).initializeDatabases());
+        Files.delete(file);
+        assertTrue(new RedisDatabases(4, file.toString()).initializeDatabases());
+    }
+
+    @Test
+    public void testValuesLargerThanTheMappedWindowAreLoaded() throws IOException {
+        // setup: a chunk is never cut inside a record, these ones are read across several 64 MB windows
+        byte[] large = new byte[100 << 20];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        redisDatabases.get(0).setValueForKey(RedisKey.of("test_large_string"), large);
+        List<byte[]> elements = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            elements.add(bytes(i + "_" + "e".repeat(500)));
+        }
+        redisDatabases.get(0).tailPushToList(RedisKey.of("test_large_list"), elements);
+        redisDatabases.get(0).setValueForKey(RedisKey.of("test_after"), bytes("value"));
+        redisDatabases.saveToDisk();
+
+        // act
+        RedisDatabases loaded = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+        boolean initialized = loaded.initializeDatabases();
+
+        // assert
+        assertTrue(initialized);
+        RedisDatabase image = loaded.get(0);
+        assertArrayEquals(large, (byte[]) image.getValueForKey(RedisKey.of("test_large_string")).orElseThrow());
+        assertEquals("300000", image.getListLength(RedisKey.of("test_large_list")).orElseThrow());
+        assertEquals("299999_" + "e".repeat(500), new String((byte[]) image.getListElement(RedisKey.of("test_large_list"), -1).orElseThrow(), StandardCharsets.UTF_8));
+        assertEquals("value", decoded(image.getValueForKey(RedisKey.of("test_after"))));
+    }
+
+    @Test
+    public void testChunksAreLoadedInParallelWithoutExpiredKeys() throws IOException {
+        // setup: a few MB in each database, more chunks than the loader has threads
+        for (int database = 0; database < 4; database++) {
+            for (int i = 0; i < 50_000; i++) {
+                redisDatabases.get(database).setValueForKey(RedisKey.of("test_chunk_" + i), bytes("value_" + database + "_" + i));
+            }
+            redisDatabases.get(database).incrementValueBy(RedisKey.of("test_counter"), database);
+        }
+        for (int i = 0; i < 1000; i++) {
+            redisDatabases.get(1).setValueForKeyWithPEX(RedisKey.of("test_expiring_" + i), bytes("value"), "1000");
+        }
+        redisDatabases.get(2).setValueForKeyWithEX(RedisKey.of("test_timer"), bytes("value"), "1000");
+        assertTrue(redisDatabases.saveToDisk());
+        // saved before their deadline, which passes before the load
+        assertTrue(Files.readString(directory.resolve("dump.rdb"), StandardCharsets.ISO_8859_1).contains("test_expiring_999"));
+        sleep(1000);
+
+        // act
+        RedisDatabases loaded = new RedisDatabases(4, directory.resolve("dump.rdb").toString());
+        boolean initialized = loaded.initializeDatabases();
+
+        // assert
+        assertTrue(initialized);
+        for (int database = 0; database < 4; database++) {
+            RedisDatabase image = loaded.get(database);
+            assertEquals(database == 2 ? 50_002 : 50_001, image.size());
+            assertEquals("value_" + database + "_49999", decoded(image.getValueForKey(RedisKey.of("test_chunk_49999"))));
+            assertEquals(Optional.of("int"), image.getEncoding(RedisKey.of("test_counter")));
+        }
+        assertEquals(Optional.empty(), loaded.get(1).getValueForKey(RedisKey.of("test_expiring_0")));
+        assertEquals(redisDatabases.get(2).getDeadline(RedisKey.of("test_timer")), loaded.get(2).getDeadline(RedisKey.of("test_timer")));
+    }
+
+    @Test
+    public void testVersion1SnapshotIsStillLoaded() throws IOException {
+        // setup: SELECT_DB 1, then a string record, EOF and the checksum of everything before it
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        snapshot.write(bytes("JREDIS0001"));
+        snapshot.write(new byte[]{(byte) 0xFE, 1, 0, 7});
+        snapshot.write(bytes("test_v1"));
+        snapshot.write(5);
+        snapshot.write(bytes("value"));
+        snapshot.write(0xFF);
+        CRC32C checksum = new CRC32C();
+        checksum.update(snapshot.toByteArray());
+        snapshot.write(ByteBuffer.allocate(Integer.BYTES).putInt((int) checksum.getValue()).array());
+        Files.write(directory.resolve("dump.rdb"), snapshot.toByteArray());
+
+        // act
+        boolean initialized = redisDatabases.initializeDatabases();
+
+        // assert
+        assertTrue(initialized);
+        assertEquals("value", decoded(redisDatabases.get(1).getValueForKey(RedisKey.of("test_v1"))));
+    }
+
+    @Test
+    public void testEmptySnapshotFileIsAnEmptyDataset() throws IOException {
+        // setup
+        Files.write(directory.resolve("dump.rdb"), new byte[0]);
+
+        // act
+        boolean initialized = redisDatabases.initializeDatabases();
+
+        // assert
+        assertTrue(initialized);
+        assertEquals(0, redisDatabases.size());
+    }
+
+    // the fields of the Entry class SAVE serialized before the snapshot format
+    private static class BaselineEntry implements Serializable {
+        private Object value;
+        private Instant timerSetAt;
+        private Instant timer;
+        private boolean timerSet = false;
+        private boolean timestampSet = false;
+
+        BaselineEntry(Object value) {
+            this.value = value;
+        }
+    }
+
+    // writes BaselineEntry under the class name it had
+    private static class BaselineOutputStream extends ObjectOutputStream {
+        BaselineOutputStream(OutputStream output) throws IOException {
+            super(output);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass descriptor) throws IOException {
+            if (descriptor.forClass() != BaselineEntry.class) {
+                super.writeClassDescriptor(descriptor);
+                return;
+            }
+            writeUTF("org.example.database.Entry");
+            writeLong(descriptor.getSerialVersionUID());
+            writeByte(ObjectStreamConstants.SC_SERIALIZABLE);
+            writeShort(descriptor.getFields().length);
+            for (ObjectStreamField field: descriptor.getFields()) {
+                writeByte(field.getTypeCode());
+                writeUTF(field.getName());
+                if (!field.isPrimitive()) {
+                    writeObject(field.getTypeString());
+                }
+            }
+        }
+    }
+
+    private static byte[] baselineSnapshot() throws IOException {
+        BaselineEntry relative = new BaselineEntry("in_a_while");
+        relative.timerSetAt = Instant.now();
+        relative.timer = Instant.ofEpochSecond(1000);
+        relative.timerSet = true;
+        BaselineEntry absolute = new BaselineEntry("until_2100");
+        absolute.timer = Instant.ofEpochSecond(4_102_444_800L);
+        absolute.timestampSet = true;
+        BaselineEntry expired = new BaselineEntry("gone");
+        expired.timer = Instant.ofEpochSecond(1);
+        expired.timestampSet = true;
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new BaselineOutputStream(snapshot)) {
+            objectOutputStream.writeObject("test_old");
+            objectOutputStream.writeObject(new BaselineEntry("value"));
+            objectOutputStream.writeObject("test_list");
+            objectOutputStream.writeObject(new BaselineEntry(new ArrayList<>(List.of("a", "b"))));
+            objectOutputStream.writeObject("test_relative");
+            objectOutputStream.writeObject(relative);
+            objectOutputStream.writeObject("test_absolute");
+            objectOutputStream.writeObject(absolute);
+            objectOutputStream.writeObject("test_expired");
+            objectOutputStream.writeObject(expired);
+        }
+        return snapshot.toByteArray();
+    }
+
+    @Test
+    public void testJavaSerializationSnapshotIsStillLoaded() throws IOException {
+        // setup: the format SAVE wrote before, String keys each followed by its Entry
+        Files.write(directory.resolve("dump.rdb"), baselineSnapshot());
+        long now = System.currentTimeMillis();
+
+        // act
+        boolean initialized = redisDatabases.initializeDatabases();
+
+        // assert
+        assertTrue(initialized);
+        RedisDatabase database = redisDatabases.get(0);
+        assertEquals(4, database.size());
+        assertEquals("value", decoded(database.getValueForKey(RedisKey.of("test_old"))));
+        assertEquals(Optional.of("quicklist"), database.getEncoding(RedisKey.of("test_list")));
+        assertEquals("in_a_while", decoded(database.getValueForKey(RedisKey.of("test_relative"))));
+        assertTrue(Math.abs(database.getDeadline(RedisKey.of("test_relative")) - now - 1_000_000) < 60_000);
+        assertEquals(4_102_444_800_000L, database.getDeadline(RedisKey.of("test_absolute")));
+        assertEquals(Optional.empty(), database.getValueForKey(RedisKey.of("test_expired")));
+    }
+
+    @Test
+    public void testCutJavaSerializationSnapshotIsNotLoaded() throws IOException {
+        // setup: the end of the last entry missing
+        byte[] snapshot = baselineSnapshot();
+        Files.write(directory.resolve("dump.rdb"), Arrays.copyOf(snapshot, snapshot.length - 10));
+
+        // act
+        boolean initialized = redisDatabases.initializeDatabases();
+
+        // assert
+        assertFalse(initialized);
+    }
+
+    @Test
+    public void testJavaSerializationSnapshotOfAnotherLayoutIsNotLoaded() throws IOException {
+        // setup: keys as a length and bytes, values as byte arrays
+        Path file = directory.resolve("dump.rdb");
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(Files.newOutputStream(file))) {
+            objectOutputStream.writeInt(8);
+            objectOutputStream.write(bytes("test_old"));
+            objectOutputStream.writeObject(bytes("value"));
+        }
+
+        // act
+        boolean initialized = redisDatabases.initializeDatabases();
+
+        // assert
+        assertFalse(initialized);
+        assertEquals(0, redisDatabases.size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+    }
+
+    private static String decoded(Optional<Object> value) {
+        return new String((byte[]) value.orElseThrow(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,180 @@
+package unit;
+
+import org.example.database.RedisDatabase;
+import org.example.database.RedisDatabases;
+import org.example.database.RedisKey;
+import org.example.engine.KeyspaceShards;
+import org.example.engine.RedisEventLoop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+public class RedisEventLoopTest {
+    private static final long OUTPUT_BUFFER_LIMIT = 1024 * 1024;
+    private final RedisDatabase redisDatabase = spy(new RedisDatabase());
+    private ServerSocketChannel serverChannel;
+    private RedisEventLoop redisEventLoop;
+    private final List<Socket> clients = new ArrayList<>();
+
+    private KeyspaceShards keyspaceShards;
+
+    @BeforeEach
+    public void openServerChannel() throws IOException {
+        serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    // keyspaceShards null runs the commands on the loop thread
+    private void startLoop(KeyspaceShards keyspaceShards) throws IOException {
+        this.keyspaceShards = keyspaceShards;
+        redisEventLoop = new RedisEventLoop(new RedisDatabases(redisDatabase), keyspaceShards, OUTPUT_BUFFER_LIMIT);
+        Thread loop = new Thread(redisEventLoop, "test-event-loop");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    @AfterEach
+    public void stopLoop() throws IOException {
+        redisEventLoop.shutdown();
+        if (keyspaceShards != null) {
+            keyspaceShards.shutdown();
+        }
+        for (Socket client: clients) {
+            client.close();
+        }
+        serverChannel.close();
+    }
+
+    // a client of the loop, with its socket read line by line
+    private BufferedReader connect() throws IOException {
+        Socket client = new Socket();
+        client.connect(serverChannel.getLocalAddress());
+        client.setSoTimeout(5000);
+        clients.add(client);
+        redisEventLoop.register(serverChannel.accept());
+        return new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private void send(int client, String... arguments) throws IOException {
+        StringBuilder request = new StringBuilder();
+        encode(request, arguments);
+        OutputStream outputStream = clients.get(client).getOutputStream();
+        outputStream.write(request.toString().getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    private static void encode(StringBuilder request, String... arguments) {
+        request.append("*").append(arguments.length).append("\r\n");
+        for (String argument: arguments) {
+            request.append('$').append(argument.length()).append("\r\n").append(argument).append("\r\n");
+        }
+    }
+
+    @Test
+    public void testCommandThrowingKeepsTheLoopServingItsClients() throws IOException {
+        // setup
+        startLoop(null);
+        doThrow(new IllegalStateException("broken key")).when(redisDatabase).getValueForKey(RedisKey.of("test_broken"));
+        BufferedReader first = connect();
+        BufferedReader second = connect();
+
+        // act
+        send(0, "GET", "test_broken");
+        String failed = first.readLine();
+        send(0, "SET", "test_key", "value");
+        String set = first.readLine();
+        send(1, "GET", "test_key");
+        String length = second.readLine();
+        String value = second.readLine();
+        BufferedReader third = connect();
+        send(2, "ECHO", "again");
+        third.readLine();
+        String echoed = third.readLine();
+
+        // assert
+        assertTrue(failed.startsWith("-ERR"), failed);
+        assertEquals("+OK", set);
+        assertEquals("$5", length);
+        assertEquals("value", value);
+        assertEquals("again", echoed);
+    }
+
+    @Test
+    public void testClientOverTheOutputBufferLimitIsDisconnected() throws IOException {
+        // setup
+        startLoop(null);
+        redisDatabase.setValueForKey(RedisKey.of("test_large"), new byte[256 * 1024]);
+        connect();
+        BufferedReader other = connect();
+
+        // act
+        // replies far over the limit and over what the socket buffers hold, none of them read
+        for (int i = 0; i < 256; i++) {
+            send(0, "GET", "test_large");
+        }
+        InputStream inputStream = clients.get(0).getInputStream();
+        byte[] bytes = new byte[64 * 1024];
+        long received = 0;
+        int read = 0;
+        try {
+            while ((read = inputStream.read(bytes)) >= 0) {
+                received += read;
+            }
+        } catch (IOException e) {
+            // connection reset by the server
+        }
+        send(1, "ECHO", "alive");
+        other.readLine();
+        String echoed = other.readLine();
+
+        // assert
+        assertTrue(received < 256L * 256 * 1024, "received " + received);
+        assertEquals("alive", echoed);
+    }
+
+    @Test
+    public void testPipelinedRepliesFromShardsKeepTheRequestOrder() throws IOException {
+        // setup
+        startLoop(new KeyspaceShards(4));
+        BufferedReader client = connect();
+        StringBuilder pipeline = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            encode(pipeline, "SET", "test_key_" + i, Integer.toString(i));
+        }
+        // DBSIZE runs on the loop thread, after every SET ran on its shard
+        encode(pipeline, "DBSIZE");
+        encode(pipeline, "DEL", "test_key_0", "test_key_1", "test_key_2");
+        encode(pipeline, "GET", "test_key_99");
+
+        // act
+        OutputStream outputStream = clients.get(0).getOutputStream();
+        outputStream.write(pipeline.toString().getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+        List<String> replies = new ArrayList<>();
+        for (int i = 0; i < 104; i++) {
+            replies.add(client.readLine());
+        }
+
+        // assert
+        for (int i = 0; i < 100; i++) {
+            assertEquals("+OK", replies.get(i));
+        }
+        assertEquals(":100", replies.get(100));
+        assertEquals(":3", replies.get(101));
+        assertEquals("$2", replies.get(102));
+        assertEquals("99", replies.get(103));
+    }
+}
@@ -0,0 +1,55 @@
+package unit;
+
+import org.example.engine.commands.RedisCommandInfo;
+import org.example.engine.commands.RedisCommandTable;
+import org.example.metrics.RedisMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisMetricsTest {
+    // shared singleton: assertions are on deltas, other tests may update it too
+    private final RedisMetrics redisMetrics = RedisMetrics.getInstance();
+
+    @Test
+    public void countCommandsProcessedFromManyThreads() throws InterruptedException {
+        // setup
+        RedisCommandInfo echo = RedisCommandTable.lookup("echo");
+        long before = redisMetrics.getCommandsProcessed(echo);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // act
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    redisMetrics.commandProcessed(echo);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // assert
+        assertEquals(before + 80_000, redisMetrics.getCommandsProcessed(echo));
+    }
+
+    @Test
+    public void renderPrometheusTextFormat() {
+        // setup
+        redisMetrics.registerGauge("jredis_test_gauge", "Gauge registered by the test.", () -> 42);
+
+        // act
+        String rendered = redisMetrics.renderPrometheus();
+
+        // assert
+        assertTrue(rendered.contains("# TYPE jredis_commands_processed_total counter\n"));
+        assertTrue(rendered.contains("jredis_commands_processed_total{command=\"get\"} "));
+        assertTrue(rendered.contains("# HELP jredis_test_gauge Gauge registered by the test.\n# TYPE jredis_test_gauge gauge\njredis_test_gauge 42\n"));
+        for (String line: rendered.split("\n")) {
+            assertTrue(line.startsWith("#") || line.matches("jredis_[a-z_]+(\\{command=\"[a-z]+\"})? [0-9.E-]+"), line);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package unit;
 
 import org.example.database.RedisDatabase;
+import org.example.database.RedisKey;
 import org.example.engine.RedisRequestProcessor;
+import org.example.engine.commands.RedisCommandTable;
 import org.example.resp_types.RespDataType;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
@@ -11,10 +14,15 @@ import org.example.resp_types.simple.RespNull;
 import org.example.resp_types.simple.SimpleString;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RedisResponseGeneratorServiceTest {
@@ -115,8 +123,8 @@ public class RedisResponseGeneratorServiceTest {
         BulkString key = new BulkString("key_test_get");
         requestArray.addElement(getRequest);
         requestArray.addElement(key);
-        SimpleString expectedResponse = new SimpleString("value_test");
-        when(mockedRedisDatabase.getValueForKey(key.getValue())).thenReturn(Optional.of("value_test"));
+        BulkString expectedResponse = new BulkString("value_test");
+        when(mockedRedisDatabase.getValueForKey(new RedisKey(key.getBytes()))).thenReturn(Optional.of("value_test".getBytes(StandardCharsets.UTF_8)));
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
@@ -134,7 +142,7 @@ public class RedisResponseGeneratorServiceTest {
         requestArray.addElement(getRequest);
         requestArray.addElement(key);
         RespNull expectedResponse = new RespNull();
-        when(mockedRedisDatabase.getValueForKey(key.getValue())).thenReturn(Optional.empty());
+        when(mockedRedisDatabase.getValueForKey(new RedisKey(key.getBytes()))).thenReturn(Optional.empty());
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
@@ -152,7 +160,7 @@ public class RedisResponseGeneratorServiceTest {
         requestArray.addElement(getRequest);
         requestArray.addElement(key);
         SimpleError expectedResponse = new SimpleError("GET can only retrieve strings.");
-        when(mockedRedisDatabase.getValueForKey(key.getValue())).thenReturn(Optional.of(-1));
+        when(mockedRedisDatabase.getValueForKey(new RedisKey(key.getBytes()))).thenReturn(Optional.of(-1));
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
@@ -201,6 +209,40 @@ public class RedisResponseGeneratorServiceTest {
         assertEquals(expectedResponse.getValue(), actualResponse.getValue());
     }
 
+    @Test
+    public void generateResponseOnSetEXRequestWithNonIntegerTimer() {
+        // setup
+        RespArray requestArray = new RespArray();
+        requestArray.addElement(new BulkString("SETEX"));
+        requestArray.addElement(new BulkString("test_key_setex_invalid_timer"));
+        requestArray.addElement(new BulkString("abc"));
+        requestArray.addElement(new BulkString("test_value"));
+
+        // act
+        RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
+
+        // assert
+        assertEquals(SharedReplies.INVALID_EXPIRE_TIME.getValue(), actualResponse.getValue());
+        verify(mockedRedisDatabase, never()).setValueForKeyWithDeadline(any(), any(), anyLong());
+    }
+
+    @Test
+    public void generateResponseOnSetEXRequestWithOverflowingTimer() {
+        // setup
+        RespArray requestArray = new RespArray();
+        requestArray.addElement(new BulkString("SETEX"));
+        requestArray.addElement(new BulkString("test_key_setex_overflowing_timer"));
+        requestArray.addElement(new BulkString("9223372036854775807"));
+        requestArray.addElement(new BulkString("test_value"));
+
+        // act
+        RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
+
+        // assert
+        assertEquals(SharedReplies.INVALID_EXPIRE_TIME.getValue(), actualResponse.getValue());
+        verify(mockedRedisDatabase, never()).setValueForKeyWithDeadline(any(), any(), anyLong());
+    }
+
     @Test
     public void generateResponseOnExistingKey() {
         // setup
@@ -210,7 +252,7 @@ public class RedisResponseGeneratorServiceTest {
         requestArray.addElement(existsRequest);
         requestArray.addElement(key);
         RespInteger expectedResponse = new RespInteger("1");
-        when(mockedRedisDatabase.checkKey(key.getValue())).thenReturn(1);
+        when(mockedRedisDatabase.checkKey(new RedisKey(key.getBytes()))).thenReturn(1);
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
@@ -229,9 +271,9 @@ public class RedisResponseGeneratorServiceTest {
         requestArray.addElement(deleteRequest);
         requestArray.addElement(key1);
         requestArray.addElement(key2);
-        List<String> keysToDelete = new ArrayList<>();
-        keysToDelete.add(key1.getValue());
-        keysToDelete.add(key2.getValue());
+        List<RedisKey> keysToDelete = new ArrayList<>();
+        keysToDelete.add(new RedisKey(key1.getBytes()));
+        keysToDelete.add(new RedisKey(key2.getBytes()));
         RespInteger expectedResponse = new RespInteger("2");
         when(mockedRedisDatabase.deleteKeys(keysToDelete)).thenReturn(2);
 
@@ -251,7 +293,7 @@ public class RedisResponseGeneratorServiceTest {
         requestArray.addElement(incrRequest);
         requestArray.addElement(key);
         RespInteger expectedResponse = new RespInteger("1");
-        when(mockedRedisDatabase.incrementValue(key.getValue())).thenReturn(Optional.of("1"));
+        when(mockedRedisDatabase.incrementValue(new RedisKey(key.getBytes()))).thenReturn(Optional.of("1"));
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
@@ -276,7 +318,7 @@ public class RedisResponseGeneratorServiceTest {
         requestIncrArray.addElement(incrRequest);
         requestIncrArray.addElement(keyIncr);
         SimpleError expectedResponse = new SimpleError("Accessed value is not a valid number.");
-        when(mockedRedisDatabase.incrementValue(keyIncr.getValue())).thenReturn(Optional.of("NPS"));
+        when(mockedRedisDatabase.incrementValue(new RedisKey(keyIncr.getBytes()))).thenReturn(Optional.of("NPS"));
 
         // act
         redisRequestProcessor.processRequest(requestSetArray);
@@ -295,7 +337,7 @@ public class RedisResponseGeneratorServiceTest {
         requestArray.addElement(decrRequest);
         requestArray.addElement(key);
         RespInteger expectedResponse = new RespInteger("-1");
-        when(mockedRedisDatabase.decrementValue(key.getValue())).thenReturn(Optional.of("-1"));
+        when(mockedRedisDatabase.decrementValue(new RedisKey(key.getBytes()))).thenReturn(Optional.of("-1"));
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
@@ -320,7 +362,7 @@ public class RedisResponseGeneratorServiceTest {
         requestDecrArray.addElement(decrRequest);
         requestDecrArray.addElement(keyDecr);
         SimpleError expectedResponse = new SimpleError("Accessed value is not a valid number.");
-        when(mockedRedisDatabase.decrementValue(keyDecr.getValue())).thenReturn(Optional.of("NPS"));
+        when(mockedRedisDatabase.decrementValue(new RedisKey(keyDecr.getBytes()))).thenReturn(Optional.of("NPS"));
 
         // act
         redisRequestProcessor.processRequest(requestSetArray);
@@ -346,12 +388,12 @@ public class RedisResponseGeneratorServiceTest {
         requestLpushArray.addElement(valueLpush1);
         requestLpushArray.addElement(valueLpush2);
         requestLpushArray.addElement(valueLpush3);
-        List<String> valuesToAdd = new ArrayList<>();
-        valuesToAdd.add(valueLpush0.getValue());
-        valuesToAdd.add(valueLpush1.getValue());
-        valuesToAdd.add(valueLpush2.getValue());
-        valuesToAdd.add(valueLpush3.getValue());
-        when(mockedRedisDatabase.headPushToList(keyLpush.getValue(), valuesToAdd)).thenReturn(Optional.of("4"));
+        List<byte[]> valuesToAdd = new ArrayList<>();
+        valuesToAdd.add(valueLpush0.getBytes());
+        valuesToAdd.add(valueLpush1.getBytes());
+        valuesToAdd.add(valueLpush2.getBytes());
+        valuesToAdd.add(valueLpush3.getBytes());
+        when(mockedRedisDatabase.headPushToList(new RedisKey(keyLpush.getBytes()), valuesToAdd)).thenReturn(Optional.of("4"));
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestLpushArray);
@@ -371,9 +413,9 @@ public class RedisResponseGeneratorServiceTest {
         requestLpushArray.addElement(lpushRequest);
         requestLpushArray.addElement(keyLpush);
         requestLpushArray.addElement(valueLpush0);
-        List<String> valuesToAdd = new ArrayList<>();
-        valuesToAdd.add(valueLpush0.getValue());
-        when(mockedRedisDatabase.headPushToList(keyLpush.getValue(), valuesToAdd)).thenReturn(Optional.of("NAL"));
+        List<byte[]> valuesToAdd = new ArrayList<>();
+        valuesToAdd.add(valueLpush0.getBytes());
+        when(mockedRedisDatabase.headPushToList(new RedisKey(keyLpush.getBytes()), valuesToAdd)).thenReturn(Optional.of("NAL"));
 
 
         // act
@@ -400,12 +442,12 @@ public class RedisResponseGeneratorServiceTest {
         requestRpushArray.addElement(valueRpush1);
         requestRpushArray.addElement(valueRpush2);
         requestRpushArray.addElement(valueRpush3);
-        List<String> valuesToAdd = new ArrayList<>();
-        valuesToAdd.add(valueRpush0.getValue());
-        valuesToAdd.add(valueRpush1.getValue());
-        valuesToAdd.add(valueRpush2.getValue());
-        valuesToAdd.add(valueRpush3.getValue());
-        when(mockedRedisDatabase.tailPushToList(keyRpush.getValue(), valuesToAdd)).thenReturn(Optional.of("4"));
+        List<byte[]> valuesToAdd = new ArrayList<>();
+        valuesToAdd.add(valueRpush0.getBytes());
+        valuesToAdd.add(valueRpush1.getBytes());
+        valuesToAdd.add(valueRpush2.getBytes());
+        valuesToAdd.add(valueRpush3.getBytes());
+        when(mockedRedisDatabase.tailPushToList(new RedisKey(keyRpush.getBytes()), valuesToAdd)).thenReturn(Optional.of("4"));
 
         // act
         RespDataType actualResponse = redisRequestProcessor.processRequest(requestRpushArray);
@@ -427,13 +469,13 @@ public class RedisResponseGeneratorServiceTest {
         requestRpushArray.addElement(keyLrange);
         requestRpushArray.addElement(startIndex);
         requestRpushArray.addElement(endIndex);
-        List<String> list = new ArrayList<>();
-        list.add("value_0");
-        list.add("value_1");
-        list.add("value_2");
-        list.add("value_3");
-        List<String> subList = list.subList(Integer.parseInt(startIndex.getValue()), Integer.parseInt(endIndex.getValue()) + 1);
-        when(mockedRedisDatabase.getListElements(keyLrange.getValue(), Integer.parseInt(startIndex.getValue()), Integer.parseInt(endIndex.getValue()))).thenReturn(Optional.of(subList));
+        List<byte[]> list = new ArrayList<>();
+        list.add("value_0".getBytes(StandardCharsets.UTF_8));
+        list.add("value_1".getBytes(StandardCharsets.UTF_8));
+        list.add("value_2".getBytes(StandardCharsets.UTF_8));
+        list.add("value_3".getBytes(StandardCharsets.UTF_8));
+        List<byte[]> subList = list.subList(Integer.parseInt(startIndex.getValue()), Integer.parseInt(endIndex.getValue()) + 1);
+        when(mockedRedisDatabase.getListElements(new RedisKey(keyLrange.getBytes()), Integer.parseInt(startIndex.getValue()), Integer.parseInt(endIndex.getValue()))).thenReturn(Optional.of(subList));
 
         // act
         RespArray actualResponse = (RespArray) redisRequestProcessor.processRequest(requestRpushArray);
@@ -449,4 +491,66 @@ public class RedisResponseGeneratorServiceTest {
             assertEquals(resultList.getValue().get(i).getValue(), (String)actualResponse.getValue().get(i).getValue());
         }
     }
+
+    @Test
+    public void generateResponseOnLowerCaseGetRequest() {
+        // setup
+        RespArray requestArray = new RespArray();
+        requestArray.addElement(new BulkString("get".getBytes(StandardCharsets.UTF_8)));
+        BulkString key = new BulkString("key_test_lower_case_get");
+        requestArray.addElement(key);
+        when(mockedRedisDatabase.getValueForKey(new RedisKey(key.getBytes()))).thenReturn(Optional.of("value_test".getBytes(StandardCharsets.UTF_8)));
+
+        // act
+        RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
+
+        // assert
+        assertEquals("value_test", actualResponse.getValue());
+    }
+
+    @Test
+    public void generateResponseOnUnknownCommand() {
+        // setup
+        RespArray requestArray = new RespArray();
+        requestArray.addElement(new BulkString("GETT"));
+
+        // act
+        RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
+
+        // assert
+        assertEquals("Unknown Command", actualResponse.getValue());
+    }
+
+    @Test
+    public void generateResponseOnCommandCount() {
+        // setup
+        RespArray requestArray = new RespArray();
+        requestArray.addElement(new BulkString("COMMAND"));
+        requestArray.addElement(new BulkString("count"));
+
+        // act
+        RespDataType actualResponse = redisRequestProcessor.processRequest(requestArray);
+
+        // assert
+        assertEquals(Integer.toString(RedisCommandTable.size()), actualResponse.getValue());
+    }
+
+    @Test
+    public void generateResponseOnCommandInfo() {
+        // setup
+        RespArray requestArray = new RespArray();
+        requestArray.addElement(new BulkString("COMMAND"));
+        requestArray.addElement(new BulkString("INFO"));
+        requestArray.addElement(new BulkString("Get"));
+        requestArray.addElement(new BulkString("missing"));
+
+        // act
+        RespArray actualResponse = (RespArray) redisRequestProcessor.processRequest(requestArray);
+
+        // assert
+        assertEquals(2, actualResponse.getLength());
+        String expectedGetInfo = "*6\r\n$3\r\nget\r\n:2\r\n*2\r\n+readonly\r\n+fast\r\n:1\r\n:1\r\n:1\r\n";
+        assertEquals(expectedGetInfo, actualResponse.getValue().get(0).serialize().toString());
+        assertEquals(new RespNull().getValue(), actualResponse.getValue().get(1).getValue());
+    }
 }
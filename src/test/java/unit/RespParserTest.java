@@ -0,0 +1,105 @@
+package unit;
+
+import org.example.exceptions.IncorrectSyntax;
+import org.example.resp.RespParser;
+import org.example.resp_types.aggregate.RespArray;
+import org.example.resp_types.bulk.BulkString;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RespParserTest {
+    private final RespParser respParser = new RespParser();
+
+    @Test
+    public void parseOnSimpleCorrectRequest() throws IncorrectSyntax {
+        // setup
+        respParser.feed(ByteBuffer.wrap("*1\r\n$4\r\nPING\r\n".getBytes(StandardCharsets.UTF_8)));
+
+        // act
+        RespArray request = respParser.next();
+
+        // assert
+        assertEquals(1, request.getLength());
+        assertEquals("PING", request.getValue().get(0).getValue());
+        assertNull(respParser.next());
+        assertFalse(respParser.hasBufferedInput());
+    }
+
+    @Test
+    public void parseOnRequestSplitAcrossReads() throws IncorrectSyntax {
+        // setup
+        byte[] clientRequest = "*3\r\n$3\r\nSET\r\n$3\r\nkey\r\n$10\r\nhelloworld\r\n".getBytes(StandardCharsets.UTF_8);
+
+        // act: feed one byte at a time, the request is only returned once complete
+        RespArray request = null;
+        for (int i = 0; i < clientRequest.length; i++) {
+            assertNull(request);
+            respParser.feed(clientRequest, i, 1);
+            request = respParser.next();
+        }
+
+        // assert
+        assertNotNull(request);
+        assertEquals("SET", request.getValue().get(0).getValue());
+        assertEquals("key", request.getValue().get(1).getValue());
+        assertEquals("helloworld", request.getValue().get(2).getValue());
+    }
+
+    @Test
+    public void parseOnPipelinedRequests() throws IncorrectSyntax {
+        // setup
+        respParser.feed(ByteBuffer.wrap("*1\r\n$4\r\nPING\r\n*2\r\n$3\r\nGET\r\n$1\r\na\r\n*2\r\n$4\r\nECHO".getBytes(StandardCharsets.UTF_8)));
+
+        // act + assert
+        assertEquals("PING", respParser.next().getValue().get(0).getValue());
+        assertEquals("GET", respParser.next().getValue().get(0).getValue());
+        assertNull(respParser.next());
+        assertTrue(respParser.hasBufferedInput());
+    }
+
+    @Test
+    public void parseOnBinaryPayload() throws IncorrectSyntax {
+        // setup: payload with CRLF, a zero byte, an invalid UTF-8 byte and a multi-byte character
+        byte[] payload = {'a', '\r', '\n', 0, (byte) 0xff, (byte) 0xc3, (byte) 0xa8};
+        respParser.feed(ByteBuffer.wrap("*2\r\n$4\r\nECHO\r\n$7\r\n".getBytes(StandardCharsets.UTF_8)));
+        respParser.feed(payload, 0, payload.length);
+        respParser.feed(ByteBuffer.wrap("\r\n".getBytes(StandardCharsets.UTF_8)));
+
+        // act
+        RespArray request = respParser.next();
+
+        // assert
+        assertArrayEquals(payload, ((BulkString) request.getValue().get(1)).getBytes());
+    }
+
+    @Test
+    public void incorrectSyntaxExceptionThrownOnInvalidTypeChar() {
+        respParser.feed(ByteBuffer.wrap("+PING\r\n".getBytes(StandardCharsets.UTF_8)));
+        IncorrectSyntax exception = assertThrows(IncorrectSyntax.class, respParser::next);
+        assertEquals("Invalid type char for Resp data type.", exception.getMessage());
+    }
+
+    @Test
+    public void incorrectSyntaxExceptionThrownOnInvalidLengthOnArray() {
+        respParser.feed(ByteBuffer.wrap("*c\r\n$4\r\nPING\r\n".getBytes(StandardCharsets.UTF_8)));
+        IncorrectSyntax exception = assertThrows(IncorrectSyntax.class, respParser::next);
+        assertEquals("Missing length of data.", exception.getMessage());
+    }
+
+    @Test
+    public void incorrectSyntaxExceptionThrownOnMissingCRLFBeforeData() {
+        respParser.feed(ByteBuffer.wrap("*1\n$4\r\nPING\r\n".getBytes(StandardCharsets.UTF_8)));
+        IncorrectSyntax exception = assertThrows(IncorrectSyntax.class, respParser::next);
+        assertEquals("Missing CRLF before data.", exception.getMessage());
+    }
+
+    @Test
+    public void incorrectSyntaxExceptionThrownOnBulkStringMissingCRLFAfterData() {
+        respParser.feed(ByteBuffer.wrap("*1\r\n$4\r\nPINGGG\r\n".getBytes(StandardCharsets.UTF_8)));
+        IncorrectSyntax exception = assertThrows(IncorrectSyntax.class, respParser::next);
+        assertEquals("Missing CRLF after data.", exception.getMessage());
+    }
+}
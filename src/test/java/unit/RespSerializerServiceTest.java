@@ -1,5 +1,7 @@
 package unit;
 
+import org.example.resp.RespWriter;
+import org.example.resp_types.SharedReplies;
 import org.example.resp_types.aggregate.RespArray;
 import org.example.resp_types.bulk.BulkString;
 import org.example.resp_types.errors.SimpleError;
@@ -8,7 +10,10 @@ import org.example.resp_types.simple.RespNull;
 import org.example.resp_types.simple.SimpleString;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 
 public class RespSerializerServiceTest {
@@ -94,4 +99,94 @@ public class RespSerializerServiceTest {
             assertEquals(responseString, respArrayToSerialize.serialize().toString());
         }
     }
+
+    @Nested
+    class RespWriterTest {
+        private final RespWriter respWriter = new RespWriter(16);
+
+        private String written() {
+            return new String(respWriter.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        @Test
+        public void writeOnSimpleTypes() {
+            new SimpleString("OK").write(respWriter);
+            new SimpleError("Error").write(respWriter);
+            new RespInteger("-1000").write(respWriter);
+            new RespNull().write(respWriter);
+            assertEquals("+OK\r\n-Error\r\n:-1000\r\n_\r\n", written());
+        }
+
+        @Test
+        public void writeOnBulkStringUsesByteLength() {
+            new BulkString("caffè").write(respWriter);
+            assertEquals("$6\r\ncaffè\r\n", written());
+        }
+
+        @Test
+        public void writeOnArrayOfMixedRespDataTypes() {
+            String responseString = "*2\r\n*3\r\n:1\r\n:2\r\n:3\r\n*2\r\n+Hello\r\n-Error\r\n";
+            RespArray respArrayToWrite = new RespArray();
+            RespArray firstRespArray = new RespArray();
+            firstRespArray.addElement(new RespInteger("1"));
+            firstRespArray.addElement(new RespInteger("2"));
+            firstRespArray.addElement(new RespInteger("3"));
+            RespArray secondRespArray = new RespArray();
+            secondRespArray.addElement(new SimpleString("Hello"));
+            secondRespArray.addElement(new SimpleError("Error"));
+            respArrayToWrite.addElement(firstRespArray);
+            respArrayToWrite.addElement(secondRespArray);
+            respArrayToWrite.write(respWriter);
+            assertEquals(responseString, written());
+        }
+
+        @Test
+        public void writeOnLargeArrayAndNullArray() {
+            RespArray respArrayToWrite = new RespArray();
+            for (int i = 0; i < 2000; i++) {
+                respArrayToWrite.addElement(new BulkString(Integer.toString(i)));
+            }
+            respArrayToWrite.write(respWriter);
+            assertEquals(respArrayToWrite.serialize().toString(), written());
+
+            respWriter.reset();
+            RespArray nullArray = new RespArray();
+            nullArray.setNull();
+            nullArray.write(respWriter);
+            assertEquals("*-1\r\n", written());
+        }
+
+        @Test
+        public void writeOnDecimals() {
+            respWriter.writeDecimal(0).writeDecimal(Long.MAX_VALUE).writeDecimal(Long.MIN_VALUE);
+            assertEquals("0" + Long.MAX_VALUE + Long.MIN_VALUE, written());
+        }
+    }
+
+    @Nested
+    class SharedRepliesTest {
+        private final RespWriter respWriter = new RespWriter(16);
+
+        @Test
+        public void writeOnSharedRepliesMatchesSerialize() {
+            SharedReplies.OK.write(respWriter);
+            SharedReplies.NULL.write(respWriter);
+            SharedReplies.PONG.write(respWriter);
+            SharedReplies.NOT_A_LIST.write(respWriter);
+            SharedReplies.integer(42).write(respWriter);
+            String expected = "+OK\r\n_\r\n$4\r\nPONG\r\n-Accessed value is not a list.\r\n:42\r\n";
+            assertEquals(expected, new String(respWriter.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals("+OK\r\n", SharedReplies.OK.serialize().toString());
+        }
+
+        @Test
+        public void integersUpToTenThousandAreShared() {
+            assertSame(SharedReplies.integer(0), SharedReplies.integer("0"));
+            assertSame(SharedReplies.integer(10000), SharedReplies.integer("10000"));
+            assertNotSame(SharedReplies.integer(10001), SharedReplies.integer(10001));
+            assertEquals("-1", SharedReplies.integer(-1).getValue());
+            assertEquals("007", SharedReplies.integer("007").getValue());
+            assertEquals("123456", SharedReplies.integer("123456").getValue());
+        }
+    }
 }